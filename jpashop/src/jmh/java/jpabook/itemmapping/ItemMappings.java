@@ -0,0 +1,76 @@
+package jpabook.itemmapping;
+
+import jakarta.persistence.*;
+
+/*
+    ItemMappingBenchmark용 상품 엔티티(SINGLE_TABLE, JOINED 두 벌)
+     - jpabook.jpashop 아래에 두면 다른 벤치마크가 띄우는 JpashopApplication의 엔티티 스캔에 걸려서 item 테이블이 겹치므로 패키지를 분리
+ */
+public class ItemMappings {
+
+    //==SINGLE_TABLE (jpabook.jpashop.domain.item.Item과 같은 매핑)==//
+    @Entity(name = "SingleItem")
+    @Table(name = "item", indexes = @Index(name = "idx_item_dtype", columnList = "dtype, item_id"))
+    @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
+    @DiscriminatorColumn(name = "dtype")
+    public abstract static class SingleItem {
+        @Id @Column(name = "item_id") Long id;
+        @Column(insertable = false, updatable = false) String dtype;
+        String name;
+        int price;
+        int stockQuantity;
+    }
+
+    @Entity(name = "SingleBook")
+    @DiscriminatorValue("B")
+    public static class SingleBook extends SingleItem {
+        String author;
+        String isbn;
+    }
+
+    @Entity(name = "SingleAlbum")
+    @DiscriminatorValue("A")
+    public static class SingleAlbum extends SingleItem {
+        String artist;
+        String etc;
+    }
+
+    @Entity(name = "SingleMovie")
+    @DiscriminatorValue("M")
+    public static class SingleMovie extends SingleItem {
+        String director;
+        String actor;
+    }
+
+    //==JOINED==//
+    @Entity(name = "JoinedItem")
+    @Table(name = "item")
+    @Inheritance(strategy = InheritanceType.JOINED)
+    public abstract static class JoinedItem {
+        @Id @Column(name = "item_id") Long id;
+        String name;
+        int price;
+        int stockQuantity;
+    }
+
+    @Entity(name = "JoinedBook")
+    @Table(name = "book")
+    public static class JoinedBook extends JoinedItem {
+        String author;
+        String isbn;
+    }
+
+    @Entity(name = "JoinedAlbum")
+    @Table(name = "album")
+    public static class JoinedAlbum extends JoinedItem {
+        String artist;
+        String etc;
+    }
+
+    @Entity(name = "JoinedMovie")
+    @Table(name = "movie")
+    public static class JoinedMovie extends JoinedItem {
+        String director;
+        String actor;
+    }
+}
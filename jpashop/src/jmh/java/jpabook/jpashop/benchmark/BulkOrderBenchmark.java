@@ -0,0 +1,94 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.JpashopApplication;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.service.BulkOrder;
+import jpabook.jpashop.service.BulkOrderService;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+    대량 주문 vs 단건 주문 반복
+     - singleLoop: OrderService.order를 orderCount번 호출(주문마다 트랜잭션, insert마다 SQL)
+     - bulk: BulkOrderService.order로 orderCount건을 한번에(in 절 조회, jdbc batch insert, 청크 flush/clear)
+     - 주문 1건 = 회원 1명, 주문상품 1개. op 하나가 주문 orderCount건이므로 초당 주문 수 = thrpt(ops/ms) * 1000 * orderCount
+
+    실행: ./gradlew jmh -PjmhArgs="BulkOrderBenchmark"
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BulkOrderBenchmark {
+
+    @Param({"100", "1000"})
+    public int orderCount;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private BulkOrderService bulkOrderService;
+    private List<BulkOrder> bulkOrders;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(JpashopApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:bulk;DB_CLOSE_DELAY=-1",
+                "--logging.level.org.hibernate.SQL=warn");
+        orderService = context.getBean(OrderService.class);
+        bulkOrderService = context.getBean(BulkOrderService.class);
+
+        List<Long> itemIds = new ArrayList<>();
+        ItemService itemService = context.getBean(ItemService.class);
+        for (int i = 0; i < 100; i++) {
+            Book book = new Book();
+            book.setName("BOOK" + i);
+            book.setPrice(10000 + i * 100);
+            book.setStockQuantity(Integer.MAX_VALUE);
+            itemService.saveItem(book);
+            itemIds.add(book.getId());
+        }
+        List<Long> memberIds = new ArrayList<>();
+        MemberService memberService = context.getBean(MemberService.class);
+        for (int i = 0; i < 100; i++) {
+            Member member = new Member();
+            member.setName("member" + i);
+            member.setAddress(new Address("서울", "street" + i, "zip" + i));
+            memberIds.add(memberService.join(member));
+        }
+
+        bulkOrders = new ArrayList<>(orderCount);
+        for (int i = 0; i < orderCount; i++) {
+            bulkOrders.add(new BulkOrder(memberIds.get(i % memberIds.size()),
+                    List.of(new BulkOrder.Line(itemIds.get(i % itemIds.size()), 1))));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long singleLoop() {
+        long last = 0;
+        for (BulkOrder bulkOrder : bulkOrders) {
+            BulkOrder.Line line = bulkOrder.getLines().get(0);
+            last = orderService.order(bulkOrder.getMemberId(), line.getItemId(), line.getCount());
+        }
+        return last;
+    }
+
+    @Benchmark
+    public List<Long> bulk() {
+        return bulkOrderService.order(bulkOrders);
+    }
+}
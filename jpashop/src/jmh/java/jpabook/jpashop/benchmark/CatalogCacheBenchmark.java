@@ -0,0 +1,111 @@
+package jpabook.jpashop.benchmark;
+
+import jakarta.persistence.EntityManagerFactory;
+import jpabook.jpashop.JpashopApplication;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/*
+    상품 목록(/items), 주문 화면(/order) 2차 캐시 + 쿼리 캐시 on/off 비교
+     - cache=true: 상품 목록 쿼리 결과와 상품 엔티티를 캐시에서 읽음(상품 SQL 0번)
+     - cache=false: 요청마다 select i from Item i 실행
+     - SqlCounter.statements / SqlCounter.ops = op당 실행된 SQL 수
+     - 메모리 H2는 SQL 한번이 매우 싸기 때문에 응답시간 차이는 작고, 네트워크 너머 DB일수록 차이가 커짐
+
+    실행: ./gradlew jmh -PjmhArgs="CatalogCacheBenchmark"
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CatalogCacheBenchmark {
+
+    @Param({"true", "false"})
+    public boolean cache;
+
+    @Param({"100", "1000"})
+    public int itemCount;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private Statistics statistics;
+
+    //op당 SQL 수를 결과에 같이 출력하기 위한 보조 카운터
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class SqlCounter {
+        public long statements;
+        public long ops;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(JpashopApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:catalog;DB_CLOSE_DELAY=-1",
+                "--spring.jpa.properties.hibernate.cache.use_second_level_cache=" + cache,
+                "--spring.jpa.properties.hibernate.cache.use_query_cache=" + cache,
+                "--logging.level.org.hibernate.SQL=warn");
+
+        ItemService itemService = context.getBean(ItemService.class);
+        for (int i = 0; i < itemCount; i++) {
+            Book book = new Book();
+            book.setName("BOOK" + i);
+            book.setPrice(10000 + i * 100);
+            book.setStockQuantity(100);
+            itemService.saveItem(book);
+        }
+        MemberService memberService = context.getBean(MemberService.class);
+        for (int i = 0; i < 100; i++) {
+            Member member = new Member();
+            member.setName("member" + i);
+            member.setAddress(new Address("서울", "street" + i, "zip" + i));
+            memberService.join(member);
+        }
+
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+        statistics = context.getBean(EntityManagerFactory.class)
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private String call(String url, SqlCounter counter) throws Exception {
+        long before = statistics.getPrepareStatementCount();
+        MockHttpServletResponse response = mockMvc.perform(get(url)).andReturn().getResponse();
+        if (response.getStatus() != 200) {
+            throw new IllegalStateException(url + " -> " + response.getStatus());
+        }
+        counter.statements += statistics.getPrepareStatementCount() - before;
+        counter.ops++;
+        return response.getContentAsString();
+    }
+
+    @Benchmark
+    public String items(SqlCounter counter) throws Exception {
+        return call("/items", counter);
+    }
+
+    @Benchmark
+    public String orderForm(SqlCounter counter) throws Exception {
+        return call("/order", counter);
+    }
+}
@@ -0,0 +1,157 @@
+package jpabook.jpashop.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.JpashopApplication;
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.repository.CategoryRepository;
+import jpabook.jpashop.service.CategoryService;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+    카테고리 계층 조회(materialized path) 벤치마크
+     - 루트 10개, 깊이 10, 레벨마다 약 2.65배씩 늘어나서 카테고리 약 10만개, 상품 1만개(가장 깊은 두 레벨에 연결)
+     - descendants: path like 한번으로 루트의 하위 카테고리 전체(약 1만개)
+     - descendantsByTraversal: 비교용. child 컬렉션을 레벨별로 따라 내려가는 기존 방식(배치 페치 100)
+     - breadcrumb: 가장 깊은 카테고리에서 루트까지
+     - subtreeItems: 루트 서브트리 상품 첫 페이지(20개) + count
+
+    실행: ./gradlew jmh -PjmhArgs="CategoryTreeBenchmark"
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CategoryTreeBenchmark {
+
+    private static final int ROOTS = 10;
+    private static final int DEPTH = 10;
+    private static final double FAN_OUT = 2.65;
+    private static final int ITEMS = 10_000;
+
+    private ConfigurableApplicationContext context;
+    private CategoryService categoryService;
+    private TransactionTemplate readOnlyTx;
+    private EntityManager em;
+    private Long rootId;
+    private Long leafId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(JpashopApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:category;DB_CLOSE_DELAY=-1",
+                "--logging.level.org.hibernate.SQL=warn");
+        categoryService = context.getBean(CategoryService.class);
+        em = context.getBean(EntityManager.class);
+        readOnlyTx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTx.setReadOnly(true);
+
+        seed();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    //레벨 순서대로 저장(부모 path가 있어야 path가 정해짐), 1000건마다 flush, clear
+    private void seed() {
+        CategoryRepository categoryRepository = context.getBean(CategoryRepository.class);
+        TransactionTemplate tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        tx.executeWithoutResult(status -> {
+            //데이터 생성 중에는 2차 캐시를 거치지 않음(soft lock 경고 방지)
+            em.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+            List<Item> items = new ArrayList<>(ITEMS);
+            for (int i = 0; i < ITEMS; i++) {
+                Book book = new Book();
+                book.setName("BOOK" + i);
+                book.setPrice(10000);
+                book.setStockQuantity(100);
+                em.persist(book);
+                items.add(book);
+            }
+            em.flush();
+            em.clear();
+
+            int count = 0;
+            int linked = 0;
+            List<Category> level = new ArrayList<>();
+            for (int d = 0; d < DEPTH; d++) {
+                int size = d == 0 ? ROOTS : (int) Math.round(level.size() * FAN_OUT);
+                List<Category> next = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    Category category = new Category();
+                    category.setName("C" + d + "-" + i);
+                    if (d > 0) {
+                        //자식 컬렉션에 계속 쌓이지 않도록 부모 연결만(path는 @PrePersist에서 계산)
+                        category.setParent(level.get(i % level.size()));
+                    }
+                    if (d >= DEPTH - 2) {
+                        category.getItems().add(items.get(linked++ % ITEMS));
+                    }
+                    categoryRepository.save(category);
+                    next.add(category);
+                    if (++count % 1000 == 0) {
+                        em.flush();
+                        em.clear();
+                    }
+                }
+                level = next;
+            }
+            em.flush();
+            em.clear();
+        });
+
+        rootId = readOnlyTx.execute(status -> em.createQuery(
+                "select c.id from Category c where c.depth = 0 order by c.id", Long.class)
+                .setMaxResults(1).getSingleResult());
+        leafId = readOnlyTx.execute(status -> em.createQuery(
+                "select c.id from Category c where c.depth = :depth order by c.id", Long.class)
+                .setParameter("depth", DEPTH - 1)
+                .setMaxResults(1).getSingleResult());
+    }
+
+    @Benchmark
+    public List<Category> descendants() {
+        return categoryService.findDescendants(rootId);
+    }
+
+    @Benchmark
+    public int descendantsByTraversal() {
+        return readOnlyTx.execute(status -> {
+            int count = 0;
+            Deque<Category> queue = new ArrayDeque<>(em.find(Category.class, rootId).getChild());
+            while (!queue.isEmpty()) {
+                Category category = queue.poll();
+                count++;
+                queue.addAll(category.getChild());
+            }
+            em.clear();
+            return count;
+        });
+    }
+
+    @Benchmark
+    public List<Category> breadcrumb() {
+        return categoryService.findBreadcrumb(leafId);
+    }
+
+    @Benchmark
+    public Page<Item> subtreeItems() {
+        return categoryService.findItems(rootId, PageRequest.of(0, 20));
+    }
+}
@@ -0,0 +1,157 @@
+package jpabook.jpashop.benchmark;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import jpabook.itemmapping.ItemMappings.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+    상품 상속관계 매핑 비교: SINGLE_TABLE(현재 Item) vs JOINED, 상품 100만개(Book 60%, Album 25%, Movie 15%)
+     - Item과 같은 모양의 엔티티를 매핑 전략만 바꿔서 두 벌 만들고(jpabook.itemmapping.ItemMappings), 각각 별도 메모리 H2 + hibernate SessionFactory로 실행
+        - single: item 한 테이블 + dtype, (dtype, item_id) 인덱스
+        - joined: item(공통 컬럼) + book/album/movie(종류별 컬럼), 종류 테이블 pk = item_id
+     - bookPage: 도서 100개 키셋 페이지, 도서 컬럼만 select(ItemQueryRepository.findBooks와 같은 쿼리)
+     - bookEntityPage: 도서 100개 키셋 페이지, 엔티티로 조회
+     - summaryPage: 전체 상품 100개 키셋 페이지, 공통 컬럼 + type(i)(joined는 종류 테이블 3개를 left join 해야 종류를 앎)
+     - findById: 상품 1개 다형성 조회(em.find(Item.class, id))
+     - countBooks: 도서 수
+
+    실행: ./gradlew jmh -PjmhArgs="ItemMappingBenchmark"
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ItemMappingBenchmark {
+
+    @Param({"1000000"})
+    public int itemCount;
+
+    @Param({"single", "joined"})
+    public String mapping;
+
+    private SessionFactory sessionFactory;
+    private String item;
+    private String book;
+    private String bookOrder;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        boolean single = mapping.equals("single");
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.JAKARTA_JDBC_URL, "jdbc:h2:mem:" + mapping + ";DB_CLOSE_DELAY=-1")
+                .applySetting(AvailableSettings.JAKARTA_JDBC_USER, "sa")
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "create")
+                .applySetting(AvailableSettings.PHYSICAL_NAMING_STRATEGY, CamelCaseToUnderscoresNamingStrategy.class.getName())
+                .build();
+        MetadataSources sources = new MetadataSources(registry);
+        if (single) {
+            sources.addAnnotatedClasses(SingleItem.class, SingleBook.class, SingleAlbum.class, SingleMovie.class);
+        } else {
+            sources.addAnnotatedClasses(JoinedItem.class, JoinedBook.class, JoinedAlbum.class, JoinedMovie.class);
+        }
+        sessionFactory = sources.buildMetadata().buildSessionFactory();
+        item = single ? "SingleItem" : "JoinedItem";
+        book = single ? "SingleBook" : "JoinedBook";
+        //single은 ItemQueryRepository와 같이 dtype부터 정렬해야 H2가 (dtype, item_id) 인덱스 순서로 100건만 읽음
+        bookOrder = single ? "b.dtype, b.id" : "b.id";
+
+        seed(single);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    //x mod 20: 0 ~ 11 도서, 12 ~ 16 앨범, 17 ~ 19 영화
+    private void seed(boolean single) {
+        String range = " from system_range(1, " + itemCount + ")";
+        String common = "x, concat('item', x), 1000 + mod(x, 100) * 100, 100";
+        sessionFactory.inTransaction(session -> {
+            if (single) {
+                session.createNativeMutationQuery("insert into item (item_id, name, price, stock_quantity, dtype," +
+                        " author, isbn, artist, etc, director, actor)" +
+                        " select " + common + "," +
+                        " case when mod(x, 20) < 12 then 'B' when mod(x, 20) < 17 then 'A' else 'M' end," +
+                        " case when mod(x, 20) < 12 then concat('author', mod(x, 1000)) end," +
+                        " case when mod(x, 20) < 12 then concat('isbn', x) end," +
+                        " case when mod(x, 20) between 12 and 16 then concat('artist', mod(x, 1000)) end," +
+                        " case when mod(x, 20) between 12 and 16 then 'etc' end," +
+                        " case when mod(x, 20) >= 17 then concat('director', mod(x, 1000)) end," +
+                        " case when mod(x, 20) >= 17 then concat('actor', mod(x, 1000)) end" +
+                        range).executeUpdate();
+            } else {
+                session.createNativeMutationQuery("insert into item (item_id, name, price, stock_quantity) select " + common + range)
+                        .executeUpdate();
+                session.createNativeMutationQuery("insert into book (item_id, author, isbn)" +
+                        " select x, concat('author', mod(x, 1000)), concat('isbn', x)" + range + " where mod(x, 20) < 12")
+                        .executeUpdate();
+                session.createNativeMutationQuery("insert into album (item_id, artist, etc)" +
+                        " select x, concat('artist', mod(x, 1000)), 'etc'" + range + " where mod(x, 20) between 12 and 16")
+                        .executeUpdate();
+                session.createNativeMutationQuery("insert into movie (item_id, director, actor)" +
+                        " select x, concat('director', mod(x, 1000)), concat('actor', mod(x, 1000))" + range + " where mod(x, 20) >= 17")
+                        .executeUpdate();
+            }
+            session.createNativeMutationQuery("analyze").executeUpdate();
+        });
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, itemCount - 1000);
+    }
+
+    private <T> T read(java.util.function.Function<Session, T> work) {
+        try (Session session = sessionFactory.openSession()) {
+            session.setDefaultReadOnly(true);
+            return work.apply(session);
+        }
+    }
+
+    @Benchmark
+    public List<Object[]> bookPage() {
+        return read(session -> session.createQuery("select b.id, b.name, b.price, b.stockQuantity, b.author, b.isbn" +
+                        " from " + book + " b where b.id > :after order by " + bookOrder, Object[].class)
+                .setParameter("after", randomId())
+                .setMaxResults(100)
+                .getResultList());
+    }
+
+    @Benchmark
+    public List<?> bookEntityPage() {
+        return read(session -> session.createQuery("select b from " + book + " b where b.id > :after order by " + bookOrder)
+                .setParameter("after", randomId())
+                .setMaxResults(100)
+                .getResultList());
+    }
+
+    @Benchmark
+    public List<Object[]> summaryPage() {
+        return read(session -> session.createQuery("select i.id, type(i), i.name, i.price, i.stockQuantity" +
+                        " from " + item + " i where i.id > :after order by i.id", Object[].class)
+                .setParameter("after", randomId())
+                .setMaxResults(100)
+                .getResultList());
+    }
+
+    @Benchmark
+    public Object findById() {
+        Class<?> type = mapping.equals("single") ? SingleItem.class : JoinedItem.class;
+        return read(session -> session.find(type, randomId()));
+    }
+
+    @Benchmark
+    public Long countBooks() {
+        return read(session -> session.createQuery("select count(b) from " + book + " b", Long.class)
+                .getSingleResult());
+    }
+}
@@ -0,0 +1,92 @@
+package jpabook.jpashop.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.JpashopApplication;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.service.MemberNameFilter;
+import jpabook.jpashop.service.MemberService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+    동시 회원가입 처리량: 회원명 블룸 필터 on/off
+     - 회원 100만명을 H2 system_range로 생성한 뒤 4개 스레드가 동시에 가입
+     - join: 새 이름으로 가입. 필터가 켜져 있으면 중복 검증 select를 건너뛰고 insert만 실행
+     - joinDuplicate: 이미 있는 이름으로 가입. 필터와 상관없이 exists 쿼리로 걸러져야 함
+
+    실행: ./gradlew jmh -PjmhArgs="MemberJoinBenchmark"
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(4)
+public class MemberJoinBenchmark {
+
+    private static final long ID_BASE = 10_000_000L;
+
+    @Param({"1000000"})
+    public int memberCount;
+
+    @Param({"true", "false"})
+    public boolean filter;
+
+    private ConfigurableApplicationContext context;
+    private MemberService memberService;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(JpashopApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:join;DB_CLOSE_DELAY=-1",
+                "--jpashop.member.name-filter.enabled=" + filter,
+                "--jpashop.projector.enabled=false",
+                "--logging.level.org.hibernate.SQL=warn");
+
+        seed();
+        context.getBean(MemberNameFilter.class).load(); //시드한 회원명으로 다시 채움
+        memberService = context.getBean(MemberService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private void seed() {
+        EntityManager em = context.getBean(EntityManager.class);
+        TransactionTemplate tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        tx.executeWithoutResult(status -> {
+            em.createNativeQuery("insert into member (member_id, name, city, street, zipcode)" +
+                            " select " + ID_BASE + " + x, concat('member', x), '서울', 'street', 'zip'" +
+                            " from system_range(1, " + memberCount + ")")
+                    .executeUpdate();
+            em.createNativeQuery("analyze").executeUpdate();
+        });
+    }
+
+    @Benchmark
+    public Long join() {
+        Member member = new Member();
+        member.setName("joined" + sequence.incrementAndGet());
+        return memberService.join(member);
+    }
+
+    @Benchmark
+    public boolean joinDuplicate() {
+        Member member = new Member();
+        member.setName("member" + ThreadLocalRandom.current().nextInt(1, memberCount + 1));
+        try {
+            memberService.join(member);
+        } catch (IllegalStateException e) {
+            return true;
+        }
+        throw new AssertionError("중복 회원이 가입됨: " + member.getName());
+    }
+}
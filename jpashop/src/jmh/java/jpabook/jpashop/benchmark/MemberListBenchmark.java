@@ -0,0 +1,93 @@
+package jpabook.jpashop.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.JpashopApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/*
+    회원 목록 조회: 엔티티 조회(V2) vs DTO 조회(V3)
+     - 회원 100만명을 H2 system_range로 생성하고 컨트롤러부터 JSON 직렬화까지 측정
+     - entityV2: 회원 엔티티 전체 조회 후 DTO 변환(Address, orders 프록시, 스냅샷까지 생성)
+     - streamV3: DTO로 한 명씩 읽으면서 NDJSON으로 바로 씀
+     - pageV3: 키셋 페이징으로 중간(50만번째) 이후 100명
+     - 힙 사용량은 gc 프로파일러의 gc.alloc.rate.norm(op당 할당 바이트)으로 비교
+     - entityV2는 회원 100만명을 한번에 영속성 컨텍스트에 올리므로 힙을 넉넉하게 줌
+
+    실행: ./gradlew jmh -PjmhArgs="MemberListBenchmark"
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class MemberListBenchmark {
+
+    private static final long ID_BASE = 10_000_000L;
+
+    @Param({"1000000"})
+    public int memberCount;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(JpashopApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:members;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE", //같은 쿼리 결과 재사용 끔
+                "--logging.level.org.hibernate.SQL=warn");
+
+        seed();
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private void seed() {
+        EntityManager em = context.getBean(EntityManager.class);
+        TransactionTemplate tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        tx.executeWithoutResult(status -> {
+            em.createNativeQuery("insert into member (member_id, name, city, street, zipcode)" +
+                            " select " + ID_BASE + " + x, concat('member', x), '서울', concat('street', x), 'zip'" +
+                            " from system_range(1, " + memberCount + ")")
+                    .executeUpdate();
+            em.createNativeQuery("analyze").executeUpdate();
+        });
+    }
+
+    private byte[] call(String url) throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get(url)).andReturn().getResponse();
+        if (response.getStatus() != 200) {
+            throw new IllegalStateException(url + " -> " + response.getStatus());
+        }
+        return response.getContentAsByteArray();
+    }
+
+    @Benchmark
+    public byte[] entityV2() throws Exception {
+        return call("/api/v2/members");
+    }
+
+    @Benchmark
+    public byte[] streamV3() throws Exception {
+        return call("/api/v3/members/export");
+    }
+
+    @Benchmark
+    public byte[] pageV3() throws Exception {
+        return call("/api/v3/members?limit=100&after=" + (ID_BASE + memberCount / 2));
+    }
+}
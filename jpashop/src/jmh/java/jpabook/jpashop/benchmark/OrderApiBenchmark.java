@@ -0,0 +1,254 @@
+package jpabook.jpashop.benchmark;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jpabook.jpashop.JpashopApplication;
+import jpabook.jpashop.domain.*;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.service.event.OrderEventPublisher;
+import jpabook.jpashop.service.event.OrderProjector;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/*
+    OrderApiController / OrderSimpleApiController 조회 전략(V2 ~ V6) 벤치마크
+     - 메모리 H2에 orderCount개 주문(주문당 itemsPerOrder개 상품)을 넣고 컨트롤러부터 JSON 직렬화까지 측정
+     - thrpt: 처리량, sample: 응답시간 분포(p99), gc 프로파일러: op당 할당 바이트(gc.alloc.rate.norm)
+     - SqlCounter.statements / SqlCounter.ops = op당 실행된 SQL 수
+     - V1은 엔티티를 직접 노출해서 양방향 연관관계 때문에 직렬화가 실패하므로 제외
+     - simpleOrdersV5 / ordersV7: 주문 이벤트로 만든 조회 모델 조회. 데이터 생성 후 projector로 전부 반영해 둠
+     - ordersV3_page / ordersV3_cursor: V3.2의 limit은 최대 1000이므로 둘 다 PAGE_SIZE씩 마지막 페이지까지 넘겨서 전체 주문을 읽음
+        (op 하나 = 전체 주문, SqlCounter는 페이지 요청마다 셈)
+
+    실행: ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OrderApiBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int orderCount;
+
+    @Param({"2", "10"})
+    public int itemsPerOrder;
+
+    @Param({"1", "100", "1000"})
+    public int batchFetchSize;
+
+    private static final int PAGE_SIZE = 1000;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private ObjectMapper objectMapper;
+    private Statistics statistics;
+
+    //op당 SQL 수를 결과에 같이 출력하기 위한 보조 카운터
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class SqlCounter {
+        public long statements;
+        public long ops;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(JpashopApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1",
+                "--spring.jpa.properties.hibernate.default_batch_fetch_size=" + batchFetchSize,
+                "--spring.jpa.properties.hibernate.generate_statistics=true",
+                "--logging.level.org.hibernate.SQL=warn",
+                "--logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=warn");
+
+        seed();
+        context.getBean(OrderProjector.class).projectPending();
+
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+        objectMapper = context.getBean(ObjectMapper.class);
+        statistics = context.getBean(EntityManagerFactory.class)
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    //주문 500건마다 flush, clear 해서 영속성 컨텍스트가 커지지 않게 함
+    private void seed() {
+        EntityManager em = context.getBean(EntityManager.class);
+        OrderEventPublisher orderEventPublisher = context.getBean(OrderEventPublisher.class);
+        TransactionTemplate tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        tx.executeWithoutResult(status -> {
+            List<Long> itemIds = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                Book book = new Book();
+                book.setName("BOOK" + i);
+                book.setPrice(10000 + i * 100);
+                book.setStockQuantity(Integer.MAX_VALUE);
+                em.persist(book);
+                itemIds.add(book.getId());
+            }
+
+            Member member = null;
+            for (int i = 0; i < orderCount; i++) {
+                if (i > 0 && i % 500 == 0) {
+                    em.flush();
+                    em.clear();
+                }
+                //회원 1명당 주문 10건
+                if (i % 10 == 0) {
+                    member = new Member();
+                    member.setName("member" + i);
+                    member.setAddress(new Address("서울", "street" + i, "zip" + i));
+                    em.persist(member);
+                }
+                Delivery delivery = new Delivery();
+                delivery.setAddress(member.getAddress());
+                delivery.setStatus(DeliveryStatus.READY);
+
+                OrderItem[] orderItems = new OrderItem[itemsPerOrder];
+                for (int j = 0; j < itemsPerOrder; j++) {
+                    Item item = em.getReference(Item.class, itemIds.get((i + j) % itemIds.size()));
+                    orderItems[j] = OrderItem.createOrderItem(item, item.getPrice(), 1);
+                }
+                Order order = Order.createOrder(member, delivery, orderItems);
+                em.persist(order);
+                orderEventPublisher.placed(List.of(order));
+            }
+        });
+    }
+
+    private byte[] call(String url, SqlCounter counter) throws Exception {
+        long before = statistics.getPrepareStatementCount();
+        MockHttpServletResponse response = mockMvc.perform(get(url)).andReturn().getResponse();
+        if (response.getStatus() != 200) {
+            throw new IllegalStateException(url + " -> " + response.getStatus());
+        }
+        counter.statements += statistics.getPrepareStatementCount() - before;
+        counter.ops++;
+        return response.getContentAsByteArray();
+    }
+
+    @Benchmark
+    public byte[] simpleOrdersV2(SqlCounter counter) throws Exception {
+        return call("/api/v2/simple-orders", counter);
+    }
+
+    @Benchmark
+    public byte[] simpleOrdersV3(SqlCounter counter) throws Exception {
+        return call("/api/v3/simple-orders", counter);
+    }
+
+    @Benchmark
+    public byte[] simpleOrdersV4(SqlCounter counter) throws Exception {
+        return call("/api/v4/simple-orders", counter);
+    }
+
+    @Benchmark
+    public byte[] simpleOrdersV5(SqlCounter counter) throws Exception {
+        return call("/api/v5/simple-orders", counter);
+    }
+
+    @Benchmark
+    public byte[] ordersV2(SqlCounter counter) throws Exception {
+        return call("/api/v2/orders", counter);
+    }
+
+    @Benchmark
+    public byte[] ordersV3(SqlCounter counter) throws Exception {
+        return call("/api/v3/orders", counter);
+    }
+
+    //응답 바이트 수 합계
+    @Benchmark
+    public long ordersV3_page(SqlCounter counter) throws Exception {
+        long bytes = 0;
+        for (int offset = 0; offset < orderCount; offset += PAGE_SIZE) {
+            bytes += call("/api/v3.1/orders?offset=" + offset + "&limit=" + PAGE_SIZE, counter).length;
+        }
+        return bytes;
+    }
+
+    //응답 바이트 수 합계
+    @Benchmark
+    public long ordersV3_cursor(SqlCounter counter) throws Exception {
+        long bytes = 0;
+        String url = "/api/v3.2/orders?limit=" + PAGE_SIZE;
+        String next = null;
+        do {
+            byte[] body = call(next == null ? url : url + "&cursor=" + next, counter);
+            bytes += body.length;
+            next = nextCursor(body);
+        } while (next != null);
+        return bytes;
+    }
+
+    //응답 {"data":[...],"next":"..."}에서 next만 읽음. data는 트리로 만들지 않고 건너뜀
+    private String nextCursor(byte[] body) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("next".equals(field)) {
+                    return parser.getValueAsString();
+                }
+                parser.skipChildren();
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public byte[] ordersV4(SqlCounter counter) throws Exception {
+        return call("/api/v4/orders", counter);
+    }
+
+    @Benchmark
+    public byte[] ordersV5(SqlCounter counter) throws Exception {
+        return call("/api/v5/orders", counter);
+    }
+
+    @Benchmark
+    public byte[] ordersV5_chunked(SqlCounter counter) throws Exception {
+        return call("/api/v5.1/orders", counter);
+    }
+
+    @Benchmark
+    public byte[] ordersV6(SqlCounter counter) throws Exception {
+        return call("/api/v6/orders", counter);
+    }
+
+    @Benchmark
+    public byte[] ordersV7(SqlCounter counter) throws Exception {
+        return call("/api/v7/orders", counter);
+    }
+
+    @Benchmark
+    public byte[] ordersV6_export(SqlCounter counter) throws Exception {
+        return call("/api/v6/orders/export", counter);
+    }
+}
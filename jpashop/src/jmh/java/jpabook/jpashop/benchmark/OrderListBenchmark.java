@@ -0,0 +1,87 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.JpashopApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/*
+    주문 목록 화면(/orders) 스트리밍 렌더링: 첫 바이트까지 시간(TTFB)과 전체 응답 시간
+     - seed 프로필로 주문 10000건을 만들고 실제 Tomcat에 HTTP로 요청
+     - fullPage: 응답을 끝까지 읽는 시간. FirstByte 카운터: 그 중 첫 바이트까지 걸린 시간
+        - 첫 바이트에서 연결을 끊는 방식은 서버가 끊긴 걸 알기 전까지 렌더링을 계속해서 요청이 쌓이므로 쓰지 않음
+     - rowCacheSize=0 이면 행 html 캐시 없이 매번 렌더링
+
+    실행: ./gradlew jmh -PjmhArgs="OrderListBenchmark"
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OrderListBenchmark {
+
+    @Param({"10000"})
+    public int size;
+
+    @Param({"0", "50000"})
+    public int rowCacheSize;
+
+    private ConfigurableApplicationContext context;
+    private URI uri;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(JpashopApplication.class)
+                .profiles("seed")
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:orderlist;DB_CLOSE_DELAY=-1",
+                        "--jpashop.projector.enabled=false",
+                        "--jpashop.sql-monitor.enabled=false",
+                        "--jpashop.seed.members=1000",
+                        "--jpashop.seed.items=1000",
+                        "--jpashop.seed.orders=10000",
+                        "--jpashop.seed.category-fanout=3",
+                        "--jpashop.seed.category-depth=2",
+                        "--jpashop.order-list.row-cache-size=" + rowCacheSize,
+                        "--logging.level.org.hibernate.SQL=warn");
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        uri = URI.create("http://localhost:" + port + "/orders?size=" + size);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    //첫 바이트까지 걸린 시간을 같이 기록하기 위한 보조 카운터. firstByteMicros / pages = 평균 TTFB
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class FirstByte {
+        public long firstByteMicros;
+        public long pages;
+    }
+
+    @Benchmark
+    public long fullPage(FirstByte firstByte) throws IOException {
+        long start = System.nanoTime();
+        HttpURLConnection connection = (HttpURLConnection) uri.toURL().openConnection();
+        byte[] buffer = new byte[8192];
+        long bytes = 0;
+        try (InputStream in = connection.getInputStream()) {
+            for (int n; (n = in.read(buffer)) != -1; ) {
+                if (bytes == 0) {
+                    firstByte.firstByteMicros += (System.nanoTime() - start) / 1000;
+                    firstByte.pages++;
+                }
+                bytes += n;
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,111 @@
+package jpabook.jpashop.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.JpashopApplication;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderSearch;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+    OrderRepository.findAll(OrderSearch, Pageable) 검색 성능(주문 100만건)
+     - 데이터는 H2 system_range로 SQL 한번에 생성(회원 10만, 주문 100만)
+     - empty: 조건 없음, name: 회원명 앞부분 검색, status: 주문상태 검색, nameAndStatus: 둘다, deepPage: 조건 없이 1000페이지
+
+    실행: ./gradlew jmh -PjmhArgs="OrderSearchBenchmark"
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OrderSearchBenchmark {
+
+    private static final long ID_BASE = 10_000_000L;
+
+    @Param({"1000000"})
+    public int orderCount;
+
+    @Param({"empty", "name", "status", "nameAndStatus", "deepPage"})
+    public String scenario;
+
+    private ConfigurableApplicationContext context;
+    private OrderRepository orderRepository;
+    private TransactionTemplate readOnlyTx;
+    private OrderSearch orderSearch;
+    private Pageable pageable;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(JpashopApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:search;DB_CLOSE_DELAY=-1",
+                "--logging.level.org.hibernate.SQL=warn");
+
+        seed();
+
+        orderRepository = context.getBean(OrderRepository.class);
+        readOnlyTx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTx.setReadOnly(true);
+
+        orderSearch = new OrderSearch();
+        pageable = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "orderDate"));
+        switch (scenario) {
+            case "name" -> orderSearch.setMemberName("member1234");
+            case "status" -> orderSearch.setOrderStatus(OrderStatus.CANCEL);
+            case "nameAndStatus" -> {
+                orderSearch.setMemberName("member1234");
+                orderSearch.setOrderStatus(OrderStatus.ORDER);
+            }
+            case "deepPage" -> pageable = PageRequest.of(1000, 20, Sort.by(Sort.Direction.DESC, "orderDate"));
+            default -> { }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private void seed() {
+        EntityManager em = context.getBean(EntityManager.class);
+        TransactionTemplate tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        int memberCount = orderCount / 10;
+
+        tx.executeWithoutResult(status -> {
+            em.createNativeQuery("insert into member (member_id, name, city, street, zipcode)" +
+                            " select " + ID_BASE + " + x, concat('member', x), '서울', 'street', 'zip'" +
+                            " from system_range(1, " + memberCount + ")")
+                    .executeUpdate();
+            em.createNativeQuery("insert into delivery (delivery_id, city, street, zipcode, status)" +
+                            " select " + ID_BASE + " + x, '서울', 'street', 'zip', 'READY'" +
+                            " from system_range(1, " + orderCount + ")")
+                    .executeUpdate();
+            //주문 20건 중 1건은 취소, 주문일시는 1분 간격
+            em.createNativeQuery("insert into orders (order_id, member_id, delivery_id, order_date, status, total_price, item_count)" +
+                            " select " + ID_BASE + " + x, " + ID_BASE + " + mod(x, " + memberCount + ") + 1, " + ID_BASE + " + x," +
+                            " dateadd('MINUTE', x, timestamp '2020-01-01 00:00:00')," +
+                            " case when mod(x, 20) = 0 then 'CANCEL' else 'ORDER' end, 0, 0" +
+                            " from system_range(1, " + orderCount + ")")
+                    .executeUpdate();
+            em.createNativeQuery("analyze").executeUpdate();
+        });
+    }
+
+    @Benchmark
+    public Page<Order> search() {
+        return readOnlyTx.execute(status -> {
+            Page<Order> page = orderRepository.findAll(orderSearch, pageable);
+            page.getTotalElements();
+            return page;
+        });
+    }
+}
@@ -0,0 +1,113 @@
+package jpabook.jpashop.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.JpashopApplication;
+import jpabook.jpashop.repository.DailyRevenueDTO;
+import jpabook.jpashop.service.RevenueService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+    최근 1년 일자별 매출 리포트
+     - 주문 50만건 x 주문상품 2개(상품 100개), 주문일은 최근 1년에 고르게 분포. H2 system_range로 생성
+     - aggregate: 일별 집계 테이블(DailyRevenue) 조회. 최대 365일 x 상품 100개 row
+     - scan: 비교용. orders + order_item을 조인해서 주문일별로 group by
+
+    실행: ./gradlew jmh -PjmhArgs="RevenueReportBenchmark"
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RevenueReportBenchmark {
+
+    private static final long ID_BASE = 10_000_000L;
+    private static final int ITEMS = 100;
+
+    @Param({"500000"})
+    public int orderCount;
+
+    private ConfigurableApplicationContext context;
+    private RevenueService revenueService;
+    private EntityManager em;
+    private TransactionTemplate readOnlyTx;
+    private LocalDate from;
+    private LocalDate to;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(JpashopApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:revenue;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE", //같은 쿼리 결과 재사용 끔
+                "--logging.level.org.hibernate.SQL=warn");
+        revenueService = context.getBean(RevenueService.class);
+        em = context.getBean(EntityManager.class);
+        readOnlyTx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTx.setReadOnly(true);
+
+        to = LocalDate.now();
+        from = to.minusYears(1).plusDays(1);
+        seed();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    //집계 테이블은 주문할 때마다 증분으로 더한 결과와 같도록 order_item에서 한번에 만들어 둠
+    private void seed() {
+        TransactionTemplate tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        String start = "timestamp '" + from + " 00:00:00'";
+        tx.executeWithoutResult(status -> {
+            em.createNativeQuery("insert into item (item_id, dtype, name, price, stock_quantity, version)" +
+                            " select " + ID_BASE + " + x, 'B', concat('BOOK', x), 1000 * x, 1000000, 0" +
+                            " from system_range(1, " + ITEMS + ")")
+                    .executeUpdate();
+            em.createNativeQuery("insert into member (member_id, name, city, street, zipcode)" +
+                            " values (" + ID_BASE + ", 'member', '서울', 'street', 'zip')")
+                    .executeUpdate();
+            //주문일은 1년(525600분)에 고르게
+            em.createNativeQuery("insert into orders (order_id, member_id, order_date, status, total_price, item_count)" +
+                            " select " + ID_BASE + " + x, " + ID_BASE + ", dateadd('MINUTE', mod(x * 7919, 525600), " + start + ")," +
+                            " case when mod(x, 20) = 0 then 'CANCEL' else 'ORDER' end, 0, 2" +
+                            " from system_range(1, " + orderCount + ")")
+                    .executeUpdate();
+            em.createNativeQuery("insert into order_item (order_item_id, order_id, item_id, order_price, count)" +
+                            " select " + ID_BASE + " + x, " + ID_BASE + " + (x + 1) / 2, " + ID_BASE + " + mod(x, " + ITEMS + ") + 1, 1000, 1" +
+                            " from system_range(1, " + orderCount * 2L + ")")
+                    .executeUpdate();
+            //InitDb 주문으로 이미 쌓인 집계까지 포함해서 다시 만듦
+            em.createNativeQuery("delete from daily_revenue").executeUpdate();
+            em.createNativeQuery("insert into daily_revenue (revenue_date, status, item_id, amount, quantity)" +
+                            " select cast(o.order_date as date), o.status, oi.item_id, sum(oi.order_price * oi.count), sum(oi.count)" +
+                            " from orders o join order_item oi on oi.order_id = o.order_id" +
+                            " group by cast(o.order_date as date), o.status, oi.item_id")
+                    .executeUpdate();
+            em.createNativeQuery("analyze").executeUpdate();
+        });
+    }
+
+    @Benchmark
+    public List<DailyRevenueDTO> aggregate() {
+        return revenueService.findDailyRevenue(from, to);
+    }
+
+    @Benchmark
+    public List<?> scan() {
+        return readOnlyTx.execute(status -> em.createNativeQuery(
+                        "select cast(o.order_date as date), sum(oi.order_price * oi.count), sum(oi.count)" +
+                                " from orders o join order_item oi on oi.order_id = o.order_id" +
+                                " where o.order_date >= :from and o.order_date < :to and o.status = 'ORDER'" +
+                                " group by cast(o.order_date as date)" +
+                                " order by 1")
+                .setParameter("from", from.atStartOfDay())
+                .setParameter("to", to.plusDays(1).atStartOfDay())
+                .getResultList());
+    }
+}
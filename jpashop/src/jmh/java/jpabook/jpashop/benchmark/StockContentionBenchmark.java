@@ -0,0 +1,91 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.JpashopApplication;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import jpabook.jpashop.service.stock.ShardedStockReservation;
+import jpabook.jpashop.service.stock.StockReservation;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+    인기 상품 하나에 주문이 몰릴 때 재고 차감 처리량: item 행 하나(conditional) vs shard(sharded)
+     - 8개 스레드가 같은 상품을 1개씩 주문
+     - reserve: 트랜잭션 안에서 재고 차감만 하고 커밋(재고 row 락 경합만 봄)
+     - order: OrderService.order 전체. 주문 insert, 일별 매출 집계(같은 상품이면 daily_revenue 행 하나에 몰림)까지 포함
+
+    실행: ./gradlew jmh -PjmhArgs="StockContentionBenchmark"
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(8)
+public class StockContentionBenchmark {
+
+    @Param({"conditional", "sharded"})
+    public String strategy;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private StockReservation stockReservation;
+    private TransactionTemplate tx;
+    private Long itemId;
+    private final List<Long> memberIds = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(JpashopApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:stock;DB_CLOSE_DELAY=-1",
+                "--jpashop.stock.strategy=" + strategy,
+                "--jpashop.projector.enabled=false",
+                "--logging.level.org.hibernate.SQL=warn");
+        orderService = context.getBean(OrderService.class);
+        stockReservation = context.getBean(StockReservation.class);
+        tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        Book book = new Book();
+        book.setName("인기 상품");
+        book.setPrice(10000);
+        book.setStockQuantity(1_000_000_000);
+        context.getBean(ItemService.class).saveItem(book);
+        itemId = book.getId();
+        if (stockReservation instanceof ShardedStockReservation sharded) {
+            sharded.shard(itemId);
+        }
+
+        MemberService memberService = context.getBean(MemberService.class);
+        for (int i = 0; i < 100; i++) {
+            Member member = new Member();
+            member.setName("member" + i);
+            member.setAddress(new Address("서울", "street" + i, "zip" + i));
+            memberIds.add(memberService.join(member));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void reserve() {
+        tx.executeWithoutResult(status -> stockReservation.reserve(itemId, 1));
+    }
+
+    @Benchmark
+    public long order() {
+        return orderService.order(memberIds.get(ThreadLocalRandom.current().nextInt(memberIds.size())), itemId, 1);
+    }
+}
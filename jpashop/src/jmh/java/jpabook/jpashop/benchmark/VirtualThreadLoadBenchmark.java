@@ -0,0 +1,143 @@
+package jpabook.jpashop.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.JpashopApplication;
+import jpabook.jpashop.domain.*;
+import jpabook.jpashop.domain.item.Book;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+    /api/v5/orders 부하 테스트: Tomcat 플랫폼 스레드 풀 vs 가상 스레드
+     - 실제 Tomcat(랜덤 포트)을 띄우고 JMH 스레드 2000개(= 동시 클라이언트 2000명)가 HTTP로 계속 요청
+     - thrpt: 처리량, sample: 응답시간 분포(p99, p99.9 = 꼬리 지연), Failures.failures: 타임아웃/오류 응답 수
+     - 동시 접속이 한꺼번에 몰리므로 Tomcat accept-count를 클라이언트 수만큼 늘려서 연결 거절로 측정이 왜곡되지 않게 함
+     - platform: Tomcat 기본 스레드 풀(max 200)
+     - virtual: spring.threads.virtual.enabled=true. 커넥션 제한(ConnectionLimiterDataSource)도 같이 켜짐
+       Java 21 이상에서만 실행 가능하므로 17에서는 setUp에서 실패하고 platform만 측정됨
+     - virtual 모드의 동시 2000 결과는 아직 측정하지 않음(Java 21 환경에서 실행 필요)
+     - 주문 수가 많으면 요청 하나가 무거워져서 스레드 모델 차이보다 DB/직렬화 시간이 지배하므로 orderCount는 작게
+
+    실행: ./gradlew jmh -PjmhArgs="VirtualThreadLoadBenchmark"
+    동시 클라이언트 수 변경: ./gradlew jmh -PjmhArgs="VirtualThreadLoadBenchmark -t 500"
+ */
+@State(Scope.Benchmark)
+@Threads(2000)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class VirtualThreadLoadBenchmark {
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"100"})
+    public int orderCount;
+
+    //실패한 요청은 예외로 반복을 중단하지 않고 세어서 결과에 같이 출력
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Failures {
+        public long failures;
+    }
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        boolean virtual = threads.equals("virtual");
+        if (virtual && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("가상 스레드 모드는 Java 21 이상에서 실행해야 함: " + Runtime.version());
+        }
+        context = new SpringApplicationBuilder(JpashopApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:load;DB_CLOSE_DELAY=-1",
+                "--spring.threads.virtual.enabled=" + virtual,
+                "--jpashop.projector.enabled=false",
+                "--server.tomcat.accept-count=2000",
+                "--logging.level.org.hibernate.SQL=warn");
+
+        seed();
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v5/orders"))
+                .timeout(Duration.ofSeconds(60))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    private void seed() {
+        EntityManager em = context.getBean(EntityManager.class);
+        TransactionTemplate tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        tx.executeWithoutResult(status -> {
+            List<Book> books = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                Book book = new Book();
+                book.setName("BOOK" + i);
+                book.setPrice(10000 + i * 100);
+                book.setStockQuantity(Integer.MAX_VALUE);
+                em.persist(book);
+                books.add(book);
+            }
+
+            Member member = null;
+            for (int i = 0; i < orderCount; i++) {
+                //회원 1명당 주문 10건, 주문당 상품 2개
+                if (i % 10 == 0) {
+                    member = new Member();
+                    member.setName("member" + i);
+                    member.setAddress(new Address("서울", "street" + i, "zip" + i));
+                    em.persist(member);
+                }
+                Delivery delivery = new Delivery();
+                delivery.setAddress(member.getAddress());
+                delivery.setStatus(DeliveryStatus.READY);
+
+                Book first = books.get(i % books.size());
+                Book second = books.get((i + 1) % books.size());
+                em.persist(Order.createOrder(member, delivery,
+                        OrderItem.createOrderItem(first, first.getPrice(), 1),
+                        OrderItem.createOrderItem(second, second.getPrice(), 1)));
+            }
+        });
+    }
+
+    @Benchmark
+    public int ordersV5(Failures failures) throws InterruptedException {
+        try {
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                failures.failures++;
+            }
+            return response.body().length;
+        } catch (IOException e) {
+            failures.failures++;
+            return 0;
+        }
+    }
+}
@@ -4,11 +4,18 @@ import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityManager;
 import jpabook.jpashop.domain.*;
 import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.service.RevenueService;
+import jpabook.jpashop.service.event.OrderEventPublisher;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
+//seed 프로필에서는 DataSeeder가 대량 데이터를 만듦
 @Component
+@Profile("!seed")
 @RequiredArgsConstructor
 public class InitDb {
 
@@ -24,6 +31,8 @@ public class InitDb {
     @RequiredArgsConstructor
     static class InitService {
         private final EntityManager em;
+        private final RevenueService revenueService;
+        private final OrderEventPublisher orderEventPublisher;
         public void dbInit1() {
             Member member = createMember("userA", "서울", "1", "1111");
             em.persist(member);
@@ -36,6 +45,8 @@ public class InitDb {
             Order order = Order.createOrder(member, createDelivery(member),
                     orderItem1, orderItem2);
             em.persist(order);
+            revenueService.ordered(List.of(order));
+            orderEventPublisher.placed(List.of(order));
         }
         public void dbInit2() {
             Member member = createMember("userB", "진주", "2", "2222");
@@ -50,6 +61,8 @@ public class InitDb {
             Order order = Order.createOrder(member, delivery, orderItem1,
                     orderItem2);
             em.persist(order);
+            revenueService.ordered(List.of(order));
+            orderEventPublisher.placed(List.of(order));
         }
         private Member createMember(String name, String city, String street,
                                     String zipcode) {
@@ -0,0 +1,112 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.exception.NotFoundException;
+import jpabook.jpashop.service.CategoryService;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ErrorResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/*
+    카테고리 계층 조회 API. 모두 트리 깊이와 상관없이 쿼리 한번(+ 카테고리 조회 1, 페이징은 count 1)
+     - 없는 카테고리면 404
+ */
+@RestController
+@RequiredArgsConstructor
+public class CategoryApiController {
+
+    private final CategoryService categoryService;
+
+    //하위 카테고리 전체
+    @GetMapping("/api/categories/{categoryId}/descendants")
+    public Result<List<CategoryDTO>> descendants(@PathVariable("categoryId") Long categoryId) {
+        return new Result<>(toDTO(categoryService.findDescendants(categoryId)));
+    }
+
+    //루트부터 현재 카테고리까지
+    @GetMapping("/api/categories/{categoryId}/breadcrumb")
+    public Result<List<CategoryDTO>> breadcrumb(@PathVariable("categoryId") Long categoryId) {
+        return new Result<>(toDTO(categoryService.findBreadcrumb(categoryId)));
+    }
+
+    //하위 카테고리까지 포함한 상품 목록 페이징
+    @GetMapping("/api/categories/{categoryId}/items")
+    public PageResult<CategoryItemDTO> items(@PathVariable("categoryId") Long categoryId,
+                                             @PageableDefault(size = 20) Pageable pageable) {
+        return new PageResult<>(categoryService.findItems(categoryId, pageable).map(CategoryItemDTO::new));
+    }
+
+    @ExceptionHandler(NotFoundException.class)
+    public ErrorResponse notFound(NotFoundException e) {
+        return ErrorResponse.create(e, HttpStatus.NOT_FOUND, e.getMessage());
+    }
+
+    private List<CategoryDTO> toDTO(List<Category> categories) {
+        return categories.stream()
+                .map(CategoryDTO::new)
+                .collect(Collectors.toList());
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class Result<T> {
+        private T data;
+    }
+
+    //Page를 그대로 내보내면 Pageable, Sort 내부 구조까지 JSON에 나가므로 필요한 값만
+    @Data
+    static class PageResult<T> {
+        private List<T> data;
+        private int page;
+        private int size;
+        private long totalElements;
+        private int totalPages;
+
+        public PageResult(Page<T> page) {
+            data = page.getContent();
+            this.page = page.getNumber();
+            size = page.getSize();
+            totalElements = page.getTotalElements();
+            totalPages = page.getTotalPages();
+        }
+    }
+
+    @Data
+    static class CategoryDTO {
+        private Long categoryId;
+        private String name;
+        private int depth;
+
+        public CategoryDTO(Category category) {
+            categoryId = category.getId();
+            name = category.getName();
+            depth = category.getDepth();
+        }
+    }
+
+    @Data
+    static class CategoryItemDTO {
+        private Long itemId;
+        private String name;
+        private int price;
+
+        public CategoryItemDTO(Item item) {
+            itemId = item.getId();
+            name = item.getName();
+            price = item.getPrice();
+        }
+    }
+}
@@ -1,13 +1,20 @@
 package jpabook.jpashop.api;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.repository.MemberNameDTO;
 import jpabook.jpashop.service.MemberService;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -15,7 +22,11 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class MemberApiController {
 
+    private static final int MAX_LIMIT = 1000;
+    private static final int MAX_FETCH_SIZE = 10_000;
+
     private final MemberService memberService;
+    private final ObjectMapper objectMapper;
 
     /*
         조회 V1 : 응답 값으로 Member 엔티티를 외부에 직접 노출
@@ -45,6 +56,67 @@ public class MemberApiController {
         return new Result(collect);
     }
 
+    /*
+        조회 V3 : 엔티티를 조회하지 않고 DTO(id, name)로 바로 조회 + 키셋 페이징
+            - 회원 엔티티, Address, orders 프록시, 변경 감지용 스냅샷을 만들지 않는다.
+            - 응답의 next를 after 파라미터로 넘기면 다음 페이지 조회, 마지막 페이지면 next는 null
+            - limit은 1 이상(최대 MAX_LIMIT, 넘으면 MAX_LIMIT로 줄임). 1 미만이면 400
+     */
+    @GetMapping("/api/v3/members")
+    public MemberPage membersV3(
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", defaultValue = "100") int limit)
+    {
+        limit = RequestParams.size("limit", limit, MAX_LIMIT);
+        // 다음 페이지 존재 여부를 알기위해 1개 더 조회
+        List<MemberNameDTO> members = memberService.findMemberNames(after, limit + 1);
+
+        boolean hasNext = members.size() > limit;
+        if (hasNext) {
+            members = members.subList(0, limit);
+        }
+        List<MemberDTO> collect = members.stream()
+                .map(m -> new MemberDTO(m.getName()))
+                .collect(Collectors.toList());
+
+        Long next = hasNext ? members.get(members.size() - 1).getId() : null;
+        return new MemberPage(collect, next);
+    }
+
+    /*
+        조회 V3 스트리밍 내보내기(NDJSON)
+            - 회원 전체를 List로 모으지 않고 한 명씩 읽으면서 바로 응답에 쓰므로 회원 수와 상관없이 힙 사용량이 일정하다.
+            - fetchSize는 1 이상(최대 MAX_FETCH_SIZE, 넘으면 MAX_FETCH_SIZE로 줄임). 1 미만이면 400
+     */
+    @GetMapping(value = "/api/v3/members/export", produces = "application/x-ndjson")
+    public void membersV3_export(
+            @RequestParam(value = "fetchSize", defaultValue = "500") int fetchSize,
+            HttpServletResponse response) throws IOException
+    {
+        fetchSize = RequestParams.size("fetchSize", fetchSize, MAX_FETCH_SIZE);
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        OutputStream out = response.getOutputStream();
+        ObjectWriter writer = objectMapper.writerFor(MemberDTO.class);
+
+        memberService.streamMemberNames(fetchSize, m -> {
+            try {
+                out.write(writer.writeValueAsBytes(new MemberDTO(m.getName())));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        out.flush();
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class MemberPage {
+        private List<MemberDTO> data;
+        private Long next; //다음 페이지 커서(마지막 회원 id)
+    }
+
     @Data
     @AllArgsConstructor
     static class Result<T>{
@@ -1,21 +1,36 @@
 package jpabook.jpashop.api;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import jpabook.jpashop.domain.Address;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderItem;
 import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.exception.NotFoundException;
+import jpabook.jpashop.repository.OrderCursor;
 import jpabook.jpashop.repository.OrderRepository;
 import jpabook.jpashop.repository.OrderSearch;
 import jpabook.jpashop.repository.order.query.OrderFlatDTO;
 import jpabook.jpashop.repository.order.query.OrderQueryDTO;
 import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.service.BulkOrder;
+import jpabook.jpashop.service.BulkOrderService;
+import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -25,8 +40,14 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class OrderApiController {
 
+    private static final int MAX_LIMIT = 1000;
+    private static final int MAX_FETCH_SIZE = 10_000;
+    private static final int MAX_BULK_ORDERS = 10_000;
+
     private final OrderRepository orderRepository;
     private final OrderQueryRepository orderQueryRepository;
+    private final ObjectMapper objectMapper;
+    private final BulkOrderService bulkOrderService;
 
     /*
         V1: 엔티티 직접 노출
@@ -92,6 +113,47 @@ public class OrderApiController {
         return collect;
     }
 
+    /*
+        V3.2: 키셋(커서) 페이징
+         - offset 페이징은 앞 페이지를 모두 스캔하고 버리므로 페이지가 깊어질수록 느려진다.
+         - (orderDate, order_id) 기준으로 마지막 주문 다음부터 조회하므로 페이지 깊이와 상관없이 속도가 일정하다.
+         - ToOne은 fetch join, orderItems는 batch_fetch_size로 최적화(V3.1과 동일)
+         - 응답의 next 토큰을 cursor 파라미터로 넘기면 다음 페이지 조회, 마지막 페이지면 next는 null
+         - limit은 1 이상(최대 MAX_LIMIT, 넘으면 MAX_LIMIT로 줄임). limit이 1 미만이거나 커서가 잘못되면 400
+     */
+    @GetMapping("/api/v3.2/orders")
+    public OrderPage ordersV3_cursor(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "100") int limit)
+    {
+        limit = RequestParams.size("limit", limit, MAX_LIMIT);
+        OrderCursor orderCursor = null;
+        if (cursor != null) {
+            try {
+                orderCursor = OrderCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                throw RequestParams.badRequest(e.getMessage());
+            }
+        }
+        // 다음 페이지 존재 여부를 알기위해 1개 더 조회
+        List<Order> orders = orderRepository.findAllWithMemberDelivery(orderCursor, limit + 1);
+
+        boolean hasNext = orders.size() > limit;
+        if (hasNext) {
+            orders = orders.subList(0, limit);
+        }
+        List<OrderDTO> collect = orders.stream()
+                .map(o -> new OrderDTO(o))
+                .collect(Collectors.toList());
+
+        String next = null;
+        if (hasNext) {
+            Order last = orders.get(orders.size() - 1);
+            next = new OrderCursor(last.getOrderDate(), last.getId()).encode();
+        }
+        return new OrderPage(collect, next);
+    }
+
     /*
         V4: Query는 루트1번, 컬렉션 N번 실행
          - ToOne 관계들을 먼저 조회하고, ToMany 관계는 각각 별도로 처리한다.
@@ -113,6 +175,23 @@ public class OrderApiController {
     public List<OrderQueryDTO> ordersV5(){
         return orderQueryRepository.findAllByDTO_optimiztion();
     }
+    /*
+        V5.1: V5 + orderItems 청크 병렬 조회
+         - 주문 id를 jpashop.order-query.chunk-size 단위로 나눠 in 절이 너무 커지지 않게 함
+         - 청크마다 별도 읽기 전용 커넥션에서 병렬로 실행(jpashop.order-query.parallelism)
+     */
+    @GetMapping("/api/v5.1/orders")
+    public List<OrderQueryDTO> ordersV5_chunked(){
+        return orderQueryRepository.findAllByDTO_chunked();
+    }
+    /*
+        V7: 주문 조회 모델에서 조회. Query는 루트1번, 컬렉션 1번, 조인 없음
+         - 주문 이벤트를 OrderProjector가 비동기로 반영하므로 방금 생성/취소한 주문은 잠깐 늦게 보일 수 있음
+     */
+    @GetMapping("/api/v7/orders")
+    public List<OrderQueryDTO> ordersV7(){
+        return orderQueryRepository.findAllByView();
+    }
     /*
         V6: Query는 1번
          - 단점
@@ -124,6 +203,95 @@ public class OrderApiController {
         return orderQueryRepository.findAllByDTO_flat();
     }
 
+    /*
+        V6 스트리밍 내보내기(NDJSON)
+         - V6는 전체 결과를 List로 만든 뒤 JSON으로 변환하므로 주문이 많으면 OOM 발생
+         - 한 row를 읽을 때마다 바로 응답에 한 줄씩 써주므로 힙 사용량이 일정하다.
+         - fetchSize는 1 이상(최대 MAX_FETCH_SIZE, 넘으면 MAX_FETCH_SIZE로 줄임). 1 미만이면 400
+     */
+    @GetMapping(value = "/api/v6/orders/export", produces = "application/x-ndjson")
+    public void ordersV6_export(
+            @RequestParam(value = "fetchSize", defaultValue = "500") int fetchSize,
+            HttpServletResponse response) throws IOException
+    {
+        fetchSize = RequestParams.size("fetchSize", fetchSize, MAX_FETCH_SIZE);
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        OutputStream out = response.getOutputStream();
+        ObjectWriter writer = objectMapper.writerFor(OrderFlatDTO.class);
+
+        orderQueryRepository.streamAllByDTO_flat(fetchSize, dto -> {
+            try {
+                out.write(writer.writeValueAsBytes(dto));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        out.flush();
+    }
+
+    /*
+        대량 주문 등록
+         - 주문 수천건을 한 요청, 한 트랜잭션으로 처리. 하나라도 실패하면 전부 롤백
+         - 회원/상품은 in 절로 미리 조회하고, insert는 jdbc batch로 묶어서 실행
+         - 한 요청에 주문 MAX_BULK_ORDERS건까지(넘으면 400). 없는 상품이나 회원이 있으면 404
+     */
+    @PostMapping("/api/v1/orders/bulk")
+    public BulkOrderResponse bulkOrder(@RequestBody @Valid BulkOrderRequest request) {
+        if (request.getOrders().size() > MAX_BULK_ORDERS) {
+            throw RequestParams.badRequest("한 요청의 주문은 " + MAX_BULK_ORDERS + "건까지입니다.");
+        }
+        List<BulkOrder> bulkOrders = request.getOrders().stream()
+                .map(o -> new BulkOrder(o.getMemberId(), o.getLines().stream()
+                        .map(l -> new BulkOrder.Line(l.getItemId(), l.getCount()))
+                        .collect(Collectors.toList())))
+                .collect(Collectors.toList());
+        List<Long> orderIds;
+        try {
+            orderIds = bulkOrderService.order(bulkOrders);
+        } catch (NotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+        }
+        return new BulkOrderResponse(orderIds.size(), orderIds);
+    }
+
+    @Data
+    static class BulkOrderRequest {
+        @NotEmpty
+        private List<@Valid OrderRequest> orders;
+    }
+
+    @Data
+    static class OrderRequest {
+        @NotNull
+        private Long memberId;
+        @NotEmpty
+        private List<@Valid OrderLineRequest> lines;
+    }
+
+    @Data
+    static class OrderLineRequest {
+        @NotNull
+        private Long itemId;
+        @Positive
+        private int count;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class BulkOrderResponse {
+        private int count;
+        private List<Long> orderIds; //요청 순서와 같은 순서
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class OrderPage {
+        private List<OrderDTO> data;
+        private String next; //다음 페이지 커서
+    }
+
     @Data
     static class OrderDTO {
         private Long orderId;
@@ -89,6 +89,15 @@ public class OrderSimpleApiController {
         return orderSimpleQueryRepository.findOrderDTOs();
     }
 
+    /*
+        V5: 주문 조회 모델(OrderView) 한 테이블 조회. 조인 없음
+            - 주문 이벤트를 OrderProjector가 비동기로 반영하므로 원본보다 조금 늦을 수 있음
+     */
+    @GetMapping("/api/v5/simple-orders")
+    public List<OrderSimpleQueryDTO> ordersV5() {
+        return orderSimpleQueryRepository.findOrderViewDTOs();
+    }
+
     @Data
     static class SimpleOrderDTO {
         private Long orderId;
@@ -96,6 +105,8 @@ public class OrderSimpleApiController {
         private LocalDateTime orderDate;
         private OrderStatus orderStatus;
         private Address address;
+        private int totalPrice; //주문 컬럼이므로 orderItems 초기화 없음
+        private int itemCount;
 
         public SimpleOrderDTO(Order order) {
             orderId = order.getId();
@@ -103,6 +114,8 @@ public class OrderSimpleApiController {
             orderDate = order.getOrderDate();
             orderStatus = order.getStatus();
             address = order.getDelivery().getAddress(); //LAZY 초기화
+            totalPrice = order.getTotalPrice();
+            itemCount = order.getItemCount();
         }
     }
 }
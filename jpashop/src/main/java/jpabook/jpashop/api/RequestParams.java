@@ -0,0 +1,26 @@
+package jpabook.jpashop.api;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/*
+    조회 API 요청 파라미터 검증
+     - 잘못된 값은 400(Bad Request)으로 응답
+     - limit, fetchSize 같은 크기 값은 1 이상만 받고, max보다 크면 max로 줄임
+ */
+final class RequestParams {
+
+    private RequestParams() {
+    }
+
+    static int size(String name, int value, int max) {
+        if (value < 1) {
+            throw badRequest(name + "는 1 이상이어야 합니다.");
+        }
+        return Math.min(value, max);
+    }
+
+    static ResponseStatusException badRequest(String reason) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, reason);
+    }
+}
@@ -0,0 +1,49 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.repository.DailyRevenueDTO;
+import jpabook.jpashop.service.RevenueService;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/*
+    매출 리포트
+     - order_item을 집계하지 않고 일별 집계 테이블(DailyRevenue)만 읽음. 1년 조회해도 최대 365일 x 상품 수 row
+ */
+@RestController
+@RequiredArgsConstructor
+public class RevenueApiController {
+
+    private final RevenueService revenueService;
+
+    //일자별 매출. 기간을 안 주면 오늘까지 최근 1년
+    @GetMapping("/api/revenue/daily")
+    public Result<List<DailyRevenueDTO>> dailyRevenue(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to)
+    {
+        if (to == null) {
+            to = LocalDate.now();
+        }
+        if (from == null) {
+            from = to.minusYears(1).plusDays(1);
+        }
+        List<DailyRevenueDTO> daily = revenueService.findDailyRevenue(from, to);
+        long total = daily.stream().mapToLong(DailyRevenueDTO::getAmount).sum();
+        return new Result<>(total, daily);
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class Result<T> {
+        private long total; //기간 매출 합계
+        private T data;
+    }
+}
@@ -0,0 +1,44 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.service.stock.ShardedStockReservation;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.*;
+
+/*
+    인기 상품 재고 shard 지정/해제. jpashop.stock.strategy=sharded 일 때만 있음
+     - shards: shard별 재고(이 서버 메모리 기준). 인기 상품이 아니면 null
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "jpashop.stock.strategy", havingValue = "sharded")
+public class StockShardApiController {
+
+    private final ShardedStockReservation shardedStockReservation;
+
+    @GetMapping("/api/items/{id}/stock-shards")
+    public Result shards(@PathVariable("id") Long id) {
+        return new Result(false, shardedStockReservation.available(id));
+    }
+
+    @PostMapping("/api/items/{id}/stock-shards")
+    public Result shard(@PathVariable("id") Long id) {
+        boolean changed = shardedStockReservation.shard(id);
+        return new Result(changed, shardedStockReservation.available(id));
+    }
+
+    @DeleteMapping("/api/items/{id}/stock-shards")
+    public Result unshard(@PathVariable("id") Long id) {
+        boolean changed = shardedStockReservation.unshard(id);
+        return new Result(changed, null);
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class Result {
+        private boolean changed; //이번 요청으로 지정/해제됐는지
+        private int[] shards;
+    }
+}
@@ -2,14 +2,22 @@ package jpabook.jpashop.controller;
 
 import jpabook.jpashop.domain.item.Book;
 import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.repository.item.query.AlbumDTO;
+import jpabook.jpashop.repository.item.query.BookDTO;
+import jpabook.jpashop.repository.item.query.ItemSummaryDTO;
+import jpabook.jpashop.repository.item.query.MovieDTO;
 import jpabook.jpashop.service.ItemService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 
@@ -38,24 +46,60 @@ public class ItemController {
         return "redirect:/";
     }
 
+    /*
+        상품 목록
+         - 엔티티 대신 DTO로 조회. type이 없으면 전체(공통 컬럼), book/album/movie면 그 종류만(그 종류의 컬럼)
+         - id 키셋 페이징. 다음 페이지는 after=마지막 상품 id
+         - 빈 type은 전체로 보고, 모르는 type이면 400
+     */
     @GetMapping("/items")
-    public String list(Model model){
-        List<Item> items = itemService.findItems();
+    public String list(@RequestParam(value = "type", required = false) String type,
+                       @RequestParam(value = "after", required = false) Long after,
+                       Model model){
+        int limit = 100;
+        if (!StringUtils.hasText(type)) {
+            type = null;
+        }
+        List<?> items;
+        if (type == null) {
+            items = itemService.findItemSummaries(after, limit);
+        } else {
+            items = switch (type) {
+                case "book" -> itemService.findBooks(after, limit);
+                case "album" -> itemService.findAlbums(after, limit);
+                case "movie" -> itemService.findMovies(after, limit);
+                default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "상품 종류는 book, album, movie 중 하나입니다. type=" + type);
+            };
+        }
         model.addAttribute("items",items);
+        model.addAttribute("type", type);
+        model.addAttribute("next", items.size() == limit ? lastId(items) : null);
         return "/items/itemList";
     }
 
+    private Long lastId(List<?> items) {
+        Object last = items.get(items.size() - 1);
+        if (last instanceof ItemSummaryDTO dto) return dto.getId();
+        if (last instanceof BookDTO dto) return dto.getId();
+        if (last instanceof AlbumDTO dto) return dto.getId();
+        return ((MovieDTO) last).getId();
+    }
+
     @GetMapping("/items/{itemId}/edit")
     public String updateItemForm(@PathVariable("itemId") Long itemId, Model model){
-        Book item = (Book) itemService.findOne(itemId);
+        Item item = itemService.findOne(itemId);
 
+        //수정은 공통 컬럼(이름, 가격, 재고)만 하므로 Album, Movie도 같은 폼 사용
         BookForm form = new BookForm();
         form.setId(item.getId());
         form.setName(item.getName());
         form.setPrice(item.getPrice());
         form.setStockQuantity(item.getStockQuantity());
-        form.setAuthor(item.getAuthor());
-        form.setIsbn(item.getIsbn());
+        if (item instanceof Book book) {
+            form.setAuthor(book.getAuthor());
+            form.setIsbn(book.getIsbn());
+        }
 
         model.addAttribute("form", form);
         return "/items/updateItemForm";
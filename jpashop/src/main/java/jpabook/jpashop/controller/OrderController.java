@@ -1,17 +1,20 @@
 package jpabook.jpashop.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jpabook.jpashop.domain.Member;
-import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.item.Item;
 import jpabook.jpashop.repository.OrderSearch;
 import jpabook.jpashop.service.ItemService;
 import jpabook.jpashop.service.MemberService;
 import jpabook.jpashop.service.OrderService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 
 @Controller
@@ -21,6 +24,7 @@ public class OrderController {
     private final OrderService orderService;
     private final MemberService memberService;
     private final ItemService itemService;
+    private final OrderListRenderer orderListRenderer;
 
     @GetMapping("/order")
     public String createForm(Model model){
@@ -43,14 +47,14 @@ public class OrderController {
         return "redirect:/orders";
     }
 
+    //view를 거치지 않고 OrderListRenderer가 행을 읽는 대로 응답에 바로 씀(OSIV 없음, WebConfig)
     @GetMapping("/orders")
-    public String orderList(@ModelAttribute("orderSearch")OrderSearch orderSearch, Model model){
-        List<Order> orders = orderService.findOrders(orderSearch);
-        model.addAttribute("orders",orders);
-
-        //@ModelAttribute는 model.addAttribute("orderSearch", orderSearch)라고 보면됨
-
-        return "/order/orderList";
+    public void orderList(@ModelAttribute("orderSearch")OrderSearch orderSearch,
+                          @RequestParam(value = "page", defaultValue = "0") int page,
+                          @RequestParam(value = "size", defaultValue = "20") int size,
+                          Sort sort,
+                          HttpServletRequest request, HttpServletResponse response) throws IOException {
+        orderListRenderer.render(orderSearch, page, size, sort, request, response);
     }
 
     @PostMapping("/orders/{orderId}/cancel")
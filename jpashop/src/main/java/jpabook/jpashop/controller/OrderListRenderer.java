@@ -0,0 +1,184 @@
+package jpabook.jpashop.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderRowDTO;
+import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.service.OrderService;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+    주문 목록 화면(order/orderList)을 조각 단위로 렌더링하면서 바로 응답에 씀
+     - 페이지 전체를 다 만든 뒤에 보내지 않고, 머리(헤더 + 검색폼 + 표 머리)를 먼저 보내고 행은 DB에서 읽는 대로 씀
+        - 행은 읽기 전용 트랜잭션 안에서 DTO로 스트리밍(OrderService.streamOrderRows). 엔티티 지연 로딩이 없으므로 /orders는 OSIV를 끔(WebConfig)
+        - flush-rows 행마다 flush 해서 chunked로 내보냄. 브라우저는 첫 행들이 오는 동안 css를 받고 그리기 시작함
+        - 클라이언트가 끊으면 flush 할 때 알아채고 남은 행은 읽지 않음
+        - 행을 응답에 쓰는 동안 트랜잭션(= 커넥션)이 열려 있음. 느린 클라이언트는 flush에서 막히는 만큼 커넥션을 오래 잡음
+     - page는 offset(page * size)이 int를 넘지 않는 범위로 줄임
+     - 정렬(?sort=)은 OrderRepository에서 허용한 필드만 사용하고, 검색폼과 페이지 이동 링크에 그대로 다시 실어 보냄
+     - 전체 페이지 수는 행을 다 보낸 뒤(커넥션을 돌려준 뒤) count 쿼리로 따로 구함
+     - 캐시
+        - 행을 뺀 페이지 틀: 검색 조건(회원명, 상태, 정렬)별로 한번 렌더링해서 rows, page-nav 주석 자리에서 잘라 둠
+        - 행: 행 DTO(화면에 보이는 값 전부)를 키로 렌더링한 html. 주문이 취소되거나 회원명이 바뀌면 키가 달라지므로 오래된 html이 나가지 않음
+        - jpashop.order-list.*-cache 메트릭(cache_gets{result=hit|miss} 등)
+     - Thymeleaf의 data-driven(reactive) 렌더링은 WebFlux 전용이라 MVC에서는 프래그먼트를 직접 이어 붙이는 방식으로 구현
+ */
+@Slf4j
+@Component
+public class OrderListRenderer {
+
+    private static final String TEMPLATE = "order/orderList";
+    private static final String ROWS = "<!--rows-->";
+    private static final String PAGE_NAV = "<!--page-nav-->";
+
+    private final ITemplateEngine templateEngine;
+    private final OrderService orderService;
+    private final int maxSize;
+    private final int fetchSize;
+    private final int flushRows;
+
+    private final Cache<ShellKey, String[]> shellCache;
+    private final Cache<OrderRowDTO, String> rowCache;
+
+    public OrderListRenderer(ITemplateEngine templateEngine,
+                             OrderService orderService,
+                             MeterRegistry meterRegistry,
+                             @Value("${jpashop.order-list.max-size:10000}") int maxSize,
+                             @Value("${jpashop.order-list.fetch-size:500}") int fetchSize,
+                             @Value("${jpashop.order-list.flush-rows:200}") int flushRows,
+                             @Value("${jpashop.order-list.row-cache-size:50000}") long rowCacheSize) {
+        this.templateEngine = templateEngine;
+        this.orderService = orderService;
+        this.maxSize = maxSize;
+        this.fetchSize = fetchSize;
+        this.flushRows = flushRows;
+        this.shellCache = CaffeineCacheMetrics.monitor(meterRegistry,
+                Caffeine.newBuilder().maximumSize(1000).recordStats().build(), "jpashop.order-list.shell-cache");
+        this.rowCache = CaffeineCacheMetrics.monitor(meterRegistry,
+                Caffeine.newBuilder().maximumSize(rowCacheSize).recordStats().build(), "jpashop.order-list.row-cache");
+    }
+
+    private record ShellKey(String memberName, OrderStatus orderStatus, List<String> sort) {
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class PageNav {
+        private int page;
+        private int size;
+        private long totalPages;
+        private boolean next; //다음 페이지가 있는지
+        private List<String> sort; //sort 파라미터 값(property,direction)
+    }
+
+    public void render(OrderSearch orderSearch, int page, int size, Sort sort,
+                       HttpServletRequest request, HttpServletResponse response) throws IOException {
+        int pageSize = Math.max(1, Math.min(size, maxSize));
+        //setFirstResult가 int라 offset + 1건 더 읽는 것까지 int 범위 안에 있어야 함
+        int maxPage = (Integer.MAX_VALUE - 1 - pageSize) / pageSize;
+        int pageNumber = Math.min(Math.max(0, page), maxPage);
+        Sort orderSort = OrderRepository.sortable(sort);
+        List<String> sortParams = orderSort.stream()
+                .map(order -> order.getProperty() + "," + (order.isAscending() ? "asc" : "desc"))
+                .toList();
+        response.setContentType("text/html;charset=UTF-8");
+        PrintWriter writer = response.getWriter();
+
+        String[] shell = shellCache.get(new ShellKey(orderSearch.getMemberName(), orderSearch.getOrderStatus(), sortParams),
+                key -> renderShell(orderSearch, sortParams));
+        writer.write(shell[0]);
+
+        //다음 페이지가 있는지 보려고 1건 더 읽음
+        int[] rows = {0};
+        try {
+            flush(writer); //행을 읽기 전에 머리를 먼저 보냄
+            orderService.streamOrderRows(orderSearch, (long) pageNumber * pageSize, pageSize + 1, orderSort, fetchSize, row -> {
+                if (rows[0]++ == pageSize) {
+                    return;
+                }
+                writer.write(rowCache.get(row, this::renderRow));
+                if (rows[0] % flushRows == 0) {
+                    flush(writer);
+                }
+            });
+        } catch (ClientAbortException e) {
+            //이미 응답을 보내는 중이라 에러 페이지를 보낼 수 없음. 남은 행은 읽지 않고 끝냄
+            log.debug("주문 목록 렌더링 중단: 클라이언트 연결 끊김, {}행", rows[0]);
+            return;
+        }
+
+        writer.write(shell[1]);
+        long totalPages = (orderService.countOrders(orderSearch) + pageSize - 1) / pageSize;
+        Map<String, Object> variables = Map.of(
+                "orderSearch", orderSearch,
+                "pageNav", new PageNav(pageNumber, pageSize, totalPages, rows[0] > pageSize, sortParams));
+        WebContext context = new WebContext(JakartaServletWebApplication.buildApplication(request.getServletContext())
+                .buildExchange(request, response), LocaleContextHolder.getLocale(), variables);
+        templateEngine.process(TEMPLATE, Set.of("pageNav"), context, writer);
+        writer.write(shell[2]);
+        writer.flush();
+    }
+
+    //행 캐시 비우기(템플릿을 바꿨을 때 등)
+    public void clear() {
+        shellCache.invalidateAll();
+        rowCache.invalidateAll();
+    }
+
+    //행과 페이지 이동 자리를 비워 둔 페이지를 [행 앞, 행 뒤 ~ 페이지 이동 앞, 페이지 이동 뒤]로 잘라 둠
+    private String[] renderShell(OrderSearch orderSearch, List<String> sortParams) {
+        Context context = new Context(LocaleContextHolder.getLocale());
+        context.setVariable("orderSearch", orderSearch);
+        context.setVariable("sort", sortParams);
+        context.setVariable("statuses", OrderStatus.values());
+        String html = templateEngine.process(TEMPLATE, context);
+        int rows = html.indexOf(ROWS);
+        int pageNav = html.indexOf(PAGE_NAV);
+        return new String[]{
+                html.substring(0, rows),
+                html.substring(rows + ROWS.length(), pageNav),
+                html.substring(pageNav + PAGE_NAV.length())};
+    }
+
+    private String renderRow(OrderRowDTO row) {
+        Context context = new Context(LocaleContextHolder.getLocale());
+        context.setVariable("row", row);
+        return templateEngine.process(TEMPLATE, Set.of("row"), context);
+    }
+
+    private static void flush(PrintWriter writer) {
+        //PrintWriter는 IOException을 삼키므로 checkError(flush 포함)로 클라이언트가 끊었는지 확인
+        if (writer.checkError()) {
+            throw new ClientAbortException();
+        }
+    }
+
+    //스트리밍을 멈추기 위한 신호. 자주 생길 수 있으므로 스택 트레이스를 만들지 않음
+    private static class ClientAbortException extends RuntimeException {
+        ClientAbortException() {
+            super("클라이언트 연결이 끊어졌습니다.", null, false, false);
+        }
+    }
+}
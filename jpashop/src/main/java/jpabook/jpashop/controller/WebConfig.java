@@ -0,0 +1,33 @@
+package jpabook.jpashop.controller;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/*
+    OSIV(spring.jpa.open-in-view)를 경로별로 적용
+     - 전역 OSIV는 끄고(application.yml) 같은 인터셉터를 /orders만 빼고 등록
+     - 회원/상품 화면, api v1, v2 등은 컨트롤러에서 지연 로딩을 하므로 그대로 OSIV가 필요함
+     - /orders는 DTO 스트리밍(OrderListRenderer)이라 영속성 컨텍스트가 필요 없음
+        - 커넥션은 행을 스트리밍하는 트랜잭션 동안만 잡고, 끝나면 바로 반환(페이지 이동, 꼬리 렌더링 때는 잡지 않음)
+        - 행은 읽는 대로 응답에 쓰므로 행을 보내는 동안에는 커넥션을 잡고 있음. 느린 클라이언트면 그만큼 오래 잡음
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final OpenEntityManagerInViewInterceptor openEntityManagerInViewInterceptor;
+
+    public WebConfig(EntityManagerFactory entityManagerFactory) {
+        this.openEntityManagerInViewInterceptor = new OpenEntityManagerInViewInterceptor();
+        this.openEntityManagerInViewInterceptor.setEntityManagerFactory(entityManagerFactory);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addWebRequestInterceptor(openEntityManagerInViewInterceptor)
+                .excludePathPatterns("/orders");
+    }
+}
@@ -0,0 +1,71 @@
+package jpabook.jpashop.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.AnyNestedCondition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/*
+    커넥션 제한이 켜지면 DataSource를 ConnectionLimiterDataSource로 감쌈
+     - jpashop.datasource.limiter.enabled: true(항상) | false(끔) | auto(기본값)
+     - auto는 가상 스레드가 실제로 켜졌을 때만(Java 21 이상 + spring.threads.virtual.enabled=true) 켜짐
+       Java 17에서는 spring.threads.virtual.enabled=true여도 플랫폼 스레드로 돌기 때문에 켜지지 않음
+     - 읽기/쓰기 분리(ReplicaRoutingConfig)를 같이 쓰면 primary, replica 풀 전체에 대한 제한이 됨
+     - 메트릭: jpashop.datasource.limiter.in-use, jpashop.datasource.limiter.waiting
+ */
+@Configuration
+@Conditional(ConnectionLimiterConfig.LimiterEnabled.class)
+public class ConnectionLimiterConfig {
+
+    static class LimiterEnabled extends AnyNestedCondition {
+
+        LimiterEnabled() {
+            super(ConfigurationPhase.REGISTER_BEAN);
+        }
+
+        @ConditionalOnProperty(name = "jpashop.datasource.limiter.enabled", havingValue = "true")
+        static class Enabled {
+        }
+
+        @ConditionalOnProperty(name = "jpashop.datasource.limiter.enabled", havingValue = "auto", matchIfMissing = true)
+        @ConditionalOnThreading(Threading.VIRTUAL)
+        static class VirtualThreads {
+        }
+    }
+
+    @Bean
+    public static BeanPostProcessor connectionLimiterPostProcessor(Environment environment,
+                                                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        int permits = environment.getProperty("jpashop.datasource.limiter.permits", Integer.class,
+                environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10));
+        long timeoutMillis = environment.getProperty("jpashop.datasource.limiter.timeout-millis", Long.class, 30000L);
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionLimiterDataSource)) {
+                    ConnectionLimiterDataSource limiter = new ConnectionLimiterDataSource(dataSource, permits, timeoutMillis);
+                    MeterRegistry registry = meterRegistry.getObject();
+                    Gauge.builder("jpashop.datasource.limiter.in-use", limiter, ConnectionLimiterDataSource::getInUse)
+                            .description("빌려간 커넥션 수")
+                            .register(registry);
+                    Gauge.builder("jpashop.datasource.limiter.waiting", limiter, ConnectionLimiterDataSource::getWaiting)
+                            .description("커넥션을 기다리는 스레드 수")
+                            .register(registry);
+                    return limiter;
+                }
+                return bean;
+            }
+        };
+    }
+}
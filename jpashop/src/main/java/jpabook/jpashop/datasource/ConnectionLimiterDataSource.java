@@ -0,0 +1,101 @@
+package jpabook.jpashop.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+    커넥션 풀 앞에서 동시에 커넥션을 빌릴 수 있는 수를 제한하는 DataSource
+     - 가상 스레드는 요청마다 하나씩 만들어지므로 요청 수천개가 동시에 커넥션 풀에 몰림. 제한이 없으면 전부 Hikari 안에서
+       connectionTimeout까지 기다리다 한꺼번에 실패한다.
+     - 공정(fair) 세마포어로 먼저 온 요청부터 커넥션을 주고, 대기 시간이 timeoutMillis를 넘으면 SQLTransientConnectionException
+     - 허가(permit)는 커넥션을 close할 때 반납. permits는 보통 풀 크기(maximum-pool-size)와 같게
+     - 세마포어는 가상 스레드가 기다리는 동안 carrier 스레드를 놓아줌(synchronized와 달리 pinning 없음)
+ */
+public class ConnectionLimiterDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final int maxPermits;
+    private final long timeoutMillis;
+
+    public ConnectionLimiterDataSource(DataSource targetDataSource, int permits, long timeoutMillis) {
+        super(targetDataSource);
+        this.permits = new Semaphore(permits, true);
+        this.maxPermits = permits;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return release(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return release(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public int getInUse() {
+        return maxPermits - permits.availablePermits();
+    }
+
+    public int getWaiting() {
+        return permits.getQueueLength();
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException("커넥션 대기 시간 초과(" + timeoutMillis + "ms, 대기 " + getWaiting() + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("커넥션 대기 중 인터럽트", e);
+        }
+    }
+
+    //close될 때 허가를 반납하는 커넥션. close를 여러번 호출해도 한번만 반납
+    private Connection release(Connection connection) {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("close") || !closed.compareAndSet(false, true)) {
+                        return invoke(method, connection, args);
+                    }
+                    try {
+                        return invoke(method, connection, args);
+                    } finally {
+                        permits.release();
+                    }
+                });
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package jpabook.jpashop.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+    읽기 전용 트랜잭션(@Transactional(readOnly = true))은 replica로, 나머지는 primary로 보내는 DataSource
+     - 트랜잭션 시작 시점에는 readOnly 여부가 아직 동기화되지 않았으므로 반드시 LazyConnectionDataSourceProxy로 감싸서
+       첫 SQL을 실행할 때 커넥션을 얻도록 해야 한다.(ReplicaRoutingConfig)
+     - replica 선택: ROUND_ROBIN(순서대로) | LEAST_LOADED(사용 중인 커넥션이 가장 적은 풀)
+     - ReplicaLagMonitor가 지연이 크거나 연결할 수 없다고 판단한 replica는 제외. 남은 replica가 없으면 primary로(fallback)
+     - 메트릭: jpashop.datasource.routes{target=primary|replica-N, reason=write|read|fallback}
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Selection {
+        ROUND_ROBIN, LEAST_LOADED
+    }
+
+    static final String PRIMARY = "primary";
+
+    private final List<DataSource> replicas;
+    private final List<String> replicaKeys = new ArrayList<>();
+    private final Selection selection;
+    private final ReplicaLagMonitor lagMonitor;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final Counter writeRoutes;
+    private final Counter fallbackRoutes;
+    private final List<Counter> readRoutes = new ArrayList<>();
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas, Selection selection,
+                                      ReplicaLagMonitor lagMonitor, MeterRegistry meterRegistry) {
+        this.replicas = List.copyOf(replicas);
+        this.selection = selection;
+        this.lagMonitor = lagMonitor;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            String key = replicaKey(i);
+            replicaKeys.add(key);
+            targets.put(key, replicas.get(i));
+            readRoutes.add(meterRegistry.counter("jpashop.datasource.routes", "target", key, "reason", "read"));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        //키가 없으면 primary로 가지 않고 예외가 나도록
+        setLenientFallback(false);
+
+        this.writeRoutes = meterRegistry.counter("jpashop.datasource.routes", "target", PRIMARY, "reason", "write");
+        this.fallbackRoutes = meterRegistry.counter("jpashop.datasource.routes", "target", PRIMARY, "reason", "fallback");
+        afterPropertiesSet();
+    }
+
+    static String replicaKey(int index) {
+        return "replica-" + index;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            writeRoutes.increment();
+            return PRIMARY;
+        }
+        int replica = select();
+        if (replica < 0) {
+            fallbackRoutes.increment();
+            return PRIMARY;
+        }
+        readRoutes.get(replica).increment();
+        return replicaKeys.get(replica);
+    }
+
+    //사용할 replica 번호. 사용 가능한 replica가 없으면 -1
+    private int select() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        int selected = -1;
+        int minActive = Integer.MAX_VALUE;
+        for (int n = 0; n < size; n++) {
+            int i = (start + n) % size;
+            if (!lagMonitor.isAvailable(i)) {
+                continue;
+            }
+            if (selection == Selection.ROUND_ROBIN) {
+                return i;
+            }
+            //LEAST_LOADED: 사용 중인 커넥션 수가 같으면 라운드로빈 순서대로
+            int active = activeConnections(replicas.get(i));
+            if (active < minActive) {
+                minActive = active;
+                selected = i;
+            }
+        }
+        return selected;
+    }
+
+    private int activeConnections(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource hikari) {
+            HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+            return pool != null ? pool.getActiveConnections() : 0; //풀이 아직 시작 전
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,110 @@
+package jpabook.jpashop.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+    replica 복제 지연 감시(heartbeat 방식)
+     - primary의 replica_heartbeat 테이블에 현재 시각을 쓰고, 각 replica에서 복제되어 온 값을 읽어서
+       "primary에 마지막으로 쓴 시각 - replica가 가진 시각"을 지연으로 본다.
+     - 지연이 maxLagMillis를 넘거나 replica에 연결할 수 없으면 읽기 라우팅에서 제외(isAvailable=false)
+     - 첫 검사 전에는 지연을 알 수 없으므로 모든 replica를 제외한다.(primary로 fallback)
+     - merge ... key 구문은 H2 문법. MySQL이라면 insert ... on duplicate key update로 바꿔야 한다.
+     - 메트릭: jpashop.datasource.replica.lag{replica=replica-N} (초, 알 수 없으면 NaN)
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final long UNKNOWN = -1;
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final long maxLagMillis;
+    //replica별 마지막으로 측정한 지연(ms), 측정 실패 시 UNKNOWN
+    private final AtomicLongArray lagMillis;
+    private volatile long lastBeat = UNKNOWN;
+
+    public ReplicaLagMonitor(DataSource primary, List<DataSource> replicas, long maxLagMillis, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.maxLagMillis = maxLagMillis;
+        this.lagMillis = new AtomicLongArray(replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            lagMillis.set(i, UNKNOWN);
+            int index = i;
+            Gauge.builder("jpashop.datasource.replica.lag", lagMillis,
+                            lag -> lag.get(index) == UNKNOWN ? Double.NaN : lag.get(index) / 1000.0)
+                    .tag("replica", ReadWriteRoutingDataSource.replicaKey(i))
+                    .description("replica 복제 지연")
+                    .register(meterRegistry);
+        }
+    }
+
+    public boolean isAvailable(int replica) {
+        long lag = lagMillis.get(replica);
+        return lag != UNKNOWN && lag <= maxLagMillis;
+    }
+
+    public long getLagMillis(int replica) {
+        return lagMillis.get(replica);
+    }
+
+    //heartbeat 기록 후 replica 지연 측정. 스케줄러가 주기적으로 호출
+    public void check() {
+        check(System.currentTimeMillis());
+    }
+
+    void check(long now) {
+        try {
+            beat(now);
+        } catch (SQLException e) {
+            //primary에 쓸 수 없으면 지연을 계산할 기준이 없으므로 이전 기준으로 측정
+            log.warn("replica heartbeat 기록 실패", e);
+        }
+        for (int i = 0; i < replicas.size(); i++) {
+            lagMillis.set(i, measure(i));
+        }
+    }
+
+    private void beat(long now) throws SQLException {
+        try (Connection con = primary.getConnection()) {
+            con.setAutoCommit(true);
+            try (Statement st = con.createStatement()) {
+                st.execute("create table if not exists replica_heartbeat (id int primary key, beat_at timestamp(3) not null)");
+            }
+            try (PreparedStatement ps = con.prepareStatement("merge into replica_heartbeat key (id) values (1, ?)")) {
+                ps.setTimestamp(1, new Timestamp(now));
+                ps.executeUpdate();
+            }
+        }
+        lastBeat = now;
+    }
+
+    private long measure(int replica) {
+        if (lastBeat == UNKNOWN) {
+            return UNKNOWN;
+        }
+        try (Connection con = replicas.get(replica).getConnection();
+             PreparedStatement ps = con.prepareStatement("select beat_at from replica_heartbeat where id = 1");
+             ResultSet rs = ps.executeQuery()) {
+            if (!rs.next()) {
+                return UNKNOWN; //아직 heartbeat가 복제되지 않음
+            }
+            return Math.max(0, lastBeat - rs.getTimestamp(1).getTime());
+        } catch (SQLException e) {
+            log.warn("replica 지연 측정 실패: {} {}", ReadWriteRoutingDataSource.replicaKey(replica), e.getMessage());
+            return UNKNOWN;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package jpabook.jpashop.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*
+    jpashop.datasource.replica.urls 가 설정되어 있으면 읽기/쓰기 분리 DataSource를 등록
+     - primary: spring.datasource.*, replica: 같은 계정으로 urls의 각 url에 접속. 커넥션 풀 설정(spring.datasource.hikari.*)은 모두 같이 사용
+     - DataSource 빈은 "dataSource" 하나만 등록한다. SqlMonitorConfig는 이 빈만 감싸므로 primary/replica 풀의 SQL도 한번씩만 집계됨
+     - 트랜잭션 시작 시점에는 readOnly 여부를 알 수 없으므로 LazyConnectionDataSourceProxy로 감싸서 첫 SQL 시점에 라우팅
+ */
+@Configuration
+@ConditionalOnProperty(name = "jpashop.datasource.replica.urls")
+public class ReplicaRoutingConfig implements DisposableBean {
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+    private ScheduledExecutorService lagChecker;
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, Environment environment, MeterRegistry meterRegistry,
+                                 @Value("${jpashop.datasource.replica.urls}") List<String> replicaUrls,
+                                 @Value("${jpashop.datasource.replica.selection:round-robin}") String selection,
+                                 @Value("${jpashop.datasource.replica.max-lag-millis:1000}") long maxLagMillis,
+                                 @Value("${jpashop.datasource.replica.check-interval-millis:500}") long checkIntervalMillis) {
+        HikariDataSource primary = createPool(properties, environment, properties.determineUrl(), "primary");
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            replicas.add(createPool(properties, environment, replicaUrls.get(i).trim(), ReadWriteRoutingDataSource.replicaKey(i)));
+        }
+
+        ReplicaLagMonitor lagMonitor = new ReplicaLagMonitor(primary, replicas, maxLagMillis, meterRegistry);
+        lagChecker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-lag-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        lagChecker.scheduleWithFixedDelay(lagMonitor::check, 0, checkIntervalMillis, TimeUnit.MILLISECONDS);
+
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replicas,
+                ReadWriteRoutingDataSource.Selection.valueOf(selection.toUpperCase().replace('-', '_')),
+                lagMonitor, meterRegistry);
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    private HikariDataSource createPool(DataSourceProperties properties, Environment environment, String url, String name) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName("jpashop-" + name);
+        pools.add(pool);
+        return pool;
+    }
+
+    @Override
+    public void destroy() {
+        if (lagChecker != null) {
+            lagChecker.shutdownNow();
+        }
+        pools.forEach(HikariDataSource::close);
+    }
+}
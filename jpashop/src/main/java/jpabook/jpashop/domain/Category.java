@@ -4,11 +4,16 @@ import jakarta.persistence.*;
 import jpabook.jpashop.domain.item.Item;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Table(indexes = @Index(name = "idx_category_path", columnList = "path")) //하위 카테고리 검색(path like '/1/5/%')
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "category") //카테고리는 거의 바뀌지 않으므로 2차 캐시
 @Getter @Setter
 public class Category {
 
@@ -21,7 +26,8 @@ public class Category {
     @ManyToMany
     @JoinTable(name = "category_item",
             joinColumns = @JoinColumn(name = "category_id"),
-            inverseJoinColumns = @JoinColumn(name = "item_id"))
+            inverseJoinColumns = @JoinColumn(name = "item_id"),
+            indexes = @Index(name = "idx_category_item_category_id", columnList = "category_id, item_id"))
     private List<Item> items = new ArrayList<>();
 
     /*
@@ -34,11 +40,43 @@ public class Category {
     private Category parent;
 
     @OneToMany(mappedBy = "parent")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "category-child")
     private List<Category> child = new ArrayList<>();
 
+    /*
+        계층 인덱스(materialized path): 루트부터 부모까지 조상 id 경로
+         - 루트 1 > 5 > 23 이면 23의 path는 "/1/5/", 루트의 path는 "/"
+         - 하위 전체: path like '/1/5/23/%'(childPath), 트리 깊이와 상관없이 path 인덱스 range 스캔 한번
+         - 루트까지 경로(breadcrumb): path에 있는 id들 + 자기 id를 in 절로 한번에 조회
+         - 부모 id와 path만 있으면 되므로 @PrePersist에서 계산. 어떤 경로로 persist 해도 insert 한번에 정해짐(부모는 먼저 저장)
+         - 부모를 바꾸는(서브트리 이동) 기능은 없으므로 path는 생성할 때 한번만 정해짐
+     */
+    private String path;
+
+    private int depth; //루트 0
+
     //==양방향 연관관계 메서드 ==//
     public void addChildCategory(Category child){
         this.child.add(child);
         child.setParent(this);
     }
+
+    //하위 카테고리들의 path 앞부분("/1/5/23/")
+    public String childPath(){
+        return path + id + "/";
+    }
+
+    @PrePersist
+    void initPath(){
+        if (parent == null) {
+            this.path = "/";
+            this.depth = 0;
+            return;
+        }
+        if (parent.getId() == null || parent.getPath() == null) {
+            throw new IllegalStateException("부모 카테고리를 먼저 저장해야 합니다. name=" + name);
+        }
+        this.path = parent.childPath();
+        this.depth = parent.getDepth() + 1;
+    }
 }
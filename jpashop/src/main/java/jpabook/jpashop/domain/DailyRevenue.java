@@ -0,0 +1,46 @@
+package jpabook.jpashop.domain;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/*
+    일별 매출 집계(일자, 주문상태, 상품)
+     - 주문/취소할 때 같은 트랜잭션에서 증분으로 더해줌(RevenueRepository.add). 리포트는 order_item을 읽지 않고 이 테이블만 읽음
+     - 취소하면 ORDER 에서 빼고 CANCEL 에 더함. 날짜는 취소일이 아니라 주문일 기준
+     - 쓰기는 jdbc로 직접 하고 JPA로는 조회만 함
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class DailyRevenue {
+
+    @EmbeddedId
+    private Key id;
+
+    private long amount; //주문 금액 합계
+    private long quantity; //주문 수량 합계
+
+    //기본키가 revenue_date로 시작하므로 기간 조회는 pk range 스캔
+    @Embeddable
+    @Getter
+    @EqualsAndHashCode
+    @NoArgsConstructor(access = AccessLevel.PROTECTED)
+    public static class Key implements Serializable {
+
+        @Column(name = "revenue_date")
+        private LocalDate date;
+
+        @Enumerated(EnumType.STRING)
+        @Column(length = 10)
+        private OrderStatus status;
+
+        @Column(name = "item_id")
+        private Long itemId;
+    }
+}
@@ -0,0 +1,40 @@
+package jpabook.jpashop.domain;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/*
+    인기 상품 재고 shard(jpashop.stock.strategy=sharded)
+     - 상품 재고를 shard_no 0 ~ N-1 행에 나눠 담음. 주문은 shard 한 행만 조건부 차감하므로 같은 상품 주문끼리 잡는 row 락이 N개로 나뉨
+     - Item.stockShards > 0 인 상품만 행이 있음. item.stock_quantity는 shard 합계를 주기적으로 옮겨 적은 값
+     - 쓰기는 jdbc로 직접 하고 JPA로는 조회만 함
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class ItemStockShard {
+
+    @EmbeddedId
+    private Key id;
+
+    private int quantity;
+
+    //기본키가 item_id로 시작하므로 상품별 shard 조회는 pk range 스캔
+    @Embeddable
+    @Getter
+    @EqualsAndHashCode
+    @NoArgsConstructor(access = AccessLevel.PROTECTED)
+    public static class Key implements Serializable {
+
+        @Column(name = "item_id")
+        private Long itemId;
+
+        @Column(name = "shard_no")
+        private int shardNo;
+    }
+}
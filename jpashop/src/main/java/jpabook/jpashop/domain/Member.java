@@ -10,6 +10,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+//회원명 중복 방지. 유니크 인덱스가 회원명 앞부분 일치 검색(like 'kim%')에도 쓰임
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_member_name", columnNames = "name"))
 @Getter @Setter
 public class Member {
 
@@ -1,6 +1,7 @@
 package jpabook.jpashop.domain;
 
 import jakarta.persistence.*;
+import jpabook.jpashop.service.stock.StockReservation;
 import lombok.Getter;
 import lombok.Setter;
 import org.hibernate.annotations.BatchSize;
@@ -10,11 +11,17 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_order_date_id", columnList = "orderDate, order_id"), //키셋 페이징, 주문일시 검색/정렬용
+        @Index(name = "idx_orders_status", columnList = "status") //주문상태 검색용
+})
 @Getter @Setter
 public class Order {
 
-    @Id @GeneratedValue
+    //시퀀스를 allocationSize 만큼 한번에 받아와서(pooled) persist마다 시퀀스를 조회하지 않음. 대량 주문 insert 배치용
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 100)
     @Column(name = "order_id")
     private Long id;
 
@@ -50,6 +57,14 @@ public class Order {
     @Enumerated(EnumType.STRING)
     private OrderStatus status; //주문상태 [ORDER, CANCEL]
 
+    /*
+        주문 총액, 총 수량(비정규화)
+         - 목록 화면/리포트에서 orderItems를 초기화하지 않고 컬럼만 읽으면 되도록 addOrderItem에서 같이 계산
+         - 취소해도 주문 금액은 그대로 남김. 취소 매출은 DailyRevenue에서 상태별로 따로 집계
+     */
+    private int totalPrice;
+    private int itemCount;
+
     //==양방향 연관관계 메서드 ==// 메서드 위치는 컨트롤하는쪽에 작성하는것이 관례
     public void setMember(Member member){
         this.member = member;
@@ -59,6 +74,8 @@ public class Order {
     public void addOrderItem(OrderItem orderItem){
         orderItems.add(orderItem);
         orderItem.setOrder(this);
+        totalPrice += orderItem.getTotalPrice();
+        itemCount += orderItem.getCount();
     }
     //==양방향 연관관계 메서드 ==//
     public void setDelivery(Delivery delivery){
@@ -82,8 +99,8 @@ public class Order {
     }
 
     //==비즈니스 로직==//
-    //주문취소
-    public void cancel(){
+    //주문취소. 재고는 주문할 때 차감한 전략(StockReservation)으로 복구
+    public void cancel(StockReservation stockReservation){
         //DeliveryStatus.COMP는 배송 완료
         if(delivery.getStatus() == DeliveryStatus.COMP){
             throw new IllegalStateException("이미 배송완료된 상품은 취소가 불가능합니다");
@@ -91,17 +108,15 @@ public class Order {
         //로직을 통과하면 취소로 변환
         this.setStatus(OrderStatus.CANCEL);
         for (OrderItem orderItem : orderItems) {
-            orderItem.cancel();
+            stockReservation.release(orderItem.getItem().getId(), orderItem.getCount());
         }
     }
 
-    //==조회 로직==//
-    //전체 주문 가격 조회
-    public int getTotalPrice(){
-        int totalPrice = 0;
-        for (OrderItem orderItem : orderItems) {
-            totalPrice += orderItem.getTotalPrice();
+    //배송완료
+    public void completeDelivery(){
+        if(status == OrderStatus.CANCEL){
+            throw new IllegalStateException("취소된 주문은 배송완료 처리할 수 없습니다");
         }
-        return totalPrice;
+        delivery.setStatus(DeliveryStatus.COMP);
     }
 }
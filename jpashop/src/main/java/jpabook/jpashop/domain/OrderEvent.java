@@ -0,0 +1,55 @@
+package jpabook.jpashop.domain;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/*
+    주문 이벤트 outbox(주문, 취소, 배송완료)
+     - 주문을 변경하는 트랜잭션에서 같이 insert. 주문이 롤백되면 이벤트도 없음
+     - 이벤트 내용은 바꾸지 않고 추가만 함. projectedAt만 OrderProjector가 반영한 뒤에 채움(null이면 아직 반영 전)
+     - 아직 반영할 수 없는 이벤트(조회 모델이 없는 주문의 취소/배송완료)는 attempts를 올리고 retryAt까지 미룸
+       max-attempts를 넘으면 failedAt을 채우고 더 이상 반영하지 않음(dead letter)
+     - payload: PLACED는 조회 모델을 만들 수 있는 주문 전체 내용(JSON), 나머지는 null
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_order_event_projected_at", columnList = "projectedAt, event_id")) //미반영 이벤트 조회용
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class OrderEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_event_seq")
+    @SequenceGenerator(name = "order_event_seq", sequenceName = "order_event_seq", allocationSize = 100)
+    @Column(name = "event_id")
+    private Long id;
+
+    private Long orderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private OrderEventType type;
+
+    @Column(length = 100000)
+    private String payload;
+
+    private LocalDateTime occurredAt;
+
+    private LocalDateTime projectedAt;
+
+    private int attempts;
+
+    private LocalDateTime retryAt;
+
+    private LocalDateTime failedAt;
+
+    public OrderEvent(Long orderId, OrderEventType type, String payload) {
+        this.orderId = orderId;
+        this.type = type;
+        this.payload = payload;
+        this.occurredAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,5 @@
+package jpabook.jpashop.domain;
+
+public enum OrderEventType {
+    PLACED, CANCELLED, DELIVERED
+}
@@ -9,7 +9,9 @@ import lombok.Setter;
 @Getter @Setter
 public class OrderItem {
 
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_seq")
+    @SequenceGenerator(name = "order_item_seq", sequenceName = "order_item_seq", allocationSize = 100)
     @Column(name = "order_item_id")
     private Long id;
 
@@ -26,20 +28,19 @@ public class OrderItem {
 
     //==생성 메서드==//
     public static OrderItem createOrderItem(Item item, int orderPrice, int count){
+        OrderItem orderItem = createReservedOrderItem(item, orderPrice, count);
+        item.removeStock(count);
+        return orderItem;
+    }
+
+    //재고를 StockReservation으로 이미 차감한 경우. 엔티티 재고는 건드리지 않음
+    public static OrderItem createReservedOrderItem(Item item, int orderPrice, int count){
         OrderItem orderItem = new OrderItem();
         orderItem.setItem(item);
         orderItem.setOrderPrice(orderPrice);
         orderItem.setCount(count);
-
-        item.removeStock(count);
         return orderItem;
     }
-
-    //주문 캔슬 비즈니스 로직
-    public void cancel() {
-        //주문을 취소하면 orderItem에 재고를 채워줘야함
-        getItem().addStock(count);
-    }
     // 총주문 금액 계산로직
     public int getTotalPrice() {
         return getOrderPrice() * getCount();
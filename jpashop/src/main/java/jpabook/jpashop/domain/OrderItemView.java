@@ -0,0 +1,37 @@
+package jpabook.jpashop.domain;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/*
+    주문상품 조회 모델. 상품명을 복사해 두므로 item 조인이 없음
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_order_item_view_order_id", columnList = "order_id"))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class OrderItemView {
+
+    @Id
+    @Column(name = "order_item_id")
+    private Long id; //주문상품 id 그대로 사용
+
+    @Column(name = "order_id")
+    private Long orderId;
+
+    private Long itemId;
+    private String itemName;
+    private int orderPrice;
+    private int count;
+
+    public OrderItemView(Long id, Long orderId, Long itemId, String itemName, int orderPrice, int count) {
+        this.id = id;
+        this.orderId = orderId;
+        this.itemId = itemId;
+        this.itemName = itemName;
+        this.orderPrice = orderPrice;
+        this.count = count;
+    }
+}
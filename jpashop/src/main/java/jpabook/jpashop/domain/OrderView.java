@@ -0,0 +1,44 @@
+package jpabook.jpashop.domain;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/*
+    주문 조회 모델(OrderProjector가 주문 이벤트로 만들어주는 비정규화 테이블)
+     - 회원명, 배송지를 복사해 두므로 목록 조회에 member, delivery 조인이 없음
+     - 이벤트가 반영되기 전까지는 원본 테이블보다 늦을 수 있음(jpashop.projector.lag.* 메트릭)
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_order_view_order_date", columnList = "orderDate, order_id"))
+@Getter @Setter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class OrderView {
+
+    @Id
+    @Column(name = "order_id")
+    private Long id; //주문 id 그대로 사용
+
+    private String memberName;
+
+    private LocalDateTime orderDate;
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    @Enumerated(EnumType.STRING)
+    private DeliveryStatus deliveryStatus;
+
+    private Address address; //배송지
+
+    private int totalPrice;
+    private int itemCount;
+
+    public OrderView(Long id) {
+        this.id = id;
+    }
+}
@@ -3,8 +3,12 @@ package jpabook.jpashop.domain.item;
 import jakarta.persistence.*;
 import jpabook.jpashop.domain.Category;
 import jpabook.jpashop.exception.NotEnoughStockException;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -12,6 +16,9 @@ import java.util.List;
 @Entity
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE) //상속관계 전략 지정. 1. 싱글테이블 전략 2. JOINED(정규화된 스타일)
 @DiscriminatorColumn(name = "dtype" ) //자식클래스 구분하기 위해 지정
+@Table(indexes = @Index(name = "idx_item_dtype", columnList = "dtype, item_id")) //종류별 목록(where dtype = 'B' order by item_id)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "item") //2차 캐시. 자식클래스(Book, Album, Movie)도 같은 region 사용
 @Getter @Setter
 public abstract class Item {
 
@@ -20,10 +27,24 @@ public abstract class Item {
     @Column(name = "item_id")
     private Long id;
 
+    //상속 구분 컬럼(읽기 전용). 종류별 목록은 order by dtype, item_id 로 정렬해야 H2가 idx_item_dtype 순서대로 필요한 만큼만 읽음
+    @Column(insertable = false, updatable = false)
+    @Setter(AccessLevel.NONE)
+    private String dtype;
+
     private String name;
     private int price;
     private int stockQuantity;
 
+    //재고 shard 수(ItemStockShard). 0이면 stock_quantity 한 행으로 재고 관리, 0보다 크면 stock_quantity는 shard 합계를 옮겨 적은 값
+    @ColumnDefault("0")
+    @Setter(AccessLevel.NONE)
+    private int stockShards;
+
+    //동시 주문에서 재고 갱신 손실을 막기 위한 낙관적 락 버전
+    @Version
+    private Long version;
+
     @ManyToMany(mappedBy = "items")
     private List<Category> categories = new ArrayList<>();
 
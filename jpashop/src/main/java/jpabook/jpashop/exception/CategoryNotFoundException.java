@@ -0,0 +1,21 @@
+package jpabook.jpashop.exception;
+
+public class CategoryNotFoundException extends NotFoundException {
+
+    public CategoryNotFoundException() {
+        super();
+    }
+
+    public CategoryNotFoundException(String message) {
+        super(message);
+    }
+
+    public CategoryNotFoundException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public CategoryNotFoundException(Throwable cause) {
+        super(cause);
+    }
+
+}
@@ -0,0 +1,21 @@
+package jpabook.jpashop.exception;
+
+public class ItemNotFoundException extends NotFoundException {
+
+    public ItemNotFoundException() {
+        super();
+    }
+
+    public ItemNotFoundException(String message) {
+        super(message);
+    }
+
+    public ItemNotFoundException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public ItemNotFoundException(Throwable cause) {
+        super(cause);
+    }
+
+}
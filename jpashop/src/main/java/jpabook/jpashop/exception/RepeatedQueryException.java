@@ -0,0 +1,21 @@
+package jpabook.jpashop.exception;
+
+public class RepeatedQueryException extends RuntimeException {
+
+    public RepeatedQueryException() {
+        super();
+    }
+
+    public RepeatedQueryException(String message) {
+        super(message);
+    }
+
+    public RepeatedQueryException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public RepeatedQueryException(Throwable cause) {
+        super(cause);
+    }
+
+}
@@ -0,0 +1,34 @@
+package jpabook.jpashop.monitor;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/*
+    jpashop.sql-monitor.enabled=true 이면 DataSource를 SqlMonitorDataSource로 감싸서 SQL 통계를 수집
+     - 애플리케이션이 쓰는 "dataSource" 빈 하나만 감쌈(스프링 부트 기본 DataSource, 읽기/쓰기 분리면 ReplicaRoutingConfig의 라우팅 DataSource)
+     - 다른 이름으로 등록된 DataSource(풀을 따로 빈으로 등록한 경우 등)까지 감싸면 같은 SQL이 두번 집계되므로 감싸지 않음
+ */
+@Configuration
+@ConditionalOnProperty(name = "jpashop.sql-monitor.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlMonitorConfig {
+
+    static final String DATA_SOURCE_BEAN = "dataSource";
+
+    @Bean
+    public static BeanPostProcessor sqlMonitorDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (DATA_SOURCE_BEAN.equals(beanName)
+                        && bean instanceof DataSource dataSource && !(bean instanceof SqlMonitorDataSource)) {
+                    return new SqlMonitorDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,100 @@
+package jpabook.jpashop.monitor;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+
+/*
+    DataSource 프록시: Connection -> Statement -> ResultSet을 감싸서 SQL 실행 횟수, 시간, 읽은 row 수를 SqlStatistics에 기록
+     - 집계 중인 SqlStatistics가 없으면(요청 밖, 애플리케이션 시작 시점 등) 그냥 통과
+ */
+public class SqlMonitorDataSource extends DelegatingDataSource {
+
+    public SqlMonitorDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrapConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrapConnection(super.getConnection(username, password));
+    }
+
+    private Connection wrapConnection(Connection connection) {
+        return proxy(Connection.class, connection, (method, args, result) -> {
+            String name = method.getName();
+            if ((name.equals("prepareStatement") || name.equals("prepareCall")) && result instanceof Statement statement) {
+                return wrapStatement(statement, (String) args[0]);
+            }
+            if (name.equals("createStatement") && result instanceof Statement statement) {
+                return wrapStatement(statement, null);
+            }
+            return result;
+        });
+    }
+
+    private Object wrapStatement(Statement statement, String preparedSql) {
+        Class<? extends Statement> type = statement instanceof CallableStatement ? CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+
+        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            String name = method.getName();
+            boolean execute = name.startsWith("execute");
+            long start = execute ? System.nanoTime() : 0;
+
+            Object result = invoke(method, statement, args);
+
+            if (execute) {
+                String sql = preparedSql != null ? preparedSql
+                        : args != null && args.length > 0 && args[0] instanceof String s ? s : name;
+                SqlStatistics statistics = SqlStatistics.current();
+                if (statistics != null) {
+                    statistics.recordStatement(sql, System.nanoTime() - start);
+                }
+            }
+            if (result instanceof ResultSet resultSet) {
+                return wrapResultSet(resultSet);
+            }
+            return result;
+        });
+    }
+
+    private ResultSet wrapResultSet(ResultSet resultSet) {
+        return proxy(ResultSet.class, resultSet, (method, args, result) -> {
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                SqlStatistics statistics = SqlStatistics.current();
+                if (statistics != null) {
+                    statistics.recordRow();
+                }
+            }
+            return result;
+        });
+    }
+
+    //==프록시 유틸==//
+    private interface AfterInvoke {
+        Object apply(Method method, Object[] args, Object result);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T proxy(Class<T> type, T target, AfterInvoke after) {
+        return (T) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> after.apply(method, args, invoke(method, target, args)));
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
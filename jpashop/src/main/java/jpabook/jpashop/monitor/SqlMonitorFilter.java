@@ -0,0 +1,70 @@
+package jpabook.jpashop.monitor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/*
+    HTTP 요청 단위로 SQL 통계를 집계해서 엔드포인트별 메트릭으로 남김
+     - jpashop.sql.statements / jpashop.sql.rows / jpashop.sql.jdbc (uri, method 태그)
+     - 확인: /actuator/metrics/jpashop.sql.statements?tag=uri:/api/v2/orders
+     - 같은 SQL이 repeat-threshold번을 넘게 실행되면 경고 로그, fail-on-repeat=true(test 프로파일)면 요청 실패
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "jpashop.sql-monitor.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlMonitorFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+    private final int repeatThreshold;
+    private final boolean failOnRepeat;
+
+    public SqlMonitorFilter(MeterRegistry meterRegistry,
+                            @Value("${jpashop.sql-monitor.repeat-threshold:10}") int repeatThreshold,
+                            @Value("${jpashop.sql-monitor.fail-on-repeat:false}") boolean failOnRepeat) {
+        this.meterRegistry = meterRegistry;
+        this.repeatThreshold = repeatThreshold;
+        this.failOnRepeat = failOnRepeat;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        SqlStatistics statistics = SqlStatistics.begin(repeatThreshold, failOnRepeat);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStatistics.end(statistics);
+            record(request, statistics);
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlStatistics statistics) {
+        if (statistics.getStatements() == 0) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Tags tags = Tags.of("uri", pattern != null ? pattern.toString() : "UNKNOWN",
+                "method", request.getMethod());
+
+        meterRegistry.summary("jpashop.sql.statements", tags).record(statistics.getStatements());
+        meterRegistry.summary("jpashop.sql.rows", tags).record(statistics.getRows());
+        meterRegistry.timer("jpashop.sql.jdbc", tags).record(statistics.getJdbcNanos(), TimeUnit.NANOSECONDS);
+
+        log.debug("{} {} sql={} rows={} jdbc={}ms maxRepeat={}", request.getMethod(), request.getRequestURI(),
+                statistics.getStatements(), statistics.getRows(),
+                TimeUnit.NANOSECONDS.toMillis(statistics.getJdbcNanos()), statistics.getMaxRepeat());
+    }
+}
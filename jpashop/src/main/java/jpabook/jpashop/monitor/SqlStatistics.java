@@ -0,0 +1,130 @@
+package jpabook.jpashop.monitor;
+
+import jpabook.jpashop.exception.RepeatedQueryException;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/*
+    한 요청(또는 테스트) 동안 실행된 SQL 통계
+     - statements: 실행된 SQL 수, rows: 읽은 row 수, jdbcNanos: JDBC 실행 시간
+     - 같은 모양(파라미터가 ?로 바인딩된 SQL 문자열)의 SQL이 repeatThreshold번을 넘으면 N+1 의심
+     - 스레드 로컬로 관리하므로 요청 스레드 안에서 실행된 SQL만 집계됨
+       다른 스레드에 넘기는 작업(OrderItemChunkFetcher 청크 조회 등)은 propagate()로 감싸면 같은 범위에 집계됨
+       그래서 집계 메서드는 여러 스레드에서 동시에 불릴 수 있음(집계, 조회 모두 synchronized. shapeCounts는 복사본을 돌려줌)
+ */
+@Slf4j
+@Getter
+public class SqlStatistics {
+
+    private static final ThreadLocal<SqlStatistics> CURRENT = new ThreadLocal<>();
+
+    private final int repeatThreshold;
+    private final boolean failOnRepeat;
+
+    private int statements;
+    private long rows;
+    private long jdbcNanos;
+    private final Map<String, Integer> shapeCounts = new HashMap<>();
+
+    public SqlStatistics(int repeatThreshold, boolean failOnRepeat) {
+        this.repeatThreshold = repeatThreshold;
+        this.failOnRepeat = failOnRepeat;
+    }
+
+    //바깥 집계 범위(테스트 안에서 MockMvc 요청을 보낼 때 등). 안쪽에서 집계한 값은 바깥에도 더해줌
+    private SqlStatistics parent;
+
+    //==집계 범위 시작/종료==//
+    public static SqlStatistics begin(int repeatThreshold, boolean failOnRepeat) {
+        SqlStatistics statistics = new SqlStatistics(repeatThreshold, failOnRepeat);
+        statistics.parent = CURRENT.get();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    public static SqlStatistics current() {
+        return CURRENT.get();
+    }
+
+    //지금 스레드의 집계 범위를 작업을 실행하는 스레드에도 걸어줌. 범위가 없으면 그대로
+    public static <T> Supplier<T> propagate(Supplier<T> task) {
+        SqlStatistics captured = CURRENT.get();
+        if (captured == null) {
+            return task;
+        }
+        return () -> {
+            SqlStatistics previous = CURRENT.get();
+            CURRENT.set(captured);
+            try {
+                return task.get();
+            } finally {
+                if (previous != null) {
+                    CURRENT.set(previous);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        };
+    }
+
+    public static void end(SqlStatistics statistics) {
+        if (statistics.parent != null) {
+            CURRENT.set(statistics.parent);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    //==집계==//
+    public synchronized void recordStatement(String sql, long nanos) {
+        if (parent != null) {
+            parent.recordStatement(sql, nanos);
+        }
+        statements++;
+        jdbcNanos += nanos;
+
+        int count = shapeCounts.merge(sql, 1, Integer::sum);
+        //임계치를 넘는 순간 한 번만 경고
+        if (count == repeatThreshold + 1) {
+            String message = "같은 SQL이 한 요청에서 " + repeatThreshold + "번 넘게 실행됨(N+1 의심): " + sql;
+            if (failOnRepeat) {
+                throw new RepeatedQueryException(message);
+            }
+            log.warn(message);
+        }
+    }
+
+    public synchronized void recordRow() {
+        if (parent != null) {
+            parent.recordRow();
+        }
+        rows++;
+    }
+
+    //==조회==//
+    public synchronized int getStatements() {
+        return statements;
+    }
+
+    public synchronized long getRows() {
+        return rows;
+    }
+
+    public synchronized long getJdbcNanos() {
+        return jdbcNanos;
+    }
+
+    //SQL 모양별 실행 횟수(복사본)
+    public synchronized Map<String, Integer> getShapeCounts() {
+        return Map.copyOf(shapeCounts);
+    }
+
+    //가장 많이 반복된 SQL의 실행 횟수
+    public synchronized int getMaxRepeat() {
+        return shapeCounts.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+    }
+}
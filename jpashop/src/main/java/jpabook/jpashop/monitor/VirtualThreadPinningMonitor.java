@@ -0,0 +1,104 @@
+package jpabook.jpashop.monitor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/*
+    가상 스레드가 carrier 스레드에 고정(pinning)되는 것을 감시(가상 스레드 모드에서만 동작)
+     - synchronized 블록이나 native 프레임 안에서 블로킹(JDBC I/O, 락 대기)하면 가상 스레드가 carrier 스레드를 놓지 못한다.
+       Hibernate, JDBC 드라이버 내부의 synchronized가 주 원인이므로 고정된 위치를 찾아야 한다.
+     - JFR jdk.VirtualThreadPinned 이벤트를 애플리케이션 안에서 스트리밍으로 받아서
+       메트릭 jpashop.virtual-threads.pinned{source=hibernate|h2|hikari|jpashop|other} (횟수, 고정 시간)으로 기록
+     - source는 스택에서 가장 위에 있는 라이브러리 프레임 기준. 같은 source의 스택은 1분에 한번만 경고 로그
+     - threshold-millis 보다 짧게 고정된 것은 기록하지 않음(JFR 기본값 20ms)
+ */
+@Slf4j
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor implements InitializingBean, DisposableBean {
+
+    private static final long LOG_INTERVAL_MILLIS = 60_000;
+    private static final List<String[]> SOURCES = List.of(
+            new String[]{"org.hibernate.", "hibernate"},
+            new String[]{"org.h2.", "h2"},
+            new String[]{"com.zaxxer.hikari.", "hikari"},
+            new String[]{"jpabook.jpashop.", "jpashop"});
+
+    private final MeterRegistry meterRegistry;
+    private final Duration threshold;
+    //이벤트는 RecordingStream 스레드 하나에서만 처리됨
+    private final Map<String, Long> lastLogged = new HashMap<>();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                       @Value("${jpashop.virtual-threads.pinned-threshold-millis:20}") long thresholdMillis) {
+        this.meterRegistry = meterRegistry;
+        this.threshold = Duration.ofMillis(thresholdMillis);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        stream = new RecordingStream();
+        stream.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+        stream.onEvent("jdk.VirtualThreadPinned", this::pinned);
+        stream.startAsync();
+    }
+
+    @Override
+    public void destroy() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void pinned(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        List<RecordedFrame> frames = stackTrace != null ? stackTrace.getFrames() : List.of();
+        String source = source(frames);
+
+        Timer.builder("jpashop.virtual-threads.pinned")
+                .description("carrier 스레드에 고정된 가상 스레드")
+                .tag("source", source)
+                .register(meterRegistry)
+                .record(event.getDuration());
+
+        long now = System.currentTimeMillis();
+        Long last = lastLogged.get(source);
+        if (last == null || now - last > LOG_INTERVAL_MILLIS) {
+            lastLogged.put(source, now);
+            log.warn("가상 스레드 pinning {}ms ({})\n{}", event.getDuration().toMillis(), source, frames.stream()
+                    .limit(20)
+                    .map(f -> "\tat " + f.getMethod().getType().getName() + "." + f.getMethod().getName() + ":" + f.getLineNumber())
+                    .collect(Collectors.joining("\n")));
+        }
+    }
+
+    private String source(List<RecordedFrame> frames) {
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            for (String[] source : SOURCES) {
+                if (type.startsWith(source[0])) {
+                    return source[1];
+                }
+            }
+        }
+        return "other";
+    }
+}
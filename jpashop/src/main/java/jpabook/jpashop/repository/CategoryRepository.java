@@ -0,0 +1,82 @@
+package jpabook.jpashop.repository;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.item.Item;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+    카테고리 계층 조회. Category.path(조상 id 경로)를 이용해서 트리 깊이와 상관없이 쿼리 한번으로 조회
+ */
+@Repository
+@RequiredArgsConstructor
+public class CategoryRepository {
+
+    private final EntityManager em;
+
+    //path는 Category의 @PrePersist에서 계산
+    public void save(Category category){
+        em.persist(category);
+    }
+
+    public Category findOne(Long id){
+        return em.find(Category.class, id);
+    }
+
+    //하위 카테고리 전체(자기 자신 제외). 위 레벨부터
+    public List<Category> findDescendants(Category category){
+        return em.createQuery("select c from Category c" +
+                        " where c.path like :prefix" +
+                        " order by c.depth, c.id", Category.class)
+                .setParameter("prefix", category.childPath() + "%")
+                .getResultList();
+    }
+
+    //루트부터 자기 자신까지(breadcrumb)
+    public List<Category> findBreadcrumb(Category category){
+        List<Long> ids = new ArrayList<>();
+        for (String id : category.getPath().split("/")) {
+            if (!id.isEmpty()) {
+                ids.add(Long.valueOf(id));
+            }
+        }
+        ids.add(category.getId());
+        return em.createQuery("select c from Category c" +
+                        " where c.id in :ids" +
+                        " order by c.depth", Category.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    /*
+        서브트리(자기 자신 + 하위 카테고리)에 속한 상품 페이징
+         - 상품이 여러 카테고리에 걸려 있어도 한번만 나오도록 join 대신 in (서브쿼리)
+         - 정렬은 상품 id
+     */
+    public Page<Item> findItemsInSubtree(Category category, Pageable pageable){
+        String subtree = "select ci.id from Category c join c.items ci where c.id = :id or c.path like :prefix";
+
+        List<Item> content = em.createQuery("select i from Item i" +
+                        " where i.id in (" + subtree + ")" +
+                        " order by i.id", Item.class)
+                .setParameter("id", category.getId())
+                .setParameter("prefix", category.childPath() + "%")
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        return PageableExecutionUtils.getPage(content, pageable, () ->
+                em.createQuery("select count(i) from Item i" +
+                                " where i.id in (" + subtree + ")", Long.class)
+                        .setParameter("id", category.getId())
+                        .setParameter("prefix", category.childPath() + "%")
+                        .getSingleResult());
+    }
+}
@@ -0,0 +1,16 @@
+package jpabook.jpashop.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+//일자별 매출(상품 합계)
+@Data
+@AllArgsConstructor
+public class DailyRevenueDTO {
+
+    private LocalDate date;
+    private long amount;
+    private long quantity;
+}
@@ -3,8 +3,10 @@ package jpabook.jpashop.repository;
 import jakarta.persistence.EntityManager;
 import jpabook.jpashop.domain.item.Item;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -26,9 +28,73 @@ public class ItemRepository {
         return em.find(Item.class, id);
     }
 
-    // item 리스트 찾기
+    /*
+        item 리스트 찾기(상품 목록, 주문 화면)
+         - 쿼리 캐시: 결과 id 목록을 item-catalog region에, 엔티티는 item region에 캐시
+         - item 테이블이 바뀌면(상품 수정, 재고 update) hibernate가 쿼리 캐시를 자동으로 무효화
+     */
     public List<Item> findAll(){
         return em.createQuery("select i from Item i ", Item.class)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .setHint(HibernateHints.HINT_CACHE_REGION, "item-catalog")
                 .getResultList();
     }
+
+    //상품 여러개 한번에 조회(in 절)
+    public List<Item> findAllById(Collection<Long> ids){
+        return em.createQuery("select i from Item i where i.id in :ids", Item.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    //ids 중 존재하는 상품 id. 엔티티를 올리지 않으므로 벌크 재고 차감 전에 불러도 됨
+    public List<Long> findIds(Collection<Long> ids){
+        return em.createQuery("select i.id from Item i where i.id in :ids", Long.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    /*
+        재고 조건부 차감. 재고가 부족하면 0건 update
+        update 한 row는 트랜잭션이 끝날 때까지 락이 잡혀 있어서 동시 주문이 와도 재고가 음수가 되지 않음
+        벌크 연산이라 영속성 컨텍스트에 이미 올라온 Item은 갱신되지 않으므로 차감 후에 조회해야 함
+        벌크 연산은 hibernate가 item 2차 캐시 region과 item 테이블 쿼리 캐시를 통째로 비움
+     */
+    public int decreaseStock(Long itemId, int quantity){
+        return em.createQuery("update Item i" +
+                        " set i.stockQuantity = i.stockQuantity - :quantity, i.version = i.version + 1" +
+                        " where i.id = :id and i.stockQuantity >= :quantity")
+                .setParameter("quantity", quantity)
+                .setParameter("id", itemId)
+                .executeUpdate();
+    }
+
+    public int increaseStock(Long itemId, int quantity){
+        return em.createQuery("update Item i" +
+                        " set i.stockQuantity = i.stockQuantity + :quantity, i.version = i.version + 1" +
+                        " where i.id = :id")
+                .setParameter("quantity", quantity)
+                .setParameter("id", itemId)
+                .executeUpdate();
+    }
+
+    //영속성 컨텍스트를 거치지 않고 DB에 커밋된 재고와 버전을 조회
+    public ItemStock findStock(Long itemId){
+        List<ItemStock> result = em.createQuery("select new jpabook.jpashop.repository.ItemStock(i.stockQuantity, i.version)" +
+                        " from Item i where i.id = :id", ItemStock.class)
+                .setParameter("id", itemId)
+                .getResultList();
+        return result.isEmpty() ? null : result.get(0);
+    }
+
+    //버전이 그대로일 때만 재고를 바꿈(compare-and-set). 다른 트랜잭션이 먼저 바꿨으면 0건 update
+    public int updateStock(Long itemId, Long version, int stockQuantity){
+        return em.createQuery("update Item i" +
+                        " set i.stockQuantity = :stockQuantity, i.version = i.version + 1" +
+                        " where i.id = :id and i.version = :version")
+                .setParameter("stockQuantity", stockQuantity)
+                .setParameter("id", itemId)
+                .setParameter("version", version)
+                .executeUpdate();
+    }
 }
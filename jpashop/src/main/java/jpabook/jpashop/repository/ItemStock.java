@@ -0,0 +1,13 @@
+package jpabook.jpashop.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+//상품 재고와 낙관적 락 버전
+@Getter
+@AllArgsConstructor
+public class ItemStock {
+
+    private int stockQuantity;
+    private Long version;
+}
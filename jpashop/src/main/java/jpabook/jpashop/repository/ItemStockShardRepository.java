@@ -0,0 +1,129 @@
+package jpabook.jpashop.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+    인기 상품 재고 shard(ItemStockShard) 저장/조회
+     - shard 쓰기는 JdbcTemplate. JPA 트랜잭션과 같은 커넥션을 쓰므로 주문과 같이 커밋/롤백됨
+     - item 재고를 바꾸는 update는 JPQL로 해서 hibernate가 item 2차 캐시와 쿼리 캐시를 비우게 함
+ */
+@Repository
+@RequiredArgsConstructor
+public class ItemStockShardRepository {
+
+    private final EntityManager em;
+    private final JdbcTemplate jdbcTemplate;
+
+    //shard 한 행에서 조건부 차감. 재고가 부족하거나 shard가 없으면 0건 update
+    public int decrease(Long itemId, int shardNo, int quantity){
+        return jdbcTemplate.update("update item_stock_shard set quantity = quantity - ?" +
+                " where item_id = ? and shard_no = ? and quantity >= ?", quantity, itemId, shardNo, quantity);
+    }
+
+    public int increase(Long itemId, int shardNo, int quantity){
+        return jdbcTemplate.update("update item_stock_shard set quantity = quantity + ?" +
+                " where item_id = ? and shard_no = ?", quantity, itemId, shardNo);
+    }
+
+    //상품의 shard별 재고(shard_no 순). 인기 상품이 아니면 빈 배열
+    public int[] findQuantities(Long itemId){
+        return jdbcTemplate.queryForList("select quantity from item_stock_shard where item_id = ? order by shard_no",
+                Integer.class, itemId).stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    //모든 인기 상품의 shard별 재고
+    public Map<Long, int[]> findAll(){
+        Map<Long, List<Integer>> rows = new LinkedHashMap<>();
+        jdbcTemplate.query("select item_id, quantity from item_stock_shard order by item_id, shard_no",
+                rs -> {
+                    rows.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>()).add(rs.getInt(2));
+                });
+        Map<Long, int[]> result = new LinkedHashMap<>();
+        rows.forEach((itemId, quantities) -> result.put(itemId, quantities.stream().mapToInt(Integer::intValue).toArray()));
+        return result;
+    }
+
+    //shard 행을 잠그고 shard별 재고를 읽음. 진행 중인 주문 트랜잭션이 커밋할 때까지 기다림
+    public int[] lockQuantities(Long itemId){
+        return jdbcTemplate.queryForList("select quantity from item_stock_shard where item_id = ? order by shard_no for update",
+                Integer.class, itemId).stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    public void insert(Long itemId, int[] quantities){
+        List<Object[]> rows = new ArrayList<>(quantities.length);
+        for (int shardNo = 0; shardNo < quantities.length; shardNo++) {
+            rows.add(new Object[]{itemId, shardNo, quantities[shardNo]});
+        }
+        jdbcTemplate.batchUpdate("insert into item_stock_shard (item_id, shard_no, quantity) values (?, ?, ?)", rows);
+    }
+
+    public void update(Long itemId, int[] quantities){
+        List<Object[]> rows = new ArrayList<>(quantities.length);
+        for (int shardNo = 0; shardNo < quantities.length; shardNo++) {
+            rows.add(new Object[]{quantities[shardNo], itemId, shardNo});
+        }
+        jdbcTemplate.batchUpdate("update item_stock_shard set quantity = ? where item_id = ? and shard_no = ?", rows);
+    }
+
+    public int delete(Long itemId){
+        return jdbcTemplate.update("delete from item_stock_shard where item_id = ?", itemId);
+    }
+
+    /*
+        인기 상품이 아닐 때만 item 재고 조건부 차감. 재고가 부족하거나 인기 상품이면 0건 update
+         - 인기 상품 지정(shard 수 변경)도 item 행을 바꾸므로, 지정 트랜잭션이 잡은 row 락을 기다린 주문은 바뀐 행으로 조건을 다시 확인함
+     */
+    public int decreaseItemStock(Long itemId, int quantity){
+        return em.createQuery("update Item i" +
+                        " set i.stockQuantity = i.stockQuantity - :quantity, i.version = i.version + 1" +
+                        " where i.id = :id and i.stockQuantity >= :quantity and i.stockShards = 0")
+                .setParameter("quantity", quantity)
+                .setParameter("id", itemId)
+                .executeUpdate();
+    }
+
+    public int increaseItemStock(Long itemId, int quantity){
+        return em.createQuery("update Item i" +
+                        " set i.stockQuantity = i.stockQuantity + :quantity, i.version = i.version + 1" +
+                        " where i.id = :id and i.stockShards = 0")
+                .setParameter("quantity", quantity)
+                .setParameter("id", itemId)
+                .executeUpdate();
+    }
+
+    //item 행을 잠그고 (재고, shard 수)를 읽음. 상품이 없으면 null
+    public int[] lockItemStock(Long itemId){
+        List<int[]> result = jdbcTemplate.query("select stock_quantity, stock_shards from item where item_id = ? for update",
+                (rs, rowNum) -> new int[]{rs.getInt(1), rs.getInt(2)}, itemId);
+        return result.isEmpty() ? null : result.get(0);
+    }
+
+    //shard 수와 재고를 같이 바꿈. shards = 0 이면 인기 상품 해제
+    public int updateItemShards(Long itemId, int shards, int stockQuantity){
+        return em.createQuery("update Item i" +
+                        " set i.stockShards = :shards, i.stockQuantity = :stockQuantity, i.version = i.version + 1" +
+                        " where i.id = :id")
+                .setParameter("shards", shards)
+                .setParameter("stockQuantity", stockQuantity)
+                .setParameter("id", itemId)
+                .executeUpdate();
+    }
+
+    //item.stock_quantity를 shard 합계로 옮겨 적음(write-back). 합계가 다른 상품만 update
+    public int writeBack(){
+        return em.createQuery("update Item i" +
+                        " set i.stockQuantity = (select sum(s.quantity) from ItemStockShard s where s.id.itemId = i.id)," +
+                        " i.version = i.version + 1" +
+                        " where i.stockShards > 0" +
+                        " and i.stockQuantity <> (select sum(s.quantity) from ItemStockShard s where s.id.itemId = i.id)")
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,13 @@
+package jpabook.jpashop.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+//회원 목록 조회용(id, 이름만 조회). id는 키셋 페이징 커서로 사용
+@Data
+@AllArgsConstructor
+public class MemberNameDTO {
+
+    private Long id;
+    private String name;
+}
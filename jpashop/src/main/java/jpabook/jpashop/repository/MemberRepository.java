@@ -2,11 +2,16 @@ package jpabook.jpashop.repository;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
 import jpabook.jpashop.domain.Member;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Repository
 @RequiredArgsConstructor
@@ -45,4 +50,59 @@ public class MemberRepository {
                 .setParameter("name", name)
                 .getResultList();
     }
+
+    //같은 이름의 회원이 있는지. 엔티티를 만들지 않고 유니크 인덱스에서 id 1건만 확인
+    public boolean existsByName(String name){
+        return !em.createQuery("select m.id from Member m where m.name = :name", Long.class)
+                .setParameter("name", name)
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty();
+    }
+
+    public long count(){
+        return em.createQuery("select count(m) from Member m", Long.class)
+                .getSingleResult();
+    }
+
+    //insert/update를 바로 실행해서 제약조건 위반을 커밋 전에 확인
+    public void flush(){
+        em.flush();
+    }
+
+    //회원 여러명 한번에 조회(in 절)
+    public List<Member> findAllById(Collection<Long> ids){
+        return em.createQuery("select m from Member m where m.id in :ids", Member.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    /*
+        회원 목록 DTO 조회(키셋 페이징)
+         - 엔티티 대신 필요한 컬럼(id, name)만 조회하므로 Address, orders 프록시를 만들지 않고 스냅샷(변경 감지용)도 남지 않는다.
+         - afterId 다음 회원부터 limit명. PK 순서이므로 페이지가 깊어져도 인덱스에서 바로 시작 위치를 찾음
+     */
+    public List<MemberNameDTO> findNames(Long afterId, int limit){
+        String jpql = "select new jpabook.jpashop.repository.MemberNameDTO(m.id, m.name) from Member m";
+        if (afterId != null) {
+            jpql += " where m.id > :afterId";
+        }
+        TypedQuery<MemberNameDTO> query = em.createQuery(jpql + " order by m.id", MemberNameDTO.class)
+                .setMaxResults(limit);
+        if (afterId != null) {
+            query.setParameter("afterId", afterId);
+        }
+        return query.getResultList();
+    }
+
+    //회원 전체를 fetchSize 단위로 읽으면서 하나씩 넘겨줌. DTO는 영속성 컨텍스트에 쌓이지 않으므로 clear가 필요없음
+    public void streamNames(int fetchSize, Consumer<MemberNameDTO> consumer){
+        try (Stream<MemberNameDTO> stream = em.createQuery(
+                        "select new jpabook.jpashop.repository.MemberNameDTO(m.id, m.name) from Member m" +
+                                " order by m.id", MemberNameDTO.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream()) {
+            stream.forEach(consumer);
+        }
+    }
 }
@@ -0,0 +1,42 @@
+package jpabook.jpashop.repository;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/*
+    키셋(seek) 페이징용 커서
+     - 마지막으로 조회한 주문의 (orderDate, order_id)를 기억해두고 다음 페이지는 그 이후부터 조회
+     - offset 방식은 앞 페이지의 row를 모두 읽고 버리지만, 커서 방식은 인덱스에서 바로 시작 위치를 찾으므로 페이지가 깊어져도 속도가 일정함
+     - 클라이언트에는 내부 구조를 숨기기 위해 Base64로 인코딩한 토큰으로 전달
+ */
+@Getter
+public class OrderCursor {
+
+    private final LocalDateTime orderDate;
+    private final Long orderId;
+
+    public OrderCursor(LocalDateTime orderDate, Long orderId) {
+        this.orderDate = orderDate;
+        this.orderId = orderId;
+    }
+
+    public String encode() {
+        String raw = orderDate + "|" + orderId;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static OrderCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int idx = raw.lastIndexOf('|');
+            return new OrderCursor(LocalDateTime.parse(raw.substring(0, idx)),
+                    Long.valueOf(raw.substring(idx + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("잘못된 커서입니다.", e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package jpabook.jpashop.repository;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.domain.OrderEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/*
+    주문 이벤트 outbox
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderEventRepository {
+
+    private final EntityManager em;
+
+    public void save(OrderEvent event){
+        em.persist(event);
+    }
+
+    //아직 조회 모델에 반영하지 않은 이벤트. 오래된 것부터. 미뤄둔 이벤트는 retryAt이 지나야 다시 나옴
+    public List<OrderEvent> findPending(int limit, LocalDateTime now){
+        return em.createQuery("select e from OrderEvent e" +
+                        " where e.projectedAt is null and e.failedAt is null" +
+                        " and (e.retryAt is null or e.retryAt <= :now)" +
+                        " order by e.id", OrderEvent.class)
+                .setParameter("now", now)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    //지금은 반영할 수 없는 이벤트를 retryAt까지 미룸
+    public int defer(Collection<Long> eventIds, LocalDateTime retryAt){
+        return em.createQuery("update OrderEvent e set e.attempts = e.attempts + 1, e.retryAt = :retryAt" +
+                        " where e.id in :ids and e.projectedAt is null")
+                .setParameter("retryAt", retryAt)
+                .setParameter("ids", eventIds)
+                .executeUpdate();
+    }
+
+    //maxAttempts 번 미뤄도 반영하지 못한 이벤트는 dead letter로
+    public int markFailed(Collection<Long> eventIds, int maxAttempts, LocalDateTime failedAt){
+        return em.createQuery("update OrderEvent e set e.failedAt = :failedAt" +
+                        " where e.id in :ids and e.projectedAt is null and e.failedAt is null and e.attempts >= :maxAttempts")
+                .setParameter("failedAt", failedAt)
+                .setParameter("ids", eventIds)
+                .setParameter("maxAttempts", maxAttempts)
+                .executeUpdate();
+    }
+
+    //아직 반영되지 않은 이벤트만 표시하므로 반환값이 eventIds 크기보다 작으면 다른 프로젝터가 먼저 가져간 것
+    public int markProjected(Collection<Long> eventIds, LocalDateTime projectedAt){
+        return em.createQuery("update OrderEvent e set e.projectedAt = :projectedAt" +
+                        " where e.id in :ids and e.projectedAt is null")
+                .setParameter("projectedAt", projectedAt)
+                .setParameter("ids", eventIds)
+                .executeUpdate();
+    }
+
+    public long countPending(){
+        return em.createQuery("select count(e) from OrderEvent e where e.projectedAt is null and e.failedAt is null", Long.class)
+                .getSingleResult();
+    }
+
+    public long countFailed(){
+        return em.createQuery("select count(e) from OrderEvent e where e.failedAt is not null", Long.class)
+                .getSingleResult();
+    }
+
+    //가장 오래된 미반영 이벤트 발생 시각. 없으면 null
+    public LocalDateTime findOldestPending(){
+        return em.createQuery("select min(e.occurredAt) from OrderEvent e where e.projectedAt is null and e.failedAt is null", LocalDateTime.class)
+                .getSingleResult();
+    }
+
+    //전체 재반영(rebuild)용. 모든 이벤트를 미반영 상태로(dead letter 포함)
+    public int resetProjected(){
+        return em.createQuery("update OrderEvent e set e.projectedAt = null, e.attempts = 0, e.retryAt = null, e.failedAt = null")
+                .executeUpdate();
+    }
+}
@@ -1,11 +1,22 @@
 package jpabook.jpashop.repository;
 
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
 import jpabook.jpashop.domain.Order;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
+import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Repository
 @RequiredArgsConstructor
@@ -17,22 +28,160 @@ public class OrderRepository {
     public void save(Order order){
         em.persist(order);
     }
+
+    /*
+        대량 주문 저장. persist 후 바로 flush, clear
+         - hibernate.jdbc.batch_size, order_inserts 설정으로 주문/배송/주문상품 insert가 타입별로 묶여서 배치 실행됨
+         - clear 했으므로 호출한 쪽에서 들고 있던 엔티티는 준영속 상태가 됨
+     */
+    public void saveAll(List<Order> orders){
+        for (Order order : orders) {
+            em.persist(order);
+        }
+        em.flush();
+        em.clear();
+    }
     //특정 주문 조회
     public Order findOne(Long id){
         return em.find(Order.class, id);
     }
 
-    // 검색 기능. 일단 보류
+    /*
+        검색: 값이 들어온 조건만 where에 추가(동적 쿼리)
+         - 회원명은 앞부분 일치(like 'kim%')로 검색해서 member.name 인덱스를 탈 수 있게 함
+         - 조건이 없으면 조인 없이 주문만 조회
+     */
     public List<Order> findAll(OrderSearch orderSearch){
+        boolean joinMember = StringUtils.hasText(orderSearch.getMemberName());
+        String jpql = "select o from Order o" +
+                (joinMember ? " join o.member m" : "") +
+                whereClause(orderSearch);
 
-        return em.createQuery("select o from Order o join o.member m" +
-                " where o.status = :status" +
-                " and m.name like :name", Order.class)
-                .setParameter("status",orderSearch.getOrderStatus())
-                .setParameter("name",orderSearch.getMemberName())
-                //.setFirstResult(100) 페이징처리/ 100부터 1000까지 가져온다는 뜻
-                .setMaxResults(1000) // 최대 1000개
-                .getResultList();
+        TypedQuery<Order> query = em.createQuery(jpql, Order.class)
+                .setMaxResults(1000); // 최대 1000개
+        bindSearchParameters(query, orderSearch);
+        return query.getResultList();
+    }
+
+    /*
+        검색 + 페이징, 정렬
+         - 회원은 ToOne이므로 fetch join해도 페이징에 영향 없음
+         - 전체 개수는 별도의 count 쿼리로 조회(회원명 조건이 없으면 member 조인도 안함)
+         - 정렬은 허용된 필드만(SORT_PROPERTIES), 기본은 최신 주문순
+     */
+    public Page<Order> findAll(OrderSearch orderSearch, Pageable pageable){
+        String where = whereClause(orderSearch);
+
+        TypedQuery<Order> contentQuery = em.createQuery(
+                "select o from Order o" +
+                        " join fetch o.member m" +
+                        where +
+                        orderByClause(pageable.getSort()), Order.class)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize());
+        bindSearchParameters(contentQuery, orderSearch);
+        List<Order> content = contentQuery.getResultList();
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(orderSearch, where));
+    }
+
+    /*
+        주문 목록 화면용 스트리밍: 검색 + 페이징 결과를 DTO로 한 row씩 consumer에 넘겨줌
+         - 대표상품은 주문상품 id가 가장 작은 것. 주문당 한 row. 주문상품이 없는 주문도 빠지지 않도록 left join
+         - 엔티티를 만들지 않으므로 지연 로딩(OSIV)이 필요 없고 영속성 컨텍스트에 쌓이지 않음
+         - 스트림을 읽는 동안 커넥션이 열려 있어야 하므로 트랜잭션 안에서 호출
+         - offset, limit을 직접 받음(다음 페이지가 있는지 보려고 페이지 크기보다 1건 더 읽는 경우)
+     */
+    public void streamRows(OrderSearch orderSearch, long offset, int limit, Sort sort, int fetchSize, Consumer<OrderRowDTO> consumer){
+        String where = whereClause(orderSearch);
+        TypedQuery<OrderRowDTO> query = em.createQuery(
+                "select new jpabook.jpashop.repository.OrderRowDTO" +
+                        "(o.id, m.name, i.name, oi.orderPrice, oi.count, o.status, o.orderDate)" +
+                        " from Order o" +
+                        " join o.member m" +
+                        " left join o.orderItems oi" +
+                        " left join oi.item i" +
+                        (where.isEmpty() ? " where " : where + " and ") +
+                        "(oi.id is null or oi.id = (select min(oi2.id) from OrderItem oi2 where oi2.order = o))" +
+                        orderByClause(sort), OrderRowDTO.class)
+                .setFirstResult(Math.toIntExact(offset))
+                .setMaxResults(limit)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize);
+        bindSearchParameters(query, orderSearch);
+        try (Stream<OrderRowDTO> stream = query.getResultStream()) {
+            stream.forEach(consumer);
+        }
+    }
+
+    //검색 조건에 맞는 주문 수
+    public long count(OrderSearch orderSearch){
+        return count(orderSearch, whereClause(orderSearch));
+    }
+
+    private long count(OrderSearch orderSearch, String where) {
+        boolean joinMember = StringUtils.hasText(orderSearch.getMemberName());
+        TypedQuery<Long> countQuery = em.createQuery(
+                "select count(o) from Order o" +
+                        (joinMember ? " join o.member m" : "") +
+                        where, Long.class);
+        bindSearchParameters(countQuery, orderSearch);
+        return countQuery.getSingleResult();
+    }
+
+    private static final Map<String, String> SORT_PROPERTIES = Map.of(
+            "id", "o.id",
+            "orderDate", "o.orderDate",
+            "status", "o.status",
+            "memberName", "m.name");
+
+    //허용된 정렬 필드만 남김(화면의 페이지 이동 링크 등에 그대로 다시 넘길 수 있게)
+    public static Sort sortable(Sort sort) {
+        return Sort.by(sort.stream()
+                .filter(order -> SORT_PROPERTIES.containsKey(order.getProperty()))
+                .toList());
+    }
+
+    private String whereClause(OrderSearch orderSearch) {
+        List<String> conditions = new ArrayList<>();
+        if (orderSearch.getOrderStatus() != null) {
+            conditions.add("o.status = :status");
+        }
+        if (StringUtils.hasText(orderSearch.getMemberName())) {
+            conditions.add("m.name like :name escape '\\'");
+        }
+        return conditions.isEmpty() ? "" : " where " + String.join(" and ", conditions);
+    }
+
+    private void bindSearchParameters(TypedQuery<?> query, OrderSearch orderSearch) {
+        if (orderSearch.getOrderStatus() != null) {
+            query.setParameter("status", orderSearch.getOrderStatus());
+        }
+        if (StringUtils.hasText(orderSearch.getMemberName())) {
+            //검색어에 들어있는 %, _는 와일드카드가 아닌 문자로 취급
+            String name = orderSearch.getMemberName()
+                    .replace("\\", "\\\\")
+                    .replace("%", "\\%")
+                    .replace("_", "\\_");
+            query.setParameter("name", name + "%");
+        }
+    }
+
+    private String orderByClause(Sort sort) {
+        List<String> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            String path = SORT_PROPERTIES.get(order.getProperty());
+            if (path != null) {
+                orders.add(path + (order.isAscending() ? " asc" : " desc"));
+            }
+        }
+        if (orders.isEmpty()) {
+            return " order by o.id desc";
+        }
+        //정렬 값이 같을때 페이지마다 순서가 바뀌지 않도록 id를 마지막 정렬 기준으로 추가
+        if (sort.getOrderFor("id") == null) {
+            orders.add("o.id desc");
+        }
+        return " order by " + String.join(", ", orders);
     }
 
     public List<Order> findAllWithMemberDelivery() {
@@ -64,4 +213,28 @@ public class OrderRepository {
                 .setMaxResults(limit)
                 .getResultList();
     }
+
+    /*
+        키셋 페이징: (orderDate, order_id) 순서로 정렬하고 커서 이후의 주문만 limit개 조회
+         - cursor가 null이면 첫 페이지
+         - orders(order_date, order_id) 인덱스를 타므로 페이지 깊이와 상관없이 일정한 속도
+     */
+    public List<Order> findAllWithMemberDelivery(OrderCursor cursor, int limit) {
+        String jpql = "select o from Order o" +
+                " join fetch o.member m" +
+                " join fetch o.delivery d";
+        if (cursor != null) {
+            jpql += " where o.orderDate > :orderDate" +
+                    " or (o.orderDate = :orderDate and o.id > :orderId)";
+        }
+        jpql += " order by o.orderDate, o.id";
+
+        TypedQuery<Order> query = em.createQuery(jpql, Order.class)
+                .setMaxResults(limit);
+        if (cursor != null) {
+            query.setParameter("orderDate", cursor.getOrderDate())
+                    .setParameter("orderId", cursor.getOrderId());
+        }
+        return query.getResultList();
+    }
 }
\ No newline at end of file
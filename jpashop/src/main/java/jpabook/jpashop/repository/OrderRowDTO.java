@@ -0,0 +1,22 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+//주문 목록 화면 한 줄(주문 + 회원명 + 대표상품). 화면에 보이는 값이 전부 들어있으므로 렌더링한 행 캐시의 키로도 사용
+@Data
+@AllArgsConstructor
+public class OrderRowDTO {
+
+    private Long orderId;
+    private String memberName;
+    //대표상품(첫번째 주문상품). 주문상품이 없는 주문이면 null
+    private String itemName;
+    private Integer orderPrice;
+    private Integer count;
+    private OrderStatus status;
+    private LocalDateTime orderDate;
+}
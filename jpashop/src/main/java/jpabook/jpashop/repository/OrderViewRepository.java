@@ -0,0 +1,50 @@
+package jpabook.jpashop.repository;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.domain.OrderEventType;
+import jpabook.jpashop.domain.OrderItemView;
+import jpabook.jpashop.domain.OrderView;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/*
+    주문 조회 모델(OrderView, OrderItemView) 저장. 조회는 OrderSimpleQueryRepository, OrderQueryRepository
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderViewRepository {
+
+    private final EntityManager em;
+
+    public void save(OrderView orderView){
+        em.persist(orderView);
+    }
+
+    public void save(OrderItemView orderItemView){
+        em.persist(orderItemView);
+    }
+
+    public List<OrderView> findAllById(Collection<Long> orderIds){
+        return em.createQuery("select v from OrderView v where v.id in :ids", OrderView.class)
+                .setParameter("ids", orderIds)
+                .getResultList();
+    }
+
+    /*
+        rebuild용. PLACED 이벤트가 있는 주문의 조회 모델만 삭제
+         - seed 데이터(DataSeeder)처럼 이벤트 없이 만든 조회 모델은 replay로 다시 만들 수 없으므로 남겨둠
+     */
+    public void deleteReplayable(){
+        em.createQuery("delete from OrderItemView v where v.orderId in" +
+                        " (select e.orderId from OrderEvent e where e.type = :placed)")
+                .setParameter("placed", OrderEventType.PLACED)
+                .executeUpdate();
+        em.createQuery("delete from OrderView v where v.id in" +
+                        " (select e.orderId from OrderEvent e where e.type = :placed)")
+                .setParameter("placed", OrderEventType.PLACED)
+                .executeUpdate();
+    }
+}
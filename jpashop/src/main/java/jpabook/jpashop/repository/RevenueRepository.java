@@ -0,0 +1,51 @@
+package jpabook.jpashop.repository;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/*
+    일별 매출 집계(DailyRevenue) 저장/조회
+     - 쓰기는 JdbcTemplate. JPA 트랜잭션과 같은 커넥션을 쓰므로 주문과 같이 커밋/롤백됨
+     - (일자, 상태, 상품) 행이 있으면 더하고 없으면 만드는 것을 merge 문 하나로 처리(upsert)
+       update -> insert로 나누면 처음 insert가 동시에 일어날 때 중복키로 실패하고, PostgreSQL 등은 그 트랜잭션 전체가 abort됨
+       별도 트랜잭션으로 insert하면 주문 트랜잭션의 커넥션을 잡은 채 커넥션을 하나 더 빌려야 해서 풀이 바닥날 수 있음
+ */
+@Repository
+@RequiredArgsConstructor
+public class RevenueRepository {
+
+    private final EntityManager em;
+    private final JdbcTemplate jdbcTemplate;
+
+    //(일자, 상태, 상품) 집계에 금액, 수량을 더함. 빼려면 음수로
+    public void add(LocalDate date, OrderStatus status, Long itemId, long amount, long quantity){
+        jdbcTemplate.update("merge into daily_revenue r" +
+                " using (select cast(? as date) revenue_date, cast(? as varchar(10)) status, cast(? as bigint) item_id," +
+                " cast(? as bigint) amount, cast(? as bigint) quantity) v" +
+                " on r.revenue_date = v.revenue_date and r.status = v.status and r.item_id = v.item_id" +
+                " when matched then update set amount = r.amount + v.amount, quantity = r.quantity + v.quantity" +
+                " when not matched then insert (revenue_date, status, item_id, amount, quantity)" +
+                " values (v.revenue_date, v.status, v.item_id, v.amount, v.quantity)",
+                date, status.name(), itemId, amount, quantity);
+    }
+
+    //기간(from ~ to, 양끝 포함) 일자별 매출. 매출이 없는 날은 빠짐
+    public List<DailyRevenueDTO> findDaily(LocalDate from, LocalDate to, OrderStatus status){
+        return em.createQuery("select new jpabook.jpashop.repository.DailyRevenueDTO" +
+                        "(r.id.date, sum(r.amount), sum(r.quantity))" +
+                        " from DailyRevenue r" +
+                        " where r.id.date between :from and :to and r.id.status = :status" +
+                        " group by r.id.date" +
+                        " order by r.id.date", DailyRevenueDTO.class)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .setParameter("status", status)
+                .getResultList();
+    }
+}
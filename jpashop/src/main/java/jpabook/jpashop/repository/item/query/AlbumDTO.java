@@ -0,0 +1,17 @@
+package jpabook.jpashop.repository.item.query;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+//앨범 목록. Album 컬럼만 조회(Book, Movie 컬럼 제외)
+@Data
+@AllArgsConstructor
+public class AlbumDTO {
+
+    private Long id;
+    private String name;
+    private int price;
+    private int stockQuantity;
+    private String artist;
+    private String etc;
+}
@@ -0,0 +1,17 @@
+package jpabook.jpashop.repository.item.query;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+//도서 목록. Book 컬럼만 조회(Album, Movie 컬럼 제외)
+@Data
+@AllArgsConstructor
+public class BookDTO {
+
+    private Long id;
+    private String name;
+    private int price;
+    private int stockQuantity;
+    private String author;
+    private String isbn;
+}
@@ -0,0 +1,57 @@
+package jpabook.jpashop.repository.item.query;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/*
+    상품 목록 조회(DTO)
+     - Item은 SINGLE_TABLE 이라 엔티티로 조회하면 Book/Album/Movie 컬럼을 전부 읽고 종류별 엔티티를 만듦
+     - 종류별 조회: from Book b 는 hibernate가 where dtype = 'B' 를 붙여주므로 idx_item_dtype(dtype, item_id) range 스캔.
+       그 종류의 컬럼만 select
+        - 정렬은 dtype, id. id로만 정렬하면 H2는 인덱스 순서를 못 쓰고 그 종류 전체(상품 100만개면 60만건)를 읽어서 정렬함
+        - type(i)로 정렬하면 hibernate가 'B' 상수로 바꿔버려서 Item.dtype(읽기 전용 매핑)으로 정렬
+     - 전체 조회: 공통 컬럼 + 상품 종류(type(i))만 select
+     - 모두 id 키셋 페이징. afterId가 null이면 처음부터, 다음 페이지는 마지막 id를 afterId로 넘김
+ */
+@Repository
+@RequiredArgsConstructor
+public class ItemQueryRepository {
+
+    private final EntityManager em;
+
+    public List<ItemSummaryDTO> findSummaries(Long afterId, int limit) {
+        return page("select new jpabook.jpashop.repository.item.query.ItemSummaryDTO(i.id, type(i), i.name, i.price, i.stockQuantity)" +
+                " from Item i", ItemSummaryDTO.class, afterId, limit, "i.id");
+    }
+
+    public List<BookDTO> findBooks(Long afterId, int limit) {
+        return page("select new jpabook.jpashop.repository.item.query.BookDTO(i.id, i.name, i.price, i.stockQuantity, i.author, i.isbn)" +
+                " from Book i", BookDTO.class, afterId, limit, "i.dtype, i.id");
+    }
+
+    public List<AlbumDTO> findAlbums(Long afterId, int limit) {
+        return page("select new jpabook.jpashop.repository.item.query.AlbumDTO(i.id, i.name, i.price, i.stockQuantity, i.artist, i.etc)" +
+                " from Album i", AlbumDTO.class, afterId, limit, "i.dtype, i.id");
+    }
+
+    public List<MovieDTO> findMovies(Long afterId, int limit) {
+        return page("select new jpabook.jpashop.repository.item.query.MovieDTO(i.id, i.name, i.price, i.stockQuantity, i.director, i.actor)" +
+                " from Movie i", MovieDTO.class, afterId, limit, "i.dtype, i.id");
+    }
+
+    private <T> List<T> page(String jpql, Class<T> type, Long afterId, int limit, String orderBy) {
+        if (afterId != null) {
+            jpql += " where i.id > :afterId";
+        }
+        TypedQuery<T> query = em.createQuery(jpql + " order by " + orderBy, type)
+                .setMaxResults(limit);
+        if (afterId != null) {
+            query.setParameter("afterId", afterId);
+        }
+        return query.getResultList();
+    }
+}
@@ -0,0 +1,23 @@
+package jpabook.jpashop.repository.item.query;
+
+import lombok.Data;
+
+//상품 목록(종류 상관없이). 공통 컬럼 + 상품 종류만 조회
+@Data
+public class ItemSummaryDTO {
+
+    private Long id;
+    private String type; //Book, Album, Movie
+    private String name;
+    private int price;
+    private int stockQuantity;
+
+    //type(i)는 hibernate가 dtype으로 엔티티 클래스를 돌려줌
+    public ItemSummaryDTO(Long id, Class<?> type, String name, int price, int stockQuantity) {
+        this.id = id;
+        this.type = type.getSimpleName();
+        this.name = name;
+        this.price = price;
+        this.stockQuantity = stockQuantity;
+    }
+}
@@ -0,0 +1,17 @@
+package jpabook.jpashop.repository.item.query;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+//영화 목록. Movie 컬럼만 조회(Book, Album 컬럼 제외)
+@Data
+@AllArgsConstructor
+public class MovieDTO {
+
+    private Long id;
+    private String name;
+    private int price;
+    private int stockQuantity;
+    private String director;
+    private String actor;
+}
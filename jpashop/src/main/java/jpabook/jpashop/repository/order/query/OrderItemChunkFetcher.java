@@ -0,0 +1,131 @@
+package jpabook.jpashop.repository.order.query;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.monitor.SqlStatistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+    V5의 orderItems 조회를 orderId 청크 단위로 나눠서 병렬 조회
+     - in 절에 주문 id를 전부 넣으면 파라미터 수가 DB 한도를 넘거나 statement cache를 못 씀
+     - chunkSize 만큼씩 잘라서 조회하고, 청크마다 별도 스레드에서 읽기 전용 트랜잭션(= 별도 커넥션)으로 실행
+     - 청크 조회 스레드는 커넥션을 하나씩 잡으므로 parallelism은 커넥션 풀 크기의 절반을 넘지 않게 줄임(나머지는 요청 스레드 몫)
+     - 호출한 쪽은 커넥션을 잡지 않은 상태로 부름(OrderQueryRepository.findAllByDTO_chunked)
+       이미 트랜잭션 안(= 커넥션을 잡은 상태)이면 청크 스레드가 풀을 기다리다 막히지 않도록 그 트랜잭션에서 청크를 차례로 조회
+     - 청크 조회 전체에 timeout-millis 제한. 넘으면 남은 청크를 취소하고 QueryTimeoutException
+       청크 트랜잭션에도 같은 timeout을 걸어 DB에서 실행 중인 쿼리도 JDBC query timeout으로 멈춤
+     - 별도 트랜잭션이므로 호출한 쪽 트랜잭션에서 아직 커밋되지 않은 데이터는 보이지 않음
+ */
+@Component
+public class OrderItemChunkFetcher {
+
+    private final EntityManager em;
+    private final TransactionTemplate readOnlyTx;
+    private final ExecutorService executor;
+    private final int chunkSize;
+    private final long timeoutMillis;
+
+    public OrderItemChunkFetcher(EntityManager em,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${jpashop.order-query.chunk-size:1000}") int chunkSize,
+                                 @Value("${jpashop.order-query.parallelism:4}") int parallelism,
+                                 @Value("${jpashop.order-query.timeout-millis:10000}") long timeoutMillis,
+                                 @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize) {
+        this.em = em;
+        this.chunkSize = chunkSize;
+        this.timeoutMillis = timeoutMillis;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.readOnlyTx.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(timeoutMillis + 999)));
+
+        parallelism = Math.max(1, Math.min(parallelism, poolSize / 2));
+
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "order-item-fetch-" + seq.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    //orderId -> 주문상품 목록
+    public Map<Long, List<OrderItemQueryDTO>> fetchGroupedByOrderId(List<Long> orderIds) {
+        //결과 맵은 주문 수에 맞춰 미리 크기를 잡아서 rehash가 일어나지 않게 함
+        Map<Long, List<OrderItemQueryDTO>> result = new HashMap<>((int) (orderIds.size() / 0.75f) + 1);
+
+        //청크가 하나거나 이미 트랜잭션 안이면 스레드를 넘기지 않고 바로 조회
+        if (orderIds.size() <= chunkSize || TransactionSynchronizationManager.isActualTransactionActive()) {
+            for (int from = 0; from < orderIds.size(); from += chunkSize) {
+                List<Long> chunk = orderIds.subList(from, Math.min(from + chunkSize, orderIds.size()));
+                merge(result, readOnlyTx.execute(status -> findOrderItems(chunk)));
+            }
+            return result;
+        }
+
+        List<CompletableFuture<List<OrderItemQueryDTO>>> futures = new ArrayList<>();
+        for (int from = 0; from < orderIds.size(); from += chunkSize) {
+            List<Long> chunk = orderIds.subList(from, Math.min(from + chunkSize, orderIds.size()));
+            //청크 스레드에서 실행한 SQL도 요청의 SQL 통계(SqlStatistics)에 집계
+            futures.add(CompletableFuture.supplyAsync(SqlStatistics.propagate(
+                    () -> readOnlyTx.execute(status -> findOrderItems(chunk))), executor));
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        try {
+            for (CompletableFuture<List<OrderItemQueryDTO>> future : futures) {
+                merge(result, future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            }
+        } catch (TimeoutException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new QueryTimeoutException("주문상품 청크 조회가 " + timeoutMillis + "ms 안에 끝나지 않았습니다.", e);
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("주문상품 청크 조회 중 인터럽트", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return result;
+    }
+
+    private List<OrderItemQueryDTO> findOrderItems(List<Long> orderIds) {
+        return em.createQuery(
+                        "select new jpabook.jpashop.repository.order.query.OrderItemQueryDTO(oi.order.id, i.name, oi.orderPrice, oi.count)" +
+                                " from OrderItem oi" +
+                                " join oi.item i" +
+                                " where oi.order.id in :orderIds", OrderItemQueryDTO.class)
+                .setParameter("orderIds", orderIds)
+                .getResultList();
+    }
+
+    private void merge(Map<Long, List<OrderItemQueryDTO>> result, List<OrderItemQueryDTO> orderItems) {
+        for (OrderItemQueryDTO orderItem : orderItems) {
+            result.computeIfAbsent(orderItem.getOrderId(), id -> new ArrayList<>()).add(orderItem);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -1,18 +1,33 @@
 package jpabook.jpashop.repository.order.query;
 
 import jakarta.persistence.EntityManager;
-import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Repository
-@RequiredArgsConstructor
 public class OrderQueryRepository {
 
     private final EntityManager em;
+    private final OrderItemChunkFetcher orderItemChunkFetcher;
+    private final TransactionTemplate readOnlyTx;
+
+    public OrderQueryRepository(EntityManager em,
+                                OrderItemChunkFetcher orderItemChunkFetcher,
+                                PlatformTransactionManager transactionManager) {
+        this.em = em;
+        this.orderItemChunkFetcher = orderItemChunkFetcher;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
 
     public List<OrderQueryDTO> findOrderQueryDTOs(){
         List<OrderQueryDTO> result = findOrders();
@@ -45,6 +60,26 @@ public class OrderQueryRepository {
 
         return result;
     }
+    /*
+        V5.1: V5와 같지만 orderItems를 orderId 청크 단위로 나눠서 병렬로 조회
+         - 주문이 수만 건이어도 in 절 크기가 chunk-size로 제한됨
+         - 주문은 짧은 읽기 전용 트랜잭션으로 읽음. OSIV 영속성 컨텍스트에서 트랜잭션 없이 읽으면 요청이 끝날 때까지
+           커넥션을 잡고 있어서, 청크 스레드가 커넥션을 더 빌리는 동안 요청마다 커넥션을 하나씩 더 쓰게 됨
+           트랜잭션이 끝나면 커넥션을 반납하므로 청크 조회 동안 요청 스레드는 커넥션을 잡고 있지 않음
+     */
+    public List<OrderQueryDTO> findAllByDTO_chunked() {
+        List<OrderQueryDTO> result = readOnlyTx.execute(status -> findOrders());
+
+        List<Long> orderIds = result.stream()
+                .map(o -> o.getOrderId())
+                .collect(Collectors.toList());
+
+        Map<Long, List<OrderItemQueryDTO>> orderItemMap = orderItemChunkFetcher.fetchGroupedByOrderId(orderIds);
+
+        result.forEach(o -> o.setOrderItems(orderItemMap.get(o.getOrderId())));
+
+        return result;
+    }
     private List<OrderItemQueryDTO> findOrderItems(Long orderId) {
         return em.createQuery(
                 "select new jpabook.jpashop.repository.order.query.OrderItemQueryDTO(oi.order.id, i.name, oi.orderPrice, oi.count)" +
@@ -64,6 +99,36 @@ public class OrderQueryRepository {
                 .getResultList();
     }
 
+    /*
+        V7: 주문 조회 모델(OrderView, OrderItemView)에서 조회. 쿼리 2번, 조인 없음
+         - 구조는 V5와 같지만 회원명, 배송지, 상품명을 조회 모델에 복사해 두었으므로 조인이 필요 없음
+     */
+    public List<OrderQueryDTO> findAllByView() {
+        List<OrderQueryDTO> result = em.createQuery(
+                "select new jpabook.jpashop.repository.order.query.OrderQueryDTO(v.id, v.memberName, v.orderDate, v.status, v.address)" +
+                        " from OrderView v", OrderQueryDTO.class)
+                .getResultList();
+        if (result.isEmpty()) {
+            return result;
+        }
+
+        List<Long> orderIds = result.stream()
+                .map(o -> o.getOrderId())
+                .collect(Collectors.toList());
+
+        Map<Long, List<OrderItemQueryDTO>> orderItemMap = em.createQuery(
+                        "select new jpabook.jpashop.repository.order.query.OrderItemQueryDTO(v.orderId, v.itemName, v.orderPrice, v.count)" +
+                                " from OrderItemView v" +
+                                " where v.orderId in :orderIds", OrderItemQueryDTO.class)
+                .setParameter("orderIds", orderIds)
+                .getResultList().stream()
+                .collect(Collectors.groupingBy(OrderItemQueryDTO::getOrderId));
+
+        result.forEach(o -> o.setOrderItems(orderItemMap.get(o.getOrderId())));
+
+        return result;
+    }
+
     public List<OrderFlatDTO> findAllByDTO_flat() {
         return em.createQuery(
                 "select new jpabook.jpashop.repository.order.query.OrderFlatDTO" +
@@ -75,4 +140,29 @@ public class OrderQueryRepository {
                         " join oi.item i", OrderFlatDTO.class)
                 .getResultList();
     }
+
+    /*
+        V6 스트리밍: 결과를 List로 모으지 않고 한 row씩 consumer에 넘겨줌
+         - getResultStream()은 내부적으로 ScrollableResults(forward-only)를 사용
+         - fetchSize만큼씩 DB에서 끊어서 가져오므로 전체 주문 수와 상관없이 메모리 사용량이 일정함
+         - 스트림을 읽는 동안 커넥션이 열려 있어야 하므로 트랜잭션 안에서 실행
+         - DTO는 영속성 컨텍스트에 쌓이지 않으므로 clear가 필요없음
+     */
+    @Transactional(readOnly = true)
+    public void streamAllByDTO_flat(int fetchSize, Consumer<OrderFlatDTO> consumer) {
+        try (Stream<OrderFlatDTO> stream = em.createQuery(
+                "select new jpabook.jpashop.repository.order.query.OrderFlatDTO" +
+                        " (o.id, m.name, o.orderDate, o.status, d.address, i.name, oi.orderPrice, oi.count)" +
+                        " from Order o" +
+                        " join o.member m" +
+                        " join o.delivery d" +
+                        " join o.orderItems oi" +
+                        " join oi.item i" +
+                        " order by o.id", OrderFlatDTO.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+            stream.forEach(consumer);
+        }
+    }
 }
@@ -14,13 +14,17 @@ public class OrderSimpleQueryDTO {
         private LocalDateTime orderDate;
         private OrderStatus orderStatus;
         private Address address;
+        private int totalPrice;
+        private int itemCount;
 
         public OrderSimpleQueryDTO(Long orderId, String name, LocalDateTime
-            orderDate, OrderStatus orderStatus, Address address) {
+            orderDate, OrderStatus orderStatus, Address address, int totalPrice, int itemCount) {
         this.orderId = orderId;
         this.name = name;
         this.orderDate = orderDate;
         this.orderStatus = orderStatus;
         this.address = address;
+        this.totalPrice = totalPrice;
+        this.itemCount = itemCount;
     }
 }
@@ -15,8 +15,17 @@ public class OrderSimpleQueryRepository {
     public List<OrderSimpleQueryDTO> findOrderDTOs(){
         return em.createQuery(
                         "select new jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDTO" +
-                                "(o.id, m.name, o.orderDate, o.status, d.address)" +
+                                "(o.id, m.name, o.orderDate, o.status, d.address, o.totalPrice, o.itemCount)" +
                                 " from Order o" + " join o.member m" + " join o.delivery d", OrderSimpleQueryDTO.class)
                 .getResultList();
     }
+
+    //주문 조회 모델(OrderView) 한 테이블만 조회. member, delivery 조인 없음
+    public List<OrderSimpleQueryDTO> findOrderViewDTOs(){
+        return em.createQuery(
+                        "select new jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDTO" +
+                                "(v.id, v.memberName, v.orderDate, v.status, v.address, v.totalPrice, v.itemCount)" +
+                                " from OrderView v", OrderSimpleQueryDTO.class)
+                .getResultList();
+    }
 }
@@ -0,0 +1,496 @@
+package jpabook.jpashop.seed;
+
+import jpabook.jpashop.domain.Address;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+    부하 테스트용 대량 데이터 생성(seed 프로필)
+     - InitDb는 주문 2건이라 운영 규모의 성능 문제를 재현할 수 없으므로 회원/상품/카테고리/주문을 수백만건 단위로 생성
+     - 엔티티를 거치지 않고 jdbc batch insert. batch-size 건씩 한 트랜잭션으로 묶어서 threads 개 스레드가 나눠서 실행
+     - id: 테이블마다 현재 시퀀스/최대 id 다음부터 블록으로 받아서 청크끼리 나눠 가짐(pooled).
+       주문상품은 주문마다 개수가 달라서 청크마다 필요한 만큼 블록을 받음. 끝나면 시퀀스를 사용한 id 뒤로 옮겨서 이후 애플리케이션의 insert와 겹치지 않게 함.
+       애플리케이션이 요청을 받기 전(기동 시점)에 실행한다고 가정
+     - 분포
+        - 상품 종류: Book 60%, Album 25%, Movie 15%. 가격은 로그정규분포(중앙값 15,000원)
+        - 카테고리: category-fanout 개씩 category-depth 단계 트리. 상품은 말단 카테고리 1~2개에 속함
+        - 주문 회원/상품: Zipf 분포(id가 작을수록 인기). 소수의 회원/상품에 주문이 몰림
+        - 주문상품 수: 1 + 기하분포(평균 2개, 최대 10개), 수량은 대부분 1개
+        - 주문일: 최근 days 일. 최근일수록 많고 저녁 시간대에 몰림
+        - 주문 5%는 취소, 3일 지난 주문은 배송완료
+     - 주문 조회 모델(order_view, order_item_view)은 주문과 같은 청크에서, 일별 매출 집계는 메모리에 합쳐 두었다가 마지막에 채움.
+       주문 이벤트(outbox)는 만들지 않으므로 --rebuild-order-views 를 하면 생성한 주문의 조회 모델은 사라짐
+     - 같은 random-seed 면 스레드 수와 상관없이 같은 데이터(청크마다 seed + 청크 번호로 난수 생성, 주문상품 id만 다를 수 있음)
+     - H2 전용 SQL(information_schema.sequences, analyze) 사용
+ */
+@Slf4j
+@Component
+@Profile("seed")
+public class DataSeeder {
+
+    private static final String[] CITIES = {"서울", "부산", "인천", "대구", "대전", "광주", "진주", "제주"};
+    private static final double[] CITY_WEIGHTS = {40, 15, 10, 10, 8, 7, 5, 5};
+    //시간대별 주문 비율(0시 ~ 23시)
+    private static final double[] HOUR_WEIGHTS = {3, 2, 1, 1, 1, 1, 2, 3, 4, 5, 5, 6, 7, 6, 5, 5, 6, 6, 7, 8, 9, 9, 7, 5};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate tx;
+    private final int members;
+    private final int items;
+    private final int orders;
+    private final int days;
+    private final int categoryFanout;
+    private final int categoryDepth;
+    private final int threads;
+    private final int batchSize;
+    private final long randomSeed;
+
+    public DataSeeder(JdbcTemplate jdbcTemplate,
+                      PlatformTransactionManager transactionManager,
+                      @Value("${jpashop.seed.members:1000000}") int members,
+                      @Value("${jpashop.seed.items:100000}") int items,
+                      @Value("${jpashop.seed.orders:2000000}") int orders,
+                      @Value("${jpashop.seed.days:365}") int days,
+                      @Value("${jpashop.seed.category-fanout:10}") int categoryFanout,
+                      @Value("${jpashop.seed.category-depth:3}") int categoryDepth,
+                      @Value("${jpashop.seed.threads:4}") int threads,
+                      @Value("${jpashop.seed.batch-size:1000}") int batchSize,
+                      @Value("${jpashop.seed.random-seed:42}") long randomSeed) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.members = members;
+        this.items = items;
+        this.orders = orders;
+        this.days = days;
+        this.categoryFanout = categoryFanout;
+        this.categoryDepth = categoryDepth;
+        this.threads = threads;
+        this.batchSize = batchSize;
+        this.randomSeed = randomSeed;
+    }
+
+    public SeedReport seed() {
+        if (members <= 0 || items <= 0) {
+            throw new IllegalArgumentException("jpashop.seed.members, jpashop.seed.items 는 1 이상이어야 합니다.");
+        }
+        long start = System.currentTimeMillis();
+        SeedReport report = new SeedReport();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Long> leafCategories = new ArrayList<>();
+            phase(report, "카테고리", () -> leafCategories.addAll(seedCategories(report)));
+
+            IdAllocator memberIds = new IdAllocator("member", "member_id", "member_seq");
+            phase(report, "회원", () -> parallel(executor, members, memberIds, (first, count, random) -> {
+                seedMembers(first, count);
+                report.add("member", count);
+            }));
+
+            IdAllocator itemIds = new IdAllocator("item", "item_id", "item_seq");
+            int[] prices = new int[items];
+            String[] itemNames = new String[items];
+            phase(report, "상품", () -> parallel(executor, items, itemIds, (first, count, random) -> {
+                report.add("category_item", seedItems(first, count, itemIds.getBase(), prices, itemNames, leafCategories, random));
+                report.add("item", count);
+            }));
+
+            IdAllocator orderIds = new IdAllocator("orders", "order_id", "orders_seq");
+            IdAllocator deliveryIds = new IdAllocator("delivery", "delivery_id", "delivery_seq");
+            IdAllocator orderItemIds = new IdAllocator("order_item", "order_item_id", "order_item_seq");
+            Zipf memberPopularity = new Zipf(members, 0.8);
+            Zipf itemPopularity = new Zipf(items, 1.0);
+            Map<RevenueKey, long[]> revenue = new ConcurrentHashMap<>();
+            phase(report, "주문", () -> parallel(executor, orders, orderIds, (first, count, random) -> {
+                long orderItemCount = seedOrders(first, count, deliveryIds, orderItemIds, memberIds.getBase(),
+                        itemIds.getBase(), prices, itemNames, memberPopularity, itemPopularity, revenue, random);
+                report.add("orders", count);
+                report.add("delivery", count);
+                report.add("order_item", orderItemCount);
+                report.add("order_view", count);
+                report.add("order_item_view", orderItemCount);
+            }));
+            for (IdAllocator ids : List.of(memberIds, itemIds, orderIds, deliveryIds, orderItemIds)) {
+                ids.finish();
+            }
+
+            phase(report, "매출 집계", () -> seedRevenue(executor, report, revenue));
+            jdbcTemplate.execute("analyze");
+        } finally {
+            executor.shutdown();
+        }
+        report.finish(System.currentTimeMillis() - start);
+        log.info("데이터 생성 완료 {}: {}건 {}ms ({} rows/s)", report.getRows(), report.getTotalRows(),
+                report.getElapsedMillis(), report.getRowsPerSecond());
+        return report;
+    }
+
+    //단계별 걸린 시간과 rows/s 로그
+    private void phase(SeedReport report, String name, Runnable body) {
+        long rowsBefore = report.getTotalRows();
+        long start = System.currentTimeMillis();
+        body.run();
+        long elapsed = Math.max(1, System.currentTimeMillis() - start);
+        long rows = report.getTotalRows() - rowsBefore;
+        log.info("데이터 생성 [{}] {}건 {}ms ({} rows/s)", name, rows, elapsed, rows * 1000 / elapsed);
+    }
+
+    /*
+        total 건을 batch-size 청크로 나눠서 스레드들이 실행. 청크마다 한 트랜잭션으로 insert
+         - id는 total 만큼 한번에 받고 청크 번호로 나눔. 스레드 실행 순서와 상관없이 같은 id에 같은 데이터
+     */
+    private void parallel(ExecutorService executor, int total, IdAllocator ids, Chunk chunk) {
+        long firstId = ids.take(total);
+        List<Runnable> tasks = new ArrayList<>();
+        for (int from = 0; from < total; from += batchSize) {
+            int count = Math.min(batchSize, total - from);
+            long first = firstId + from;
+            long chunkNo = from / batchSize;
+            tasks.add(() -> {
+                SplittableRandom random = new SplittableRandom(randomSeed * 1_000_003 + ids.table.hashCode() * 31L + chunkNo);
+                tx.executeWithoutResult(status -> chunk.run(first, count, random));
+            });
+        }
+        runAll(executor, tasks);
+    }
+
+    //하나라도 실패하면 나머지는 취소하고 예외
+    private void runAll(ExecutorService executor, List<Runnable> tasks) {
+        List<Future<?>> futures = new ArrayList<>();
+        for (Runnable task : tasks) {
+            futures.add(executor.submit(task));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(f -> f.cancel(true));
+            throw new IllegalStateException("데이터 생성이 중단되었습니다.", e);
+        } catch (ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            throw new IllegalStateException("데이터 생성에 실패했습니다.", e.getCause());
+        }
+    }
+
+    private interface Chunk {
+        void run(long firstId, int count, SplittableRandom random);
+    }
+
+    //카테고리 트리. 단계별로 id를 정하므로 path를 insert 할 때 바로 계산. 말단 카테고리 id 반환
+    private List<Long> seedCategories(SeedReport report) {
+        IdAllocator ids = new IdAllocator("category", "category_id", "category_seq");
+        List<Object[]> rows = new ArrayList<>();
+        List<Long> parents = new ArrayList<>();
+        List<String> paths = new ArrayList<>(); //parents와 같은 순서. 그 부모 밑에 들어갈 자식의 path
+        parents.add(null);
+        paths.add("/");
+        for (int depth = 0; depth < categoryDepth; depth++) {
+            List<Long> level = new ArrayList<>();
+            List<String> levelPaths = new ArrayList<>();
+            for (int p = 0; p < parents.size(); p++) {
+                for (int c = 0; c < categoryFanout; c++) {
+                    long id = ids.take(1);
+                    String path = paths.get(p);
+                    rows.add(new Object[]{id, "카테고리" + id, parents.get(p), path, depth});
+                    level.add(id);
+                    levelPaths.add(path + id + "/");
+                }
+            }
+            parents = level;
+            paths = levelPaths;
+        }
+        tx.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                "insert into category (category_id, name, parent_id, path, depth) values (?, ?, ?, ?, ?)", rows));
+        ids.finish();
+        report.add("category", rows.size());
+        return parents;
+    }
+
+    private void seedMembers(long first, int count) {
+        List<Object[]> rows = new ArrayList<>(count);
+        for (long id = first; id < first + count; id++) {
+            Address address = addressOf(id);
+            rows.add(new Object[]{id, "user" + id, address.getCity(), address.getStreet(), address.getZipcode()});
+        }
+        jdbcTemplate.batchUpdate("insert into member (member_id, name, city, street, zipcode) values (?, ?, ?, ?, ?)", rows);
+    }
+
+    //회원 주소는 id로 정해지므로 주문의 배송지를 만들 때 회원을 다시 읽지 않아도 됨
+    private Address addressOf(long memberId) {
+        SplittableRandom random = new SplittableRandom(randomSeed ^ memberId * 0x9E3779B97F4A7C15L);
+        String city = CITIES[pick(CITY_WEIGHTS, random)];
+        return new Address(city, (random.nextInt(300) + 1) + "길 " + (random.nextInt(100) + 1),
+                String.format("%05d", random.nextInt(100000)));
+    }
+
+    private long seedItems(long first, int count, long base, int[] prices, String[] itemNames,
+                           List<Long> leafCategories, SplittableRandom random) {
+        List<Object[]> rows = new ArrayList<>(count);
+        List<Object[]> categoryItems = new ArrayList<>(count * 2);
+        for (long id = first; id < first + count; id++) {
+            //가격: 로그정규분포, 1,000 ~ 500,000원, 100원 단위
+            double raw = Math.exp(Math.log(15000) + 0.6 * gaussian(random));
+            int price = (int) Math.max(1000, Math.min(500000, Math.round(raw / 100) * 100));
+            int stock = 1000 + random.nextInt(99001);
+
+            double type = random.nextDouble();
+            String name;
+            if (type < 0.60) {
+                name = "도서" + id;
+                rows.add(new Object[]{id, "B", name, price, stock, 0L,
+                        "저자" + random.nextInt(10000), String.valueOf(9_780_000_000_000L + random.nextLong(1_000_000_000L)),
+                        null, null, null, null});
+            } else if (type < 0.85) {
+                name = "앨범" + id;
+                rows.add(new Object[]{id, "A", name, price, stock, 0L,
+                        null, null, "아티스트" + random.nextInt(5000), null, null, null});
+            } else {
+                name = "영화" + id;
+                rows.add(new Object[]{id, "M", name, price, stock, 0L,
+                        null, null, null, null, "감독" + random.nextInt(3000), "배우" + random.nextInt(20000)});
+            }
+            //주문상품, 주문상품 조회 모델을 만들 때 상품을 다시 읽지 않도록
+            prices[(int) (id - base - 1)] = price;
+            itemNames[(int) (id - base - 1)] = name;
+
+            //말단 카테고리 1개, 20%는 2개
+            long category = leafCategories.get(random.nextInt(leafCategories.size()));
+            categoryItems.add(new Object[]{category, id});
+            if (random.nextInt(5) == 0) {
+                long second = leafCategories.get(random.nextInt(leafCategories.size()));
+                if (second != category) {
+                    categoryItems.add(new Object[]{second, id});
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into item (item_id, dtype, name, price, stock_quantity, version," +
+                " author, isbn, artist, etc, director, actor) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        jdbcTemplate.batchUpdate("insert into category_item (category_id, item_id) values (?, ?)", categoryItems);
+        return categoryItems.size();
+    }
+
+    /*
+        주문, 배송, 주문상품 + 조회 모델(order_view, order_item_view)
+         - 조회 모델은 OrderProjector가 PLACED 이벤트로 만드는 것과 같은 내용. 같은 트랜잭션에서 같이 insert
+     */
+    private long seedOrders(long first, int count, IdAllocator deliveryIds, IdAllocator orderItemIds,
+                            long memberBase, long itemBase, int[] prices, String[] itemNames,
+                            Zipf memberPopularity, Zipf itemPopularity,
+                            Map<RevenueKey, long[]> revenue, SplittableRandom random) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate today = now.toLocalDate();
+        long firstDelivery = deliveryIds.take(count);
+
+        List<Object[]> deliveries = new ArrayList<>(count);
+        List<Object[]> orderRows = new ArrayList<>(count);
+        List<Object[]> lines = new ArrayList<>(count * 3);
+        List<Object[]> views = new ArrayList<>(count);
+        List<Object[]> lineViews = new ArrayList<>(count * 3);
+        Map<RevenueKey, long[]> chunkRevenue = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            long orderId = first + i;
+            long deliveryId = firstDelivery + i;
+            long memberId = memberBase + 1 + memberPopularity.sample(random);
+
+            int daysAgo = (int) (days * (1 - Math.sqrt(random.nextDouble()))); //최근일수록 많음
+            LocalDateTime orderDate = today.minusDays(daysAgo).atTime(pick(HOUR_WEIGHTS, random),
+                    random.nextInt(60), random.nextInt(60));
+            if (orderDate.isAfter(now)) {
+                orderDate = orderDate.minusDays(1);
+            }
+            boolean cancelled = random.nextInt(20) == 0;
+            boolean delivered = !cancelled && daysAgo >= 3;
+
+            Address address = addressOf(memberId);
+            deliveries.add(new Object[]{deliveryId, address.getCity(), address.getStreet(), address.getZipcode(),
+                    delivered ? "COMP" : "READY"});
+
+            int lineCount = 1;
+            while (lineCount < 10 && random.nextBoolean()) {
+                lineCount++;
+            }
+            int totalPrice = 0;
+            int itemCount = 0;
+            String status = cancelled ? "CANCEL" : "ORDER";
+            for (int l = 0; l < lineCount; l++) {
+                int itemIndex = itemPopularity.sample(random);
+                double q = random.nextDouble();
+                int quantity = q < 0.75 ? 1 : q < 0.92 ? 2 : 3 + random.nextInt(3);
+                int price = prices[itemIndex];
+                lines.add(new Object[]{null, itemBase + 1 + itemIndex, orderId, price, quantity});
+                lineViews.add(new Object[]{null, orderId, itemBase + 1 + itemIndex, itemNames[itemIndex], price, quantity});
+                totalPrice += price * quantity;
+                itemCount += quantity;
+
+                long[] sum = chunkRevenue.computeIfAbsent(
+                        new RevenueKey(orderDate.toLocalDate(), status, itemBase + 1 + itemIndex), k -> new long[2]);
+                sum[0] += (long) price * quantity;
+                sum[1] += quantity;
+            }
+            orderRows.add(new Object[]{orderId, memberId, deliveryId, Timestamp.valueOf(orderDate), status, totalPrice, itemCount});
+            views.add(new Object[]{orderId, "user" + memberId, Timestamp.valueOf(orderDate), status, delivered ? "COMP" : "READY",
+                    address.getCity(), address.getStreet(), address.getZipcode(), totalPrice, itemCount});
+        }
+        //청크 안에서 먼저 합친 뒤 전체 합계에 더함
+        chunkRevenue.forEach((key, sum) -> revenue.merge(key, sum, (a, b) -> {
+            synchronized (a) {
+                a[0] += b[0];
+                a[1] += b[1];
+            }
+            return a;
+        }));
+
+        long firstLine = orderItemIds.take(lines.size());
+        for (int l = 0; l < lines.size(); l++) {
+            lines.get(l)[0] = firstLine + l;
+            lineViews.get(l)[0] = firstLine + l;
+        }
+
+        jdbcTemplate.batchUpdate("insert into delivery (delivery_id, city, street, zipcode, status) values (?, ?, ?, ?, ?)", deliveries);
+        jdbcTemplate.batchUpdate("insert into orders (order_id, member_id, delivery_id, order_date, status, total_price, item_count)" +
+                " values (?, ?, ?, ?, ?, ?, ?)", orderRows);
+        jdbcTemplate.batchUpdate("insert into order_item (order_item_id, item_id, order_id, order_price, count) values (?, ?, ?, ?, ?)", lines);
+        jdbcTemplate.batchUpdate("insert into order_view (order_id, member_name, order_date, status, delivery_status," +
+                " city, street, zipcode, total_price, item_count) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", views);
+        jdbcTemplate.batchUpdate("insert into order_item_view (order_item_id, order_id, item_id, item_name, order_price, count)" +
+                " values (?, ?, ?, ?, ?, ?)", lineViews);
+        return lines.size();
+    }
+
+    /*
+        일별 매출 집계(daily_revenue)
+         - 주문 청크에서 (일자, 상태, 상품)별로 메모리에 합쳐 둔 것을 batch-size 건씩 나눠서 병렬로 씀
+         - 이미 있는 행에는 더함(RevenueRepository.add와 같이 update -> 0건이면 insert). 청크끼리 키가 겹치지 않음
+         - 테이블이 비어 있으면 update 없이 insert만 함(주문 100만건 기준 update -> insert는 1.2k rows/s로 주문 생성보다 오래 걸림)
+         - 주문 테이블을 다시 읽어서 group by 하는 것보다 빠름(H2의 merge using은 원본 서브쿼리를 행마다 다시 실행)
+     */
+    private void seedRevenue(ExecutorService executor, SeedReport report, Map<RevenueKey, long[]> revenue) {
+        List<Map.Entry<RevenueKey, long[]>> entries = new ArrayList<>(revenue.entrySet());
+        boolean empty = jdbcTemplate.queryForList("select 1 from daily_revenue limit 1").isEmpty();
+        List<Runnable> tasks = new ArrayList<>();
+        for (int from = 0; from < entries.size(); from += batchSize) {
+            List<Map.Entry<RevenueKey, long[]>> chunk = entries.subList(from, Math.min(from + batchSize, entries.size()));
+            tasks.add(() -> tx.executeWithoutResult(status -> {
+                List<Object[]> updates = new ArrayList<>(chunk.size());
+                for (Map.Entry<RevenueKey, long[]> entry : chunk) {
+                    RevenueKey key = entry.getKey();
+                    updates.add(new Object[]{entry.getValue()[0], entry.getValue()[1], key.date(), key.status(), key.itemId()});
+                }
+                int[] updated = empty ? new int[updates.size()]
+                        : jdbcTemplate.batchUpdate("update daily_revenue set amount = amount + ?, quantity = quantity + ?" +
+                        " where revenue_date = ? and status = ? and item_id = ?", updates);
+
+                List<Object[]> inserts = new ArrayList<>();
+                for (int i = 0; i < updated.length; i++) {
+                    if (updated[i] == 0) {
+                        Object[] u = updates.get(i);
+                        inserts.add(new Object[]{u[2], u[3], u[4], u[0], u[1]});
+                    }
+                }
+                jdbcTemplate.batchUpdate("insert into daily_revenue (revenue_date, status, item_id, amount, quantity)" +
+                        " values (?, ?, ?, ?, ?)", inserts);
+                report.add("daily_revenue", inserts.size());
+            }));
+        }
+        runAll(executor, tasks);
+    }
+
+    private record RevenueKey(LocalDate date, String status, long itemId) {
+    }
+
+    private static int pick(double[] weights, SplittableRandom random) {
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        double r = random.nextDouble() * total;
+        for (int i = 0; i < weights.length; i++) {
+            r -= weights[i];
+            if (r < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    //Box-Muller
+    private static double gaussian(SplittableRandom random) {
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    /*
+        테이블별 id 블록 할당
+         - 시작: 최대 id와 시퀀스가 이미 내준 값 중 큰 값 다음. 다른 세션이 pooled로 받아간 id 블록과 겹치지 않음
+         - finish: 시퀀스를 (마지막 id + 증가값)으로 옮김. hibernate pooled는 시퀀스 값 v를 받으면 (v - 증가값, v] 를 쓰므로
+           다음에 받는 블록이 생성한 id 뒤에서 시작
+     */
+    private class IdAllocator {
+        private final String table;
+        private final String sequence;
+        private final long base;
+        private final AtomicLong next;
+
+        private IdAllocator(String table, String idColumn, String sequence) {
+            this.table = table;
+            this.sequence = sequence;
+            Long maxId = jdbcTemplate.queryForObject("select coalesce(max(" + idColumn + "), 0) from " + table, Long.class);
+            Long issued = jdbcTemplate.queryForObject("select base_value - 1 from information_schema.sequences" +
+                    " where lower(sequence_name) = ?", Long.class, sequence);
+            this.base = Math.max(maxId, issued);
+            this.next = new AtomicLong(base + 1);
+        }
+
+        long getBase() {
+            return base;
+        }
+
+        long take(int count) {
+            return next.getAndAdd(count);
+        }
+
+        void finish() {
+            Long increment = jdbcTemplate.queryForObject("select increment from information_schema.sequences" +
+                    " where lower(sequence_name) = ?", Long.class, sequence);
+            jdbcTemplate.execute("alter sequence " + sequence + " restart with " + (next.get() - 1 + increment));
+        }
+    }
+
+    /*
+        Zipf 분포(순위 k의 확률 ∝ 1 / k^s). 누적 확률 배열을 이진 탐색해서 0 ~ n-1 순위를 뽑음
+     */
+    private static class Zipf {
+        private final double[] cumulative;
+
+        private Zipf(int n, double s) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int k = 0; k < n; k++) {
+                sum += 1 / Math.pow(k + 1, s);
+                cumulative[k] = sum;
+            }
+        }
+
+        private int sample(SplittableRandom random) {
+            double r = random.nextDouble() * cumulative[cumulative.length - 1];
+            int index = Arrays.binarySearch(cumulative, r);
+            return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package jpabook.jpashop.seed;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/*
+    부하 테스트 데이터 생성 실행
+     - seed 프로필로 기동하면 InitDb 대신 DataSeeder가 데이터를 만들고 그대로 요청을 받음
+       java -jar jpashop.jar --spring.profiles.active=seed --jpashop.seed.orders=5000000
+     - 실행 인자 --seed-only 를 주면 데이터만 만들고 종료(파일/서버 DB에 미리 만들어 둘 때)
+ */
+@Slf4j
+@Configuration
+@Profile("seed")
+public class SeedConfig {
+
+    @Bean
+    public ApplicationRunner dataSeedRunner(DataSeeder dataSeeder, ApplicationContext context) {
+        return args -> {
+            dataSeeder.seed();
+            if (args.containsOption("seed-only")) {
+                log.info("--seed-only: 데이터 생성 후 종료");
+                System.exit(SpringApplication.exit(context));
+            }
+        };
+    }
+}
@@ -0,0 +1,38 @@
+package jpabook.jpashop.seed;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+    데이터 생성 결과. 테이블별 row 수와 걸린 시간
+     - 여러 생성 스레드가 같이 더하므로 synchronized
+ */
+public class SeedReport {
+
+    private final Map<String, Long> rows = new LinkedHashMap<>();
+    private long elapsedMillis;
+
+    synchronized void add(String table, long count) {
+        rows.merge(table, count, Long::sum);
+    }
+
+    synchronized void finish(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public synchronized Map<String, Long> getRows() {
+        return new LinkedHashMap<>(rows);
+    }
+
+    public synchronized long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public synchronized long getTotalRows() {
+        return rows.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public synchronized long getRowsPerSecond() {
+        return elapsedMillis == 0 ? 0 : getTotalRows() * 1000 / elapsedMillis;
+    }
+}
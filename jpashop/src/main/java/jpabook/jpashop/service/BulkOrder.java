@@ -0,0 +1,22 @@
+package jpabook.jpashop.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+//대량 주문 한 건. 회원 1명 + 주문상품 여러개
+@Getter
+@AllArgsConstructor
+public class BulkOrder {
+
+    private Long memberId;
+    private List<Line> lines;
+
+    @Getter
+    @AllArgsConstructor
+    public static class Line {
+        private Long itemId;
+        private int count;
+    }
+}
@@ -0,0 +1,135 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Delivery;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.exception.ItemNotFoundException;
+import jpabook.jpashop.exception.MemberNotFoundException;
+import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.repository.MemberRepository;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.service.event.OrderEventPublisher;
+import jpabook.jpashop.service.stock.StockConflictRetry;
+import jpabook.jpashop.service.stock.StockReservation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/*
+    대량 주문(B2B). 주문 여러건 x 주문상품 여러개를 트랜잭션 하나로 처리(전부 성공 or 전부 실패)
+     - 없는 상품이 있으면 재고 차감 전에 ItemNotFoundException(재고 부족으로 보이지 않게), 없는 회원이면 MemberNotFoundException
+     - 재고: 상품별로 수량을 합쳐서 상품당 update 한번. 상품 id 순서로 차감해서 동시 대량 주문끼리 데드락이 나지 않게 함
+     - 상품: in 절로 한번에 조회
+     - 회원: chunkSize 건마다 in 절로 조회
+     - 주문: chunkSize 건마다 flush, clear -> insert는 jdbc batch로 묶이고 영속성 컨텍스트가 계속 커지지 않음
+     - 매출 집계: 청크마다 (주문일, 상품)별로 합쳐서 갱신
+ */
+@Service
+@Transactional(readOnly = true)
+public class BulkOrderService {
+
+    private final OrderRepository orderRepository;
+    private final MemberRepository memberRepository;
+    private final ItemRepository itemRepository;
+    private final StockReservation stockReservation;
+    private final RevenueService revenueService;
+    private final OrderEventPublisher orderEventPublisher;
+    private final StockConflictRetry stockConflictRetry;
+    private final int chunkSize;
+
+    public BulkOrderService(OrderRepository orderRepository,
+                            MemberRepository memberRepository,
+                            ItemRepository itemRepository,
+                            StockReservation stockReservation,
+                            RevenueService revenueService,
+                            OrderEventPublisher orderEventPublisher,
+                            StockConflictRetry stockConflictRetry,
+                            @Value("${jpashop.bulk-order.chunk-size:500}") int chunkSize) {
+        this.orderRepository = orderRepository;
+        this.memberRepository = memberRepository;
+        this.itemRepository = itemRepository;
+        this.stockReservation = stockReservation;
+        this.revenueService = revenueService;
+        this.orderEventPublisher = orderEventPublisher;
+        this.stockConflictRetry = stockConflictRetry;
+        this.chunkSize = chunkSize;
+    }
+
+    //대량 주문. 요청 순서대로 주문 id 반환. 재고 변경 충돌이면 새 트랜잭션으로 다시 실행
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<Long> order(List<BulkOrder> bulkOrders) {
+        return stockConflictRetry.execute(status -> placeOrders(bulkOrders));
+    }
+
+    private List<Long> placeOrders(List<BulkOrder> bulkOrders) {
+        //재고 차감
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (BulkOrder bulkOrder : bulkOrders) {
+            if (bulkOrder.getLines() == null || bulkOrder.getLines().isEmpty()) {
+                throw new IllegalArgumentException("주문상품이 없습니다. memberId=" + bulkOrder.getMemberId());
+            }
+            for (BulkOrder.Line line : bulkOrder.getLines()) {
+                if (line.getCount() <= 0) {
+                    throw new IllegalArgumentException("주문수량은 1개 이상이어야 합니다. itemId=" + line.getItemId());
+                }
+                quantities.merge(line.getItemId(), line.getCount(), Integer::sum);
+            }
+        }
+        //없는 상품은 조건부 update가 0건이라 재고 부족과 구분되지 않으므로 먼저 확인
+        Set<Long> missing = new TreeSet<>(quantities.keySet());
+        itemRepository.findIds(quantities.keySet()).forEach(missing::remove);
+        if (!missing.isEmpty()) {
+            throw new ItemNotFoundException("존재하지 않는 상품입니다. itemIds=" + missing);
+        }
+        quantities.forEach(stockReservation::reserve);
+
+        //상품 조회(재고 차감 후). clear 뒤에는 준영속이지만 주문상품은 상품 id만 있으면 되므로 그대로 사용
+        Map<Long, Item> items = itemRepository.findAllById(quantities.keySet()).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        List<Long> orderIds = new ArrayList<>(bulkOrders.size());
+        for (int from = 0; from < bulkOrders.size(); from += chunkSize) {
+            List<BulkOrder> chunk = bulkOrders.subList(from, Math.min(from + chunkSize, bulkOrders.size()));
+
+            //회원은 Order.setMember에서 orders 컬렉션에 추가하므로 영속 상태여야 해서 청크마다 다시 조회
+            Set<Long> memberIds = chunk.stream().map(BulkOrder::getMemberId).collect(Collectors.toSet());
+            Map<Long, Member> members = memberRepository.findAllById(memberIds).stream()
+                    .collect(Collectors.toMap(Member::getId, Function.identity()));
+
+            List<Order> orders = new ArrayList<>(chunk.size());
+            for (BulkOrder bulkOrder : chunk) {
+                Member member = members.get(bulkOrder.getMemberId());
+                if (member == null) {
+                    throw new MemberNotFoundException("존재하지 않는 회원입니다. memberId=" + bulkOrder.getMemberId());
+                }
+                Delivery delivery = new Delivery();
+                delivery.setAddress(member.getAddress());
+
+                OrderItem[] orderItems = bulkOrder.getLines().stream()
+                        .map(line -> {
+                            Item item = items.get(line.getItemId());
+                            return OrderItem.createReservedOrderItem(item, item.getPrice(), line.getCount());
+                        })
+                        .toArray(OrderItem[]::new);
+                orders.add(Order.createOrder(member, delivery, orderItems));
+            }
+            orderRepository.saveAll(orders);
+            //일별 매출 집계. 청크 단위로 (주문일, 상품)마다 update 한번
+            revenueService.ordered(orders);
+            //주문 이벤트. 다음 청크의 flush(또는 커밋)에서 배치 insert
+            orderEventPublisher.placed(orders);
+
+            for (Order order : orders) {
+                orderIds.add(order.getId());
+            }
+        }
+        return orderIds;
+    }
+}
@@ -0,0 +1,53 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.exception.CategoryNotFoundException;
+import jpabook.jpashop.repository.CategoryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class CategoryService {
+
+    private final CategoryRepository categoryRepository;
+
+    //카테고리 생성. parentId가 없으면 루트
+    @Transactional
+    public Long create(String name, Long parentId){
+        Category category = new Category();
+        category.setName(name);
+        if (parentId != null) {
+            findCategory(parentId).addChildCategory(category);
+        }
+        categoryRepository.save(category);
+        return category.getId();
+    }
+
+    public List<Category> findDescendants(Long categoryId){
+        return categoryRepository.findDescendants(findCategory(categoryId));
+    }
+
+    public List<Category> findBreadcrumb(Long categoryId){
+        return categoryRepository.findBreadcrumb(findCategory(categoryId));
+    }
+
+    public Page<Item> findItems(Long categoryId, Pageable pageable){
+        return categoryRepository.findItemsInSubtree(findCategory(categoryId), pageable);
+    }
+
+    private Category findCategory(Long categoryId){
+        Category category = categoryRepository.findOne(categoryId);
+        if (category == null) {
+            throw new CategoryNotFoundException("존재하지 않는 카테고리입니다. categoryId=" + categoryId);
+        }
+        return category;
+    }
+}
@@ -3,6 +3,7 @@ package jpabook.jpashop.service;
 import jpabook.jpashop.domain.item.Book;
 import jpabook.jpashop.domain.item.Item;
 import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.repository.item.query.*;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -20,6 +21,7 @@ public class ItemService {
      */
 
     private final ItemRepository itemRepository;
+    private final ItemQueryRepository itemQueryRepository;
 
     @Transactional
     public void saveItem(Item item){
@@ -43,6 +45,23 @@ public class ItemService {
         return itemRepository.findAll();
     }
 
+    //상품 목록(DTO, 키셋 페이징). 전체는 공통 컬럼만, 종류별은 그 종류의 컬럼만 조회
+    public List<ItemSummaryDTO> findItemSummaries(Long afterId, int limit){
+        return itemQueryRepository.findSummaries(afterId, limit);
+    }
+
+    public List<BookDTO> findBooks(Long afterId, int limit){
+        return itemQueryRepository.findBooks(afterId, limit);
+    }
+
+    public List<AlbumDTO> findAlbums(Long afterId, int limit){
+        return itemQueryRepository.findAlbums(afterId, limit);
+    }
+
+    public List<MovieDTO> findMovies(Long afterId, int limit){
+        return itemQueryRepository.findMovies(afterId, limit);
+    }
+
     public Item findOne(Long itemId){
         return itemRepository.findOne(itemId);
     }
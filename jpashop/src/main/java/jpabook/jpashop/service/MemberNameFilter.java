@@ -0,0 +1,156 @@
+package jpabook.jpashop.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jpabook.jpashop.repository.MemberRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+    회원명 블룸 필터
+     - 회원가입의 대부분은 중복이 아니므로, 메모리의 블룸 필터에 없는 이름이면 DB 중복 조회(exists)를 건너뜀
+     - 블룸 필터는 "없음"만 확실하고 "있음"은 오탐(false positive)일 수 있으므로 있다고 나오면 DB로 다시 확인
+     - 다른 서버에서 가입했거나 InitDb처럼 MemberService를 거치지 않고 저장한 이름은 모를 수 있다.
+       이 경우에도 member.name 유니크 제약이 막아주므로 필터는 성능 최적화일 뿐 정합성은 DB가 보장
+     - 애플리케이션이 준비되면(ApplicationReadyEvent) 전체 회원명을 읽어서 채움. 채우기 전에는 항상 DB로 확인
+     - 크기: 기대 원소 수 n, 오탐률 p -> 비트 수 m = -n ln p / (ln 2)^2, 해시 함수 수 k = m / n ln 2
+     - 메트릭: jpashop.member.name-filter{result=negative(DB 조회 생략)|positive(DB 조회)|false-positive(DB에는 없음)}
+ */
+@Slf4j
+@Component
+public class MemberNameFilter {
+
+    private final MemberRepository memberRepository;
+    private final TransactionTemplate readOnlyTx;
+    private final boolean enabled;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+
+    private volatile Bits bits;
+
+    private final Counter negative;
+    private final Counter positive;
+    private final Counter falsePositive;
+
+    public MemberNameFilter(MemberRepository memberRepository,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${jpashop.member.name-filter.enabled:true}") boolean enabled,
+                            @Value("${jpashop.member.name-filter.expected-insertions:1000000}") long expectedInsertions,
+                            @Value("${jpashop.member.name-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.memberRepository = memberRepository;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.enabled = enabled;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+
+        this.negative = meterRegistry.counter("jpashop.member.name-filter", "result", "negative");
+        this.positive = meterRegistry.counter("jpashop.member.name-filter", "result", "positive");
+        this.falsePositive = meterRegistry.counter("jpashop.member.name-filter", "result", "false-positive");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        long count = readOnlyTx.execute(status -> memberRepository.count());
+        //이미 기대 원소 수보다 많으면 두배로 잡아서 오탐률이 올라가지 않게 함
+        Bits loaded = new Bits(Math.max(expectedInsertions, count * 2), falsePositiveRate);
+        readOnlyTx.executeWithoutResult(status -> memberRepository.streamNames(1000, m -> loaded.put(m.getName())));
+        bits = loaded;
+        log.info("회원명 필터 로딩 {}명, {}bit, 해시 {}개, {}ms", count, loaded.size, loaded.hashes, System.currentTimeMillis() - start);
+    }
+
+    //false면 확실히 없는 이름. true면 있을 수도 있으므로 DB로 확인해야 함
+    public boolean mightContain(String name) {
+        Bits current = bits;
+        if (current == null || name == null || current.mightContain(name)) {
+            positive.increment();
+            return true;
+        }
+        negative.increment();
+        return false;
+    }
+
+    //필터에는 있다고 나왔지만 DB에는 없었음
+    public void falsePositive() {
+        falsePositive.increment();
+    }
+
+    public void put(String name) {
+        Bits current = bits;
+        if (current != null && name != null) {
+            current.put(name);
+        }
+    }
+
+    //동시에 put 해도 비트가 사라지지 않도록 CAS로 OR
+    private static class Bits {
+        private final AtomicLongArray words;
+        private final long size;
+        private final int hashes;
+
+        private Bits(long expectedInsertions, double falsePositiveRate) {
+            long bits = (long) (-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.words = new AtomicLongArray((int) Math.min(Integer.MAX_VALUE - 8, (bits + 63) / 64));
+            this.size = words.length() * 64L;
+            this.hashes = Math.max(1, (int) Math.round((double) size / expectedInsertions * Math.log(2)));
+        }
+
+        //해시 2개(h1 + i * h2)로 k개 위치를 만듦(Kirsch-Mitzenmacher)
+        private void put(String name) {
+            long h1 = hash(name);
+            long h2 = mix(h1);
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, size);
+                int index = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long word;
+                while (((word = words.get(index)) & mask) == 0 && !words.compareAndSet(index, word, word | mask)) {
+                }
+            }
+        }
+
+        private boolean mightContain(String name) {
+            long h1 = hash(name);
+            long h2 = mix(h1);
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, size);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        //FNV-1a 64bit
+        private static long hash(String name) {
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < name.length(); i++) {
+                h ^= name.charAt(i);
+                h *= 0x100000001b3L;
+            }
+            return mix(h);
+        }
+
+        //murmur3 fmix64
+        private static long mix(long h) {
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
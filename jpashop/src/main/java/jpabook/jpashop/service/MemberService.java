@@ -1,13 +1,17 @@
 package jpabook.jpashop.service;
 
 import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.repository.MemberNameDTO;
 import jpabook.jpashop.repository.MemberRepository;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /*
     읽기 전용쪽은 @Transactional에 (readOnly = true)을 넣어줌으로서 성능향상
@@ -19,21 +23,49 @@ import java.util.List;
 public class MemberService {
 
     private final MemberRepository memberRepository;
+    private final MemberNameFilter memberNameFilter;
 
 
-    //회원 가입
+    /*
+        회원 가입
+         - 중복 검증은 빠르게 실패시키기 위한 것이고, 동시에 같은 이름으로 가입하면 둘 다 검증을 통과할 수 있다.
+           최종적으로는 member.name 유니크 제약이 막아주고, 위반하면 같은 IllegalStateException으로 바꿔줌
+     */
     @Transactional
     public Long join(Member member){
         validateDuplicateMember(member); //중복 회원 검증
         memberRepository.save(member);
+        flushUniqueName();
+        memberNameFilter.put(member.getName());
         return member.getId(); //어떤 id가 저장된지 알기위해 반환
     }
-    //중복 회원 검증로직
+    /*
+        중복 회원 검증로직
+         - 블룸 필터에 없는 이름이면 DB를 조회하지 않음(대부분의 가입)
+         - 있을 수도 있으면 exists 쿼리로 확인(엔티티를 조회하지 않음)
+     */
     private void validateDuplicateMember(Member member) {
-        List<Member> findMembers = memberRepository.findByName(member.getName());
-        if (!findMembers.isEmpty()){
+        if (!memberNameFilter.mightContain(member.getName())) {
+            return;
+        }
+        if (memberRepository.existsByName(member.getName())){
             throw new IllegalStateException("이미 존재하는 회원입니다.");
         }
+        memberNameFilter.falsePositive();
+    }
+
+    //insert/update를 바로 실행해서 회원명 유니크 제약 위반을 도메인 예외로 바꿈
+    private void flushUniqueName() {
+        try {
+            memberRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            if (e.getCause() instanceof ConstraintViolationException violation
+                    && violation.getConstraintName() != null
+                    && violation.getConstraintName().toLowerCase().contains("uk_member_name")) {
+                throw new IllegalStateException("이미 존재하는 회원입니다.", e);
+            }
+            throw e;
+        }
     }
 
     //회원 전체 조회
@@ -41,6 +73,16 @@ public class MemberService {
         return memberRepository.findAll();
     }
 
+    //회원 목록(id, 이름만) 키셋 페이징 조회
+    public List<MemberNameDTO> findMemberNames(Long afterId, int limit){
+        return memberRepository.findNames(afterId, limit);
+    }
+
+    //회원 목록 전체를 스트리밍. 다 읽을 때까지 트랜잭션(커넥션)을 유지함
+    public void streamMemberNames(int fetchSize, Consumer<MemberNameDTO> consumer){
+        memberRepository.streamNames(fetchSize, consumer);
+    }
+
     //특정 회원 조회
     public Member findOne(Long memberId){
         return memberRepository.findOne(memberId);
@@ -50,5 +92,7 @@ public class MemberService {
     public void update(Long id, String name) {
         Member member = memberRepository.findOne(id);
         member.setName(name);
+        flushUniqueName();
+        memberNameFilter.put(name);
     }
 }
@@ -8,12 +8,19 @@ import jpabook.jpashop.domain.item.Item;
 import jpabook.jpashop.repository.ItemRepository;
 import jpabook.jpashop.repository.MemberRepository;
 import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderRowDTO;
 import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.service.event.OrderEventPublisher;
+import jpabook.jpashop.service.stock.StockConflictRetry;
+import jpabook.jpashop.service.stock.StockReservation;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 @Transactional(readOnly = true)
@@ -23,12 +30,23 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final MemberRepository memberRepository;
     private final ItemRepository itemRepository;
+    private final StockReservation stockReservation;
+    private final RevenueService revenueService;
+    private final OrderEventPublisher orderEventPublisher;
+    private final StockConflictRetry stockConflictRetry;
 
-    //주문
-    @Transactional
+    //주문. 재고 변경 충돌이면 새 트랜잭션으로 다시 실행(트랜잭션은 StockConflictRetry가 시작)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public long order(Long memberId, Long itemId, int count){
+        return stockConflictRetry.execute(status -> placeOrder(memberId, itemId, count));
+    }
+
+    private long placeOrder(Long memberId, Long itemId, int count){
+
+        //재고 차감. 동시 주문에서도 재고가 음수가 되지 않도록 StockReservation 전략으로 DB에서 바로 차감
+        stockReservation.reserve(itemId, count);
 
-        //엔티티 조회
+        //엔티티 조회(재고 차감 후에 조회해야 차감된 재고가 보임)
         Member member = memberRepository.findOne(memberId);
         Item item = itemRepository.findOne(itemId);
 
@@ -37,27 +55,59 @@ public class OrderService {
         delivery.setAddress(member.getAddress());
 
         //주문상품 생성
-        OrderItem orderItem = OrderItem.createOrderItem(item, item.getPrice(), count);
+        OrderItem orderItem = OrderItem.createReservedOrderItem(item, item.getPrice(), count);
 
         //주문 생성
         Order order = Order.createOrder(member, delivery, orderItem);
 
         //주문 저장
         orderRepository.save(order);
+        //일별 매출 집계
+        revenueService.ordered(List.of(order));
+        //주문 이벤트(조회 모델은 OrderProjector가 비동기로 반영)
+        orderEventPublisher.placed(List.of(order));
 
         return order.getId();
     }
-    //취소
-    @Transactional
+    //취소. 재고 복구도 충돌할 수 있으므로 주문과 같이 트랜잭션 경계에서 재시도
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void cancelOrder(Long orderId){
+        stockConflictRetry.execute(status -> {
+            cancel(orderId);
+            return null;
+        });
+    }
+
+    private void cancel(Long orderId){
         //주문 엔티티 조회
         Order order = orderRepository.findOne(orderId);
-        //주문 취소
-        order.cancel();
+        //주문 취소 + 재고 복구
+        order.cancel(stockReservation);
+        //일별 매출 집계(주문 -> 취소)
+        revenueService.canceled(order);
+        orderEventPublisher.canceled(order);
+    }
+
+    //배송완료
+    @Transactional
+    public void completeDelivery(Long orderId){
+        Order order = orderRepository.findOne(orderId);
+        order.completeDelivery();
+        orderEventPublisher.delivered(order);
     }
 
     //검색
     public List<Order> findOrders(OrderSearch orderSearch){
         return orderRepository.findAll(orderSearch);
     }
+
+    //검색 조건에 맞는 주문 수(주문 목록 화면의 전체 페이지 수)
+    public long countOrders(OrderSearch orderSearch){
+        return orderRepository.count(orderSearch);
+    }
+
+    //주문 목록 화면 행을 스트리밍. 다 읽을 때까지 트랜잭션(커넥션)을 유지함
+    public void streamOrderRows(OrderSearch orderSearch, long offset, int limit, Sort sort, int fetchSize, Consumer<OrderRowDTO> consumer){
+        orderRepository.streamRows(orderSearch, offset, limit, sort, fetchSize, consumer);
+    }
 }
@@ -0,0 +1,68 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.repository.DailyRevenueDTO;
+import jpabook.jpashop.repository.RevenueRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/*
+    일별 매출 집계 갱신/조회
+     - 주문, 취소하는 서비스 트랜잭션 안에서 호출(MANDATORY). 주문이 롤백되면 집계도 같이 롤백
+     - 주문상품을 (주문일, 상품)으로 합쳐서 키마다 update 한번. 대량 주문도 상품 수만큼만 실행
+     - 키는 (주문일, 상품 id) 순서로 갱신해서 동시 주문끼리 집계 row 락 순서가 엇갈리지 않게 함(데드락 방지)
+ */
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class RevenueService {
+
+    private final RevenueRepository revenueRepository;
+
+    //주문 생성
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void ordered(Collection<Order> orders){
+        apply(orders, OrderStatus.ORDER, 1);
+    }
+
+    //주문 취소: 주문 매출에서 빼고 취소 매출에 더함
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void canceled(Order order){
+        List<Order> orders = List.of(order);
+        apply(orders, OrderStatus.ORDER, -1);
+        apply(orders, OrderStatus.CANCEL, 1);
+    }
+
+    private void apply(Collection<Order> orders, OrderStatus status, int sign){
+        //주문일 -> 상품 id -> {금액, 수량}
+        Map<LocalDate, Map<Long, long[]>> sums = new TreeMap<>();
+        for (Order order : orders) {
+            Map<Long, long[]> byItem = sums.computeIfAbsent(order.getOrderDate().toLocalDate(), d -> new TreeMap<>());
+            for (OrderItem orderItem : order.getOrderItems()) {
+                long[] sum = byItem.computeIfAbsent(orderItem.getItem().getId(), id -> new long[2]);
+                sum[0] += orderItem.getTotalPrice();
+                sum[1] += orderItem.getCount();
+            }
+        }
+        sums.forEach((date, byItem) -> byItem.forEach((itemId, sum) ->
+                revenueRepository.add(date, status, itemId, sign * sum[0], sign * sum[1])));
+    }
+
+    //기간 일자별 매출(취소 제외)
+    public List<DailyRevenueDTO> findDailyRevenue(LocalDate from, LocalDate to){
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("조회 시작일이 종료일보다 늦습니다. from=" + from + ", to=" + to);
+        }
+        return revenueRepository.findDaily(from, to, OrderStatus.ORDER);
+    }
+}
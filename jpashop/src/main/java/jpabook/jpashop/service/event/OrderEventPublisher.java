@@ -0,0 +1,52 @@
+package jpabook.jpashop.service.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderEvent;
+import jpabook.jpashop.domain.OrderEventType;
+import jpabook.jpashop.repository.OrderEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+/*
+    주문 이벤트를 outbox(OrderEvent)에 기록
+     - 주문을 변경한 서비스 트랜잭션 안에서 호출(MANDATORY). 이벤트 insert는 주문 insert와 같이 jdbc batch로 묶임
+     - 조회 모델 반영은 OrderProjector가 비동기로 처리
+ */
+@Component
+@RequiredArgsConstructor
+@Transactional(propagation = Propagation.MANDATORY)
+public class OrderEventPublisher {
+
+    private final OrderEventRepository orderEventRepository;
+    private final ObjectMapper objectMapper;
+
+    //주문 저장 후에 호출(주문, 주문상품 id 필요)
+    public void placed(Collection<Order> orders){
+        for (Order order : orders) {
+            orderEventRepository.save(new OrderEvent(order.getId(), OrderEventType.PLACED,
+                    toJson(new OrderPlacedPayload(order))));
+        }
+    }
+
+    public void canceled(Order order){
+        orderEventRepository.save(new OrderEvent(order.getId(), OrderEventType.CANCELLED, null));
+    }
+
+    public void delivered(Order order){
+        orderEventRepository.save(new OrderEvent(order.getId(), OrderEventType.DELIVERED, null));
+    }
+
+    private String toJson(OrderPlacedPayload payload){
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("주문 이벤트 직렬화 실패", e);
+        }
+    }
+}
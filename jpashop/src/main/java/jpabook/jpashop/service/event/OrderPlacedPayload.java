@@ -0,0 +1,61 @@
+package jpabook.jpashop.service.event;
+
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/*
+    PLACED 이벤트 payload. 조회 모델을 원본 테이블 조회 없이 만들 수 있도록 주문 내용을 전부 담음
+ */
+@Data
+@NoArgsConstructor
+public class OrderPlacedPayload {
+
+    private String memberName;
+    private String city;
+    private String street;
+    private String zipcode;
+    private LocalDateTime orderDate;
+    private int totalPrice;
+    private int itemCount;
+    private List<Line> lines;
+
+    //주문 저장 후(id가 정해진 뒤)에 호출
+    public OrderPlacedPayload(Order order) {
+        memberName = order.getMember().getName();
+        if (order.getDelivery().getAddress() != null) {
+            city = order.getDelivery().getAddress().getCity();
+            street = order.getDelivery().getAddress().getStreet();
+            zipcode = order.getDelivery().getAddress().getZipcode();
+        }
+        orderDate = order.getOrderDate();
+        totalPrice = order.getTotalPrice();
+        itemCount = order.getItemCount();
+        lines = order.getOrderItems().stream()
+                .map(Line::new)
+                .collect(Collectors.toList());
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Line {
+        private Long orderItemId;
+        private Long itemId;
+        private String itemName;
+        private int orderPrice;
+        private int count;
+
+        public Line(OrderItem orderItem) {
+            orderItemId = orderItem.getId();
+            itemId = orderItem.getItem().getId();
+            itemName = orderItem.getItem().getName();
+            orderPrice = orderItem.getOrderPrice();
+            count = orderItem.getCount();
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package jpabook.jpashop.service.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jpabook.jpashop.domain.*;
+import jpabook.jpashop.repository.OrderEventRepository;
+import jpabook.jpashop.repository.OrderViewRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/*
+    주문 이벤트(outbox) -> 주문 조회 모델(OrderView, OrderItemView) 반영
+     - jpashop.projector.interval-millis 마다 미반영 이벤트를 batch-size 개씩 읽어서 한 트랜잭션으로 반영
+     - 반영하기 전에 "projected_at is null" 조건부 update로 이벤트를 먼저 차지함. 다른 인스턴스의 projector가 같은
+       이벤트를 잡고 있으면 그쪽이 커밋할 때까지 기다렸다가 0건이 되므로 이번 배치는 롤백하고 다음에 다시 읽음
+     - 시퀀스를 pooled로 받으므로 이벤트 id 순서가 발생 순서와 다를 수 있음
+        - 같은 배치에서는 PLACED를 먼저 반영
+        - 조회 모델이 아직 없는 주문의 취소/배송완료 이벤트는 retry-delay-millis 뒤로 미뤄두고(attempts + 1) 다음 이벤트를 계속 반영
+          미뤄둔 이벤트가 배치를 다 채워도 뒤의 이벤트가 막히지 않음
+        - max-attempts 번 미뤄도 조회 모델이 없으면(PLACED 이벤트가 없는 주문 등) dead letter(failedAt)로 두고 경고
+     - 지연 메트릭: jpashop.projector.lag.events(미반영 이벤트 수), jpashop.projector.lag.seconds(가장 오래된 미반영 이벤트 나이),
+       jpashop.projector.failed.events(dead letter 이벤트 수)
+ */
+@Slf4j
+@Component
+public class OrderProjector {
+
+    private final OrderEventRepository orderEventRepository;
+    private final OrderViewRepository orderViewRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate tx;
+    private final int batchSize;
+    private final Duration retryDelay;
+    private final int maxAttempts;
+
+    //스케줄러와 rebuild가 같이 돌지 않도록
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final AtomicLong pendingEvents = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final AtomicLong failedEvents = new AtomicLong();
+    private final Counter projectedEvents;
+
+    public OrderProjector(OrderEventRepository orderEventRepository,
+                          OrderViewRepository orderViewRepository,
+                          ObjectMapper objectMapper,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${jpashop.projector.batch-size:500}") int batchSize,
+                          @Value("${jpashop.projector.retry-delay-millis:5000}") long retryDelayMillis,
+                          @Value("${jpashop.projector.max-attempts:20}") int maxAttempts) {
+        this.orderEventRepository = orderEventRepository;
+        this.orderViewRepository = orderViewRepository;
+        this.objectMapper = objectMapper;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.retryDelay = Duration.ofMillis(retryDelayMillis);
+        this.maxAttempts = maxAttempts;
+
+        Gauge.builder("jpashop.projector.lag.events", pendingEvents, AtomicLong::get)
+                .description("조회 모델에 아직 반영되지 않은 주문 이벤트 수")
+                .register(meterRegistry);
+        Gauge.builder("jpashop.projector.lag.seconds", lagMillis, v -> v.get() / 1000.0)
+                .description("가장 오래된 미반영 주문 이벤트의 나이")
+                .register(meterRegistry);
+        Gauge.builder("jpashop.projector.failed.events", failedEvents, AtomicLong::get)
+                .description("반영하지 못하고 dead letter로 남은 주문 이벤트 수")
+                .register(meterRegistry);
+        this.projectedEvents = meterRegistry.counter("jpashop.projector.events");
+    }
+
+    @Scheduled(fixedDelayString = "${jpashop.projector.interval-millis:500}")
+    public void run() {
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            projectAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //미반영 이벤트를 더 이상 반영할 게 없을 때까지 반영. 반영한 이벤트 수
+    public int projectPending() {
+        lock.lock();
+        try {
+            return projectAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+        조회 모델 다시 만들기(replay)
+         - 이벤트로 만든 조회 모델(PLACED 이벤트가 있는 주문)을 비우고 모든 이벤트를 미반영으로 돌린 뒤 처음부터 다시 반영
+         - seed 데이터처럼 이벤트 없이 만든 조회 모델은 지우지 않음. 그 주문의 취소/배송완료 이벤트는 그대로 다시 반영됨
+         - 조회 모델 구조를 바꾸거나 반영 로직 버그로 데이터가 틀어졌을 때 사용(--rebuild-order-views)
+     */
+    public int rebuild() {
+        lock.lock();
+        try {
+            int reset = tx.execute(status -> {
+                orderViewRepository.deleteReplayable();
+                return orderEventRepository.resetProjected();
+            });
+            log.info("주문 조회 모델 rebuild 시작. 이벤트 {}건 재반영", reset);
+            return projectAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int projectAll() {
+        int total = 0;
+        int projected;
+        do {
+            projected = projectBatch();
+            total += projected;
+        } while (projected > 0);
+        updateLag();
+        return total;
+    }
+
+    //반영했거나 미룬 이벤트 수. 0이면 더 읽을 이벤트가 없음
+    private int projectBatch() {
+        try {
+            Integer handled = tx.execute(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                List<OrderEvent> events = orderEventRepository.findPending(batchSize, now);
+                if (events.isEmpty()) {
+                    return 0;
+                }
+                Set<Long> orderIds = events.stream().map(OrderEvent::getOrderId).collect(Collectors.toSet());
+                Map<Long, OrderView> views = orderViewRepository.findAllById(orderIds).stream()
+                        .collect(Collectors.toMap(OrderView::getId, Function.identity()));
+
+                //PLACED 먼저(정렬은 안정 정렬이므로 같은 종류끼리는 id 순서 유지)
+                List<OrderEvent> ordered = new ArrayList<>(events);
+                ordered.sort(Comparator.comparing(e -> e.getType() != OrderEventType.PLACED));
+
+                //반영할 이벤트 결정. 조회 모델이 없는 주문의 취소/배송완료는 미룸
+                Set<Long> placed = new HashSet<>(views.keySet());
+                List<OrderEvent> applicable = new ArrayList<>();
+                List<Long> deferred = new ArrayList<>();
+                for (OrderEvent event : ordered) {
+                    if (event.getType() == OrderEventType.PLACED) {
+                        placed.add(event.getOrderId());
+                        applicable.add(event);
+                    } else if (placed.contains(event.getOrderId())) {
+                        applicable.add(event);
+                    } else {
+                        deferred.add(event.getId());
+                    }
+                }
+
+                if (!applicable.isEmpty()) {
+                    //이벤트 차지. 다른 projector가 먼저 반영했으면 롤백
+                    List<Long> eventIds = applicable.stream().map(OrderEvent::getId).collect(Collectors.toList());
+                    if (orderEventRepository.markProjected(eventIds, now) != eventIds.size()) {
+                        status.setRollbackOnly();
+                        return 0;
+                    }
+                    for (OrderEvent event : applicable) {
+                        apply(event, views);
+                    }
+                    projectedEvents.increment(applicable.size());
+                }
+
+                if (!deferred.isEmpty()) {
+                    orderEventRepository.defer(deferred, now.plus(retryDelay));
+                    int failed = orderEventRepository.markFailed(deferred, maxAttempts, now);
+                    if (failed > 0) {
+                        log.warn("조회 모델이 없는 주문의 이벤트 {}건을 {}번 미뤘지만 반영하지 못해 dead letter로 남김", failed, maxAttempts);
+                    }
+                }
+                return applicable.size() + deferred.size();
+            });
+            return handled;
+        } catch (PessimisticLockingFailureException e) {
+            //다른 projector가 같은 이벤트를 오래 잡고 있음. 다음 실행에서 다시 시도
+            log.debug("주문 이벤트 반영 락 대기 실패", e);
+            return 0;
+        }
+    }
+
+    private void apply(OrderEvent event, Map<Long, OrderView> views) {
+        switch (event.getType()) {
+            case PLACED -> {
+                //rebuild 중이거나 중복 반영이면 이미 있음
+                if (!views.containsKey(event.getOrderId())) {
+                    views.put(event.getOrderId(), create(event));
+                }
+            }
+            case CANCELLED -> views.get(event.getOrderId()).setStatus(OrderStatus.CANCEL);
+            case DELIVERED -> views.get(event.getOrderId()).setDeliveryStatus(DeliveryStatus.COMP);
+        }
+    }
+
+    private OrderView create(OrderEvent event) {
+        OrderPlacedPayload payload = fromJson(event.getPayload());
+        OrderView view = new OrderView(event.getOrderId());
+        view.setMemberName(payload.getMemberName());
+        view.setOrderDate(payload.getOrderDate());
+        view.setStatus(OrderStatus.ORDER);
+        view.setAddress(new Address(payload.getCity(), payload.getStreet(), payload.getZipcode()));
+        view.setTotalPrice(payload.getTotalPrice());
+        view.setItemCount(payload.getItemCount());
+        orderViewRepository.save(view);
+
+        for (OrderPlacedPayload.Line line : payload.getLines()) {
+            orderViewRepository.save(new OrderItemView(line.getOrderItemId(), event.getOrderId(),
+                    line.getItemId(), line.getItemName(), line.getOrderPrice(), line.getCount()));
+        }
+        return view;
+    }
+
+    private OrderPlacedPayload fromJson(String payload) {
+        try {
+            return objectMapper.readValue(payload, OrderPlacedPayload.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("주문 이벤트 payload를 읽을 수 없습니다.", e);
+        }
+    }
+
+    private void updateLag() {
+        tx.executeWithoutResult(status -> {
+            pendingEvents.set(orderEventRepository.countPending());
+            failedEvents.set(orderEventRepository.countFailed());
+            LocalDateTime oldest = orderEventRepository.findOldestPending();
+            lagMillis.set(oldest == null ? 0 : Duration.between(oldest, LocalDateTime.now()).toMillis());
+        });
+    }
+}
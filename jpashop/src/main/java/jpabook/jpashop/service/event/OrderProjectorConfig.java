@@ -0,0 +1,34 @@
+package jpabook.jpashop.service.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/*
+    주문 조회 모델 projector 설정
+     - jpashop.projector.enabled=false 이면 스케줄러를 끔(여러 인스턴스 중 일부만 반영하게 할 때)
+     - 실행 인자 --rebuild-order-views 를 주면 기동할 때 조회 모델을 이벤트로부터 다시 만듦
+ */
+@Slf4j
+@Configuration
+public class OrderProjectorConfig {
+
+    @Configuration
+    @EnableScheduling
+    @ConditionalOnProperty(name = "jpashop.projector.enabled", havingValue = "true", matchIfMissing = true)
+    static class SchedulingConfig {
+    }
+
+    @Bean
+    public ApplicationRunner orderViewRebuildRunner(OrderProjector orderProjector) {
+        return args -> {
+            if (args.containsOption("rebuild-order-views")) {
+                int projected = orderProjector.rebuild();
+                log.info("주문 조회 모델 rebuild 완료. 이벤트 {}건 반영", projected);
+            }
+        };
+    }
+}
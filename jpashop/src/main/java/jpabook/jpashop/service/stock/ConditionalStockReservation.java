@@ -0,0 +1,32 @@
+package jpabook.jpashop.service.stock;
+
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.repository.ItemRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/*
+    update item set stock_quantity = stock_quantity - ? where item_id = ? and stock_quantity >= ?
+     - 재고 확인과 차감을 SQL 한번으로 처리. 재시도가 필요 없음
+     - 같은 상품 row 락을 커밋까지 잡고 있으므로 인기 상품은 주문이 row 락 순서대로 직렬화된다.
+ */
+@Component
+@ConditionalOnProperty(name = "jpashop.stock.strategy", havingValue = "conditional", matchIfMissing = true)
+@RequiredArgsConstructor
+public class ConditionalStockReservation implements StockReservation {
+
+    private final ItemRepository itemRepository;
+
+    @Override
+    public void reserve(Long itemId, int quantity) {
+        if (itemRepository.decreaseStock(itemId, quantity) == 0) {
+            throw new NotEnoughStockException("need more stock");
+        }
+    }
+
+    @Override
+    public void release(Long itemId, int quantity) {
+        itemRepository.increaseStock(itemId, quantity);
+    }
+}
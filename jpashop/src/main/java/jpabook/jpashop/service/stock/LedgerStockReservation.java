@@ -0,0 +1,160 @@
+package jpabook.jpashop.service.stock;
+
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.repository.ItemStock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+    DB 앞에 메모리 재고 장부(ledger)를 두는 전략
+     - 상품 id로 stripe를 골라 stripe 단위로만 잠금. 다른 상품 주문끼리는 서로 기다리지 않음
+     - 장부 재고가 부족하면 DB에 가지 않고 바로 NotEnoughStockException (품절 후 몰리는 주문을 DB 앞에서 거절)
+     - 장부에서 차감한 뒤 DB는 조건부 update로 한번 더 차감하므로, 장부가 틀려도(관리자 재고 수정, 다른 서버) 재고가 음수가 되지 않음
+     - DB 차감이 실패하면 장부를 버리고 다음 주문에서 DB 재고로 다시 채움
+     - 주문 트랜잭션이 롤백되면 장부에 다시 더해주고, 취소(release)는 커밋된 뒤에 장부에 더함
+     - 장부 재고가 부족해도 refreshMillis 가 지났으면 DB 재고를 다시 읽음(관리자가 재고를 채운 경우)
+     - 잠금은 synchronized 대신 ReentrantLock. 잠금 안에서 DB 재고를 읽으므로 synchronized면 가상 스레드가 carrier 스레드에 고정(pinning)됨
+ */
+@Component
+@ConditionalOnProperty(name = "jpashop.stock.strategy", havingValue = "ledger")
+public class LedgerStockReservation implements StockReservation {
+
+    private final ItemRepository itemRepository;
+    private final Stripe[] stripes;
+    private final long refreshMillis;
+
+    public LedgerStockReservation(ItemRepository itemRepository,
+                                  @Value("${jpashop.stock.ledger.stripes:64}") int stripes,
+                                  @Value("${jpashop.stock.ledger.refresh-millis:1000}") long refreshMillis) {
+        this.itemRepository = itemRepository;
+        this.refreshMillis = refreshMillis;
+        //stripe 수는 2의 거듭제곱으로 맞춰서 비트 연산으로 고름
+        this.stripes = new Stripe[Integer.highestOneBit(Math.max(1, stripes - 1)) << 1];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new Stripe();
+        }
+    }
+
+    private static class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<Long, Entry> entries = new HashMap<>();
+    }
+
+    private static class Entry {
+        private int available;
+        private final long loadedAt;
+
+        private Entry(int available, long loadedAt) {
+            this.available = available;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    @Override
+    public void reserve(Long itemId, int quantity) {
+        Stripe stripe = stripeOf(itemId);
+        stripe.lock.lock();
+        try {
+            Entry entry = stripe.entries.get(itemId);
+            if (entry == null || (entry.available < quantity && System.currentTimeMillis() - entry.loadedAt > refreshMillis)) {
+                entry = load(stripe, itemId);
+            }
+            if (entry == null || entry.available < quantity) {
+                throw new NotEnoughStockException("need more stock");
+            }
+            entry.available -= quantity;
+        } finally {
+            stripe.lock.unlock();
+        }
+        afterCompletion(itemId, quantity, false);
+
+        if (itemRepository.decreaseStock(itemId, quantity) == 0) {
+            //장부와 DB가 어긋남. 장부를 버리고 다음 주문에서 다시 읽음
+            evict(itemId);
+            throw new NotEnoughStockException("need more stock");
+        }
+    }
+
+    @Override
+    public void release(Long itemId, int quantity) {
+        itemRepository.increaseStock(itemId, quantity);
+        afterCompletion(itemId, quantity, true);
+    }
+
+    //장부에 있는 재고. 아직 읽지 않은 상품이면 null
+    public Integer available(Long itemId) {
+        Stripe stripe = stripeOf(itemId);
+        stripe.lock.lock();
+        try {
+            Entry entry = stripe.entries.get(itemId);
+            return entry == null ? null : entry.available;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    public void evict(Long itemId) {
+        Stripe stripe = stripeOf(itemId);
+        stripe.lock.lock();
+        try {
+            stripe.entries.remove(itemId);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private Stripe stripeOf(Long itemId) {
+        int h = itemId.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+    }
+
+    private Entry load(Stripe stripe, Long itemId) {
+        ItemStock stock = itemRepository.findStock(itemId);
+        if (stock == null) {
+            stripe.entries.remove(itemId);
+            return null;
+        }
+        Entry entry = new Entry(stock.getStockQuantity(), System.currentTimeMillis());
+        stripe.entries.put(itemId, entry);
+        return entry;
+    }
+
+    private void add(Long itemId, int quantity) {
+        Stripe stripe = stripeOf(itemId);
+        stripe.lock.lock();
+        try {
+            Entry entry = stripe.entries.get(itemId);
+            if (entry != null) {
+                entry.available += quantity;
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    //onCommit=false: 롤백되면 장부에 더함(차감 취소), onCommit=true: 커밋되면 장부에 더함(재고 복구)
+    private void afterCompletion(Long itemId, int quantity, boolean onCommit) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (onCommit) {
+                add(itemId, quantity);
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if ((status == STATUS_COMMITTED) == onCommit) {
+                    add(itemId, quantity);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,46 @@
+package jpabook.jpashop.service.stock;
+
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.repository.ItemStock;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+/*
+    Item.version 을 이용한 낙관적 락
+     - 재고/버전을 읽고, 버전이 그대로일 때만 재고를 바꾼다(compare-and-set)
+     - 다른 주문이 먼저 바꿨으면 0건 update -> OptimisticLockingFailureException
+     - 재시도는 StockConflictRetry가 트랜잭션 경계에서 함(같은 트랜잭션에서 다시 읽으면 같은 스냅샷을 읽으므로)
+ */
+@Component
+@ConditionalOnProperty(name = "jpashop.stock.strategy", havingValue = "optimistic")
+public class OptimisticStockReservation implements StockReservation {
+
+    private final ItemRepository itemRepository;
+
+    public OptimisticStockReservation(ItemRepository itemRepository) {
+        this.itemRepository = itemRepository;
+    }
+
+    @Override
+    public void reserve(Long itemId, int quantity) {
+        update(itemId, -quantity);
+    }
+
+    @Override
+    public void release(Long itemId, int quantity) {
+        update(itemId, quantity);
+    }
+
+    private void update(Long itemId, int delta) {
+        ItemStock stock = itemRepository.findStock(itemId);
+        int restStock = stock == null ? -1 : stock.getStockQuantity() + delta;
+        if (restStock < 0) {
+            throw new NotEnoughStockException("need more stock");
+        }
+        if (itemRepository.updateStock(itemId, stock.getVersion(), restStock) != 1) {
+            throw new OptimisticLockingFailureException("다른 주문이 먼저 재고를 변경했습니다. itemId=" + itemId);
+        }
+    }
+}
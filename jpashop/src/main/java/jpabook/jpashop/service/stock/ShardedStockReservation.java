@@ -0,0 +1,332 @@
+package jpabook.jpashop.service.stock;
+
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.repository.ItemStockShardRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+    인기 상품 재고를 shard 여러 행에 나눠서 차감하는 전략
+     - 인기 상품으로 지정(shard)하면 item 재고를 item_stock_shard 행 N개로 나눠 옮김. 지정하지 않은 상품은 conditional과 같이 item 행에서 차감
+     - 주문은 랜덤한 shard 하나를 조건부 update로 차감하므로, 같은 상품 주문이 item 행 하나의 락을 기다리지 않고 N개로 나뉨
+     - shard 하나로 모자라면 여러 shard에서 shard_no 오름차순으로 나눠 차감(잠그는 순서를 맞춰 데드락 방지). 다 합쳐도 모자라면 이미 뺀 것을 되돌리고 NotEnoughStockException
+     - shard마다 재고 >= 0 인 조건부 update이므로 shard 합계(= 판매 가능 재고)가 음수가 되지 않음(초과 판매 없음)
+     - 메모리에 shard별 재고를 들고 있다가 재고가 남은 shard만 골라서 update. 메모리 값은 힌트이고 DB update 결과가 기준
+        - 메모리로는 모자라도 DB에서 다시 읽어서 한번 더 시도(다른 서버가 취소로 재고를 채운 경우)
+     - item.stock_quantity(상품 목록에 보이는 재고)는 write-back-millis 마다 shard 합계를 한번에 옮겨 적음
+        - 한쪽 shard만 비면 shard를 잠그고 재고를 고르게 다시 나눔(rebalance)
+     - 인기 상품의 재고를 바꾸려면(관리자 수정) unshard -> 수정 -> shard. shard 중에 상품 수정으로 바꾼 재고는 write-back이 덮어씀
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "jpashop.stock.strategy", havingValue = "sharded")
+public class ShardedStockReservation implements StockReservation {
+
+    private final ItemStockShardRepository shardRepository;
+    private final TransactionTemplate tx;
+    private final int shards;
+
+    //인기 상품 id -> shard별 재고(메모리 힌트)
+    private final Map<Long, AtomicIntegerArray> hotItems = new ConcurrentHashMap<>();
+    //마지막 write-back 이후 이 서버에서 shard 재고를 바꿨는지
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    //스케줄러와 writeBack 직접 호출이 같이 돌지 않도록
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public ShardedStockReservation(ItemStockShardRepository shardRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${jpashop.stock.sharded.shards:8}") int shards) {
+        this.shardRepository = shardRepository;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.shards = shards;
+    }
+
+    @Override
+    public void reserve(Long itemId, int quantity) {
+        AtomicIntegerArray counts = hotItems.get(itemId);
+        if (counts == null) {
+            if (shardRepository.decreaseItemStock(itemId, quantity) == 1) {
+                return;
+            }
+            //재고 부족이거나 다른 서버에서 인기 상품으로 지정됨
+            counts = reload(itemId);
+            if (counts == null) {
+                throw new NotEnoughStockException("need more stock");
+            }
+        }
+        if (reserveShards(itemId, counts, quantity)) {
+            return;
+        }
+        //메모리 재고가 틀렸거나 그 사이 인기 상품이 해제됨. DB에서 다시 읽고 한번 더
+        counts = reload(itemId);
+        if (counts == null ? shardRepository.decreaseItemStock(itemId, quantity) == 0 : !reserveShards(itemId, counts, quantity)) {
+            throw new NotEnoughStockException("need more stock");
+        }
+    }
+
+    @Override
+    public void release(Long itemId, int quantity) {
+        AtomicIntegerArray counts = hotItems.get(itemId);
+        if (counts == null) {
+            if (shardRepository.increaseItemStock(itemId, quantity) == 1) {
+                return;
+            }
+            counts = reload(itemId);
+            if (counts == null) {
+                return; //상품이 없음
+            }
+        }
+        int shardNo = ThreadLocalRandom.current().nextInt(counts.length());
+        if (shardRepository.increase(itemId, shardNo, quantity) == 0) {
+            //인기 상품이 해제됨
+            hotItems.remove(itemId);
+            shardRepository.increaseItemStock(itemId, quantity);
+            return;
+        }
+        dirty.set(true);
+        afterCompletion(counts, shardNo, quantity, true);
+    }
+
+    /*
+        인기 상품으로 지정. item 재고를 shards 개로 나눠 옮김
+         - item 행을 잠그고 shard 수를 바꾸므로, 그 사이 item 행에서 차감하려던 주문은 지정이 커밋된 뒤 0건 update -> shard로 다시 시도
+         - 이미 인기 상품이거나 상품이 없으면 false
+     */
+    public boolean shard(Long itemId) {
+        int[] quantities = tx.execute(status -> {
+            int[] stock = shardRepository.lockItemStock(itemId);
+            if (stock == null || stock[1] > 0) {
+                return null;
+            }
+            int[] split = split(stock[0], shards);
+            shardRepository.insert(itemId, split);
+            shardRepository.updateItemShards(itemId, shards, stock[0]);
+            return split;
+        });
+        if (quantities == null) {
+            return false;
+        }
+        hotItems.put(itemId, new AtomicIntegerArray(quantities));
+        log.info("인기 상품 재고 shard 지정. itemId={}, shards={}", itemId, shards);
+        return true;
+    }
+
+    /*
+        인기 상품 해제. shard 합계를 item 재고로 돌려놓고 shard 행을 지움
+         - shard 행을 잠그므로 진행 중인 주문이 커밋할 때까지 기다림. 그 뒤 shard로 온 주문은 0건 update -> item 행으로 다시 시도
+         - 인기 상품이 아니면 false
+     */
+    public boolean unshard(Long itemId) {
+        Boolean unsharded = tx.execute(status -> {
+            int[] quantities = shardRepository.lockQuantities(itemId);
+            if (quantities.length == 0) {
+                return false;
+            }
+            shardRepository.updateItemShards(itemId, 0, sum(quantities));
+            shardRepository.delete(itemId);
+            return true;
+        });
+        hotItems.remove(itemId);
+        return Boolean.TRUE.equals(unsharded);
+    }
+
+    //shard별 재고(메모리). 인기 상품이 아니면 null
+    public int[] available(Long itemId) {
+        AtomicIntegerArray counts = hotItems.get(itemId);
+        if (counts == null) {
+            return null;
+        }
+        int[] result = new int[counts.length()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = counts.get(i);
+        }
+        return result;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Map<Long, int[]> all = shardRepository.findAll();
+        hotItems.keySet().retainAll(all.keySet());
+        all.forEach((itemId, quantities) -> hotItems.put(itemId, new AtomicIntegerArray(quantities)));
+    }
+
+    /*
+        item.stock_quantity에 shard 합계를 옮겨 적고, 메모리 재고를 DB 값으로 다시 맞춤
+         - 이 서버에서 shard 재고가 바뀌지 않았으면 건너뜀(update 하면 item 2차 캐시가 비워지므로)
+         - 다른 서버에서 지정/해제한 인기 상품도 여기서 반영
+     */
+    @Scheduled(fixedDelayString = "${jpashop.stock.sharded.write-back-millis:1000}")
+    public void run() {
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            writeBackAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void writeBack() {
+        lock.lock();
+        try {
+            writeBackAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void writeBackAll() {
+        if (dirty.getAndSet(false)) {
+            int updated = tx.execute(status -> shardRepository.writeBack());
+            log.debug("인기 상품 재고 write-back {}건", updated);
+        }
+        load();
+        hotItems.forEach((itemId, counts) -> {
+            if (needsRebalance(counts)) {
+                rebalance(itemId);
+            }
+        });
+    }
+
+    private boolean reserveShards(Long itemId, AtomicIntegerArray counts, int quantity) {
+        int n = counts.length();
+        int start = ThreadLocalRandom.current().nextInt(n);
+        for (int i = 0; i < n; i++) {
+            int shardNo = (start + i) % n;
+            if (counts.get(shardNo) >= quantity && shardRepository.decrease(itemId, shardNo, quantity) == 1) {
+                taken(counts, shardNo, quantity);
+                return true;
+            }
+        }
+
+        //shard 하나로 모자라면 여러 shard에서 나눠서 차감
+        //여러 행을 잠그므로 항상 shard_no 오름차순으로 잠가야 주문끼리 서로의 락을 기다리는 데드락이 없음
+        List<int[]> taken = new ArrayList<>();
+        int rest = quantity;
+        for (int shardNo = 0; shardNo < n && rest > 0; shardNo++) {
+            int take = Math.min(rest, counts.get(shardNo));
+            if (take > 0 && shardRepository.decrease(itemId, shardNo, take) == 1) {
+                taken.add(new int[]{shardNo, take});
+                rest -= take;
+            }
+        }
+        if (rest > 0) {
+            for (int[] t : taken) {
+                shardRepository.increase(itemId, t[0], t[1]);
+            }
+            return false;
+        }
+        for (int[] t : taken) {
+            taken(counts, t[0], t[1]);
+        }
+        return true;
+    }
+
+    private void taken(AtomicIntegerArray counts, int shardNo, int quantity) {
+        counts.addAndGet(shardNo, -quantity);
+        dirty.set(true);
+        afterCompletion(counts, shardNo, quantity, false);
+    }
+
+    private AtomicIntegerArray reload(Long itemId) {
+        int[] quantities = shardRepository.findQuantities(itemId);
+        if (quantities.length == 0) {
+            hotItems.remove(itemId);
+            return null;
+        }
+        AtomicIntegerArray counts = new AtomicIntegerArray(quantities);
+        hotItems.put(itemId, counts);
+        return counts;
+    }
+
+    //빈 shard가 있는데 다른 shard에는 고르게 나눌 만큼 재고가 남음
+    private boolean needsRebalance(AtomicIntegerArray counts) {
+        int total = 0;
+        boolean empty = false;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+            empty |= counts.get(i) == 0;
+        }
+        return empty && total >= counts.length();
+    }
+
+    //shard를 잠그고 재고를 고르게 다시 나눔
+    private void rebalance(Long itemId) {
+        int[] quantities = tx.execute(status -> {
+            int[] locked = shardRepository.lockQuantities(itemId);
+            if (locked.length == 0) {
+                return locked;
+            }
+            int[] split = split(sum(locked), locked.length);
+            shardRepository.update(itemId, split);
+            return split;
+        });
+        if (quantities.length == 0) {
+            hotItems.remove(itemId);
+        } else {
+            hotItems.put(itemId, new AtomicIntegerArray(quantities));
+        }
+    }
+
+    private static int[] split(int total, int n) {
+        int[] result = new int[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = total / n + (i < total % n ? 1 : 0);
+        }
+        return result;
+    }
+
+    private static int sum(int[] quantities) {
+        int total = 0;
+        for (int quantity : quantities) {
+            total += quantity;
+        }
+        return total;
+    }
+
+    //onCommit=false: 롤백되면 메모리 재고에 더함(차감 취소), onCommit=true: 커밋되면 메모리 재고에 더함(재고 복구)
+    private void afterCompletion(AtomicIntegerArray counts, int shardNo, int quantity, boolean onCommit) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (onCommit) {
+                counts.addAndGet(shardNo, quantity);
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if ((status == STATUS_COMMITTED) == onCommit) {
+                    counts.addAndGet(shardNo, quantity);
+                }
+            }
+        });
+    }
+
+    //write-back 스케줄러. projector를 꺼도(jpashop.projector.enabled=false) 돌아야 함
+    @Configuration
+    @EnableScheduling
+    @ConditionalOnProperty(name = "jpashop.stock.strategy", havingValue = "sharded")
+    static class SchedulingConfig {
+    }
+}
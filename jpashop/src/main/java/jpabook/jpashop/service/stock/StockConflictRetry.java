@@ -0,0 +1,49 @@
+package jpabook.jpashop.service.stock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+    재고 변경 충돌(OptimisticLockingFailureException)이 나면 트랜잭션을 새로 시작해서 다시 실행
+     - 같은 트랜잭션 안에서 다시 읽으면 영속성 컨텍스트와 (REPEATABLE READ면) 스냅샷이 그대로라 같은 값을 또 읽음
+     - 실패한 시도는 롤백되고, 다음 시도는 새 트랜잭션 + 새 영속성 컨텍스트로 처음부터 실행
+     - 이미 바깥 트랜잭션 안이면 그 트랜잭션에 참여하고 재시도하지 않음(롤백은 바깥 트랜잭션이 결정)
+     - maxAttempts 번 모두 실패하면 마지막 OptimisticLockingFailureException을 그대로 던짐
+ */
+@Component
+public class StockConflictRetry {
+
+    private final TransactionTemplate tx;
+    private final int maxAttempts;
+
+    public StockConflictRetry(PlatformTransactionManager transactionManager,
+                              @Value("${jpashop.stock.optimistic.max-attempts:50}") int maxAttempts) {
+        this.tx = new TransactionTemplate(transactionManager);
+        this.maxAttempts = maxAttempts;
+    }
+
+    public <T> T execute(TransactionCallback<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return tx.execute(action);
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return tx.execute(action);
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                //충돌한 주문끼리 같은 타이밍에 다시 부딪히지 않게 시도 횟수만큼 늘린 랜덤 대기
+                LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(attempt * 100_000L));
+            }
+        }
+    }
+}
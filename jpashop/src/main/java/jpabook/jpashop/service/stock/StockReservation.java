@@ -0,0 +1,14 @@
+package jpabook.jpashop.service.stock;
+
+/*
+    주문할 때 상품 재고를 차감/복구하는 전략
+     - 주문 트랜잭션 안에서 호출되고, 주문 트랜잭션이 롤백되면 차감도 같이 롤백된다.
+     - 재고가 부족하면 NotEnoughStockException
+     - jpashop.stock.strategy 로 선택 (conditional(기본), optimistic, ledger, sharded)
+ */
+public interface StockReservation {
+
+    void reserve(Long itemId, int quantity);
+
+    void release(Long itemId, int quantity);
+}
@@ -0,0 +1,43 @@
+package jpabook.jpashop.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/*
+    회원 조회 API 파라미터 검증
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class MemberApiControllerTest {
+
+    @Autowired MockMvc mockMvc;
+
+    @Test
+    public void 회원목록_limit_1미만_400() throws Exception {
+        mockMvc.perform(get("/api/v3/members").param("limit", "0")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v3/members").param("limit", "-5")).andExpect(status().isBadRequest());
+    }
+
+    //최대값보다 크면 최대값으로 줄여서 조회(limit + 1 오버플로 없음)
+    @Test
+    public void 회원목록_limit_최대값으로_줄임() throws Exception {
+        mockMvc.perform(get("/api/v3/members").param("limit", String.valueOf(Integer.MAX_VALUE)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data").isArray());
+    }
+
+    @Test
+    public void 회원내보내기_fetchSize_1미만_400() throws Exception {
+        mockMvc.perform(get("/api/v3/members/export").param("fetchSize", "0")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v3/members/export").param("fetchSize", "-1")).andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,98 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.monitor.SqlBudget;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/*
+    주문 조회 API별 SQL 실행 횟수 검증(InitDb의 주문 2건 기준)
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class OrderApiControllerTest {
+
+    @Autowired MockMvc mockMvc;
+
+    //fetch join 1번
+    @Test
+    @SqlBudget(statements = 1)
+    public void ordersV3() throws Exception {
+        mockMvc.perform(get("/api/v3/orders")).andExpect(status().isOk());
+    }
+
+    //ToOne fetch join 1 + orderItems batch 1 + item batch 1
+    @Test
+    @SqlBudget(statements = 3, repeat = 1)
+    public void ordersV3_page() throws Exception {
+        mockMvc.perform(get("/api/v3.1/orders")).andExpect(status().isOk());
+    }
+
+    @Test
+    @SqlBudget(statements = 3, repeat = 1)
+    public void ordersV3_cursor() throws Exception {
+        mockMvc.perform(get("/api/v3.2/orders")).andExpect(status().isOk());
+    }
+
+    @Test
+    public void ordersV3_cursor_badRequest() throws Exception {
+        mockMvc.perform(get("/api/v3.2/orders").param("limit", "0")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v3.2/orders").param("limit", "-1")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v3.2/orders").param("cursor", "not-a-cursor")).andExpect(status().isBadRequest());
+    }
+
+    //최대값보다 크면 최대값으로 줄여서 조회(limit + 1 오버플로 없음)
+    @Test
+    public void ordersV3_cursor_maxLimit() throws Exception {
+        mockMvc.perform(get("/api/v3.2/orders").param("limit", String.valueOf(Integer.MAX_VALUE)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data").isArray());
+    }
+
+    //루트 1 + 주문마다 orderItems 1
+    @Test
+    @SqlBudget(statements = 3)
+    public void ordersV4() throws Exception {
+        mockMvc.perform(get("/api/v4/orders")).andExpect(status().isOk());
+    }
+
+    //루트 1 + orderItems in 쿼리 1
+    @Test
+    @SqlBudget(statements = 2, repeat = 1)
+    public void ordersV5() throws Exception {
+        mockMvc.perform(get("/api/v5/orders")).andExpect(status().isOk());
+    }
+
+    @Test
+    @SqlBudget(statements = 1)
+    public void ordersV6() throws Exception {
+        mockMvc.perform(get("/api/v6/orders")).andExpect(status().isOk());
+    }
+
+    @Test
+    public void ordersV6_export_badFetchSize() throws Exception {
+        mockMvc.perform(get("/api/v6/orders/export").param("fetchSize", "0")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v6/orders/export").param("fetchSize", "-1")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @SqlBudget(statements = 1)
+    public void simpleOrdersV4() throws Exception {
+        mockMvc.perform(get("/api/v4/simple-orders")).andExpect(status().isOk());
+    }
+
+    //조회 모델에서 루트 1 + orderItems in 쿼리 1, 조인 없음
+    @Test
+    @SqlBudget(statements = 2, repeat = 1)
+    public void ordersV7() throws Exception {
+        mockMvc.perform(get("/api/v7/orders")).andExpect(status().isOk());
+    }
+}
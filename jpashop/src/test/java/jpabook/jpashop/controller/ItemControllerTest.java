@@ -0,0 +1,38 @@
+package jpabook.jpashop.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/*
+    상품 목록 화면 type 파라미터(InitDb의 도서 4권 기준)
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ItemControllerTest {
+
+    @Autowired MockMvc mockMvc;
+
+    //빈 type은 전체 목록
+    @Test
+    public void 빈_종류는_전체() throws Exception {
+        mockMvc.perform(get("/items").param("type", ""))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("<th>종류</th>")));
+    }
+
+    @Test
+    public void 모르는_종류는_400() throws Exception {
+        mockMvc.perform(get("/items").param("type", "toy"))
+                .andExpect(status().isBadRequest());
+    }
+}
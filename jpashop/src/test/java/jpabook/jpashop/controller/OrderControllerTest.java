@@ -0,0 +1,70 @@
+package jpabook.jpashop.controller;
+
+import jpabook.jpashop.monitor.SqlBudget;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/*
+    주문 목록 화면 스트리밍 렌더링(InitDb의 주문 2건 기준)
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class OrderControllerTest {
+
+    @Autowired MockMvc mockMvc;
+
+    //주문 + 회원 + 대표상품 한번에 1
+    @Test
+    @SqlBudget(statements = 1)
+    public void 주문목록() throws Exception {
+        mockMvc.perform(get("/orders"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/html;charset=UTF-8"))
+                .andExpect(content().string(allOf(
+                        containsString("userA"), containsString("JPA1 BOOK"),
+                        containsString("userB"), containsString("SPRING1 BOOK"),
+                        not(containsString("JPA2 BOOK")), //대표상품만
+                        containsString("</html>"),
+                        not(containsString("<!--rows-->")))));
+    }
+
+    @Test
+    public void 주문목록_검색() throws Exception {
+        mockMvc.perform(get("/orders").param("memberName", "userB"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(allOf(
+                        containsString("SPRING1 BOOK"),
+                        not(containsString("JPA1 BOOK")),
+                        containsString("value=\"userB\""))));
+    }
+
+    //1건 더 읽어서 다음 페이지가 있으면 페이지 이동 표시
+    @Test
+    public void 주문목록_페이지() throws Exception {
+        mockMvc.perform(get("/orders").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(allOf(
+                        containsString("class=\"pagination\""),
+                        containsString("/orders?page=1&amp;size=1"))));
+    }
+
+    //page * size가 int를 넘어도 offset이 넘치지 않게 줄여서 빈 목록
+    @Test
+    public void 주문목록_큰_페이지() throws Exception {
+        mockMvc.perform(get("/orders").param("page", String.valueOf(Integer.MAX_VALUE)).param("size", "1000"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(allOf(
+                        not(containsString("JPA1 BOOK")),
+                        containsString("</html>"))));
+    }
+}
@@ -0,0 +1,52 @@
+package jpabook.jpashop.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConnectionLimiterDataSourceTest {
+
+    ConnectionLimiterDataSource limiter = new ConnectionLimiterDataSource(
+            new DriverManagerDataSource("jdbc:h2:mem:limiter", "sa", ""), 2, 1000);
+
+    @Test
+    public void 허가_수만큼만_빌려주고_초과하면_대기_시간_초과() throws Exception {
+        try (Connection first = limiter.getConnection(); Connection second = limiter.getConnection()) {
+            assertThat(limiter.getInUse()).isEqualTo(2);
+            assertThatThrownBy(() -> limiter.getConnection()).isInstanceOf(SQLTransientConnectionException.class);
+        }
+        assertThat(limiter.getInUse()).isZero();
+    }
+
+    @Test
+    public void 반납되면_기다리던_스레드가_빌려감() throws Exception {
+        Connection first = limiter.getConnection();
+        Connection second = limiter.getConnection();
+
+        CompletableFuture<Connection> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.getConnection();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (limiter.getWaiting() == 0) {
+            Thread.sleep(1);
+        }
+        first.close();
+        first.close(); //두번 close해도 허가는 한번만 반납
+
+        try (Connection third = waiting.get(1, TimeUnit.SECONDS)) {
+            assertThat(limiter.getInUse()).isEqualTo(2);
+        }
+        second.close();
+        assertThat(limiter.getInUse()).isZero();
+    }
+}
@@ -0,0 +1,160 @@
+package jpabook.jpashop.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+    읽기/쓰기 분리 라우팅
+     - primary, replica-0, replica-1을 각각 별도의 H2 메모리 DB로 띄우고 node 테이블에 자기 이름을 넣어서 어디서 읽었는지 확인
+     - 복제는 replica_heartbeat 값을 테스트에서 직접 써서 흉내낸다.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    List<HikariDataSource> pools = new ArrayList<>();
+    HikariDataSource primary;
+    List<DataSource> replicas;
+    ReplicaLagMonitor lagMonitor;
+
+    @BeforeEach
+    void setUp() {
+        primary = createDatabase("primary");
+        replicas = List.of(createDatabase("replica-0"), createDatabase("replica-1"));
+        lagMonitor = new ReplicaLagMonitor(primary, replicas, 1000, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pools.forEach(pool -> new JdbcTemplate(pool).execute("drop all objects"));
+        pools.forEach(HikariDataSource::close);
+    }
+
+    private HikariDataSource createDatabase(String name) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1");
+        pool.setUsername("sa");
+        pool.setMaximumPoolSize(4);
+        pools.add(pool);
+
+        JdbcTemplate jdbc = new JdbcTemplate(pool);
+        jdbc.execute("create table node (name varchar(20))");
+        jdbc.update("insert into node values (?)", name);
+        return pool;
+    }
+
+    //primary의 heartbeat가 lagMillis 만큼 늦게 replica에 복제된 상태로 만듦
+    private void replicate(int replica, long now, long lagMillis) {
+        JdbcTemplate jdbc = new JdbcTemplate(replicas.get(replica));
+        jdbc.execute("create table if not exists replica_heartbeat (id int primary key, beat_at timestamp(3) not null)");
+        jdbc.update("merge into replica_heartbeat key (id) values (1, ?)", new Timestamp(now - lagMillis));
+    }
+
+    private Router router(ReadWriteRoutingDataSource.Selection selection) {
+        return new Router(new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(primary, replicas, selection, lagMonitor, meterRegistry)));
+    }
+
+    private double routes(String target, String reason) {
+        return meterRegistry.counter("jpashop.datasource.routes", "target", target, "reason", reason).count();
+    }
+
+    @Test
+    public void 쓰기는_primary_읽기는_replica_라운드로빈() {
+        long now = System.currentTimeMillis();
+        replicate(0, now, 0);
+        replicate(1, now, 0);
+        lagMonitor.check(now);
+        Router router = router(ReadWriteRoutingDataSource.Selection.ROUND_ROBIN);
+
+        assertThat(router.write()).isEqualTo("primary");
+        assertThat(List.of(router.read(), router.read(), router.read(), router.read()))
+                .containsExactly("replica-0", "replica-1", "replica-0", "replica-1");
+
+        //primary 쓰기 횟수는 LazyConnectionDataSourceProxy가 기본 autoCommit/격리수준을 확인하려고 얻는 커넥션도 포함되므로 비교하지 않음
+        assertThat(routes("replica-0", "read")).isEqualTo(2);
+        assertThat(routes("replica-1", "read")).isEqualTo(2);
+    }
+
+    @Test
+    public void 지연된_replica는_제외하고_모두_지연되면_primary() {
+        long now = System.currentTimeMillis();
+        replicate(0, now, 0);
+        replicate(1, now, 5000);
+        lagMonitor.check(now);
+        Router router = router(ReadWriteRoutingDataSource.Selection.ROUND_ROBIN);
+
+        assertThat(lagMonitor.getLagMillis(1)).isEqualTo(5000);
+        assertThat(List.of(router.read(), router.read(), router.read())).containsOnly("replica-0");
+
+        replicate(0, now, 2000);
+        lagMonitor.check(now);
+        assertThat(router.read()).isEqualTo("primary");
+        assertThat(routes("primary", "fallback")).isEqualTo(1);
+
+        //복제가 따라잡으면 다시 replica에서 읽음
+        replicate(1, now, 0);
+        lagMonitor.check(now);
+        assertThat(router.read()).isEqualTo("replica-1");
+    }
+
+    @Test
+    public void 지연_측정_전이나_replica_장애시_primary() {
+        Router router = router(ReadWriteRoutingDataSource.Selection.ROUND_ROBIN);
+        assertThat(router.read()).isEqualTo("primary");
+
+        //replica에 heartbeat 테이블이 없음 = 측정 실패
+        lagMonitor.check(System.currentTimeMillis());
+        assertThat(router.read()).isEqualTo("primary");
+        assertThat(routes("primary", "fallback")).isEqualTo(2);
+    }
+
+    @Test
+    public void 사용중인_커넥션이_적은_replica_선택() throws Exception {
+        long now = System.currentTimeMillis();
+        replicate(0, now, 0);
+        replicate(1, now, 0);
+        lagMonitor.check(now);
+        Router router = router(ReadWriteRoutingDataSource.Selection.LEAST_LOADED);
+
+        try (Connection busy = replicas.get(0).getConnection()) {
+            assertThat(List.of(router.read(), router.read(), router.read())).containsOnly("replica-1");
+        }
+    }
+
+    static class Router {
+        final JdbcTemplate jdbc;
+        final TransactionTemplate tx;
+        final TransactionTemplate readOnlyTx;
+
+        Router(DataSource dataSource) {
+            DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+            jdbc = new JdbcTemplate(dataSource);
+            tx = new TransactionTemplate(transactionManager);
+            readOnlyTx = new TransactionTemplate(transactionManager);
+            readOnlyTx.setReadOnly(true);
+        }
+
+        String write() {
+            return tx.execute(status -> jdbc.queryForObject("select name from node", String.class));
+        }
+
+        String read() {
+            return readOnlyTx.execute(status -> jdbc.queryForObject("select name from node", String.class));
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package jpabook.jpashop.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.service.MemberService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+    JPA 트랜잭션(@Transactional(readOnly = true))도 replica로 라우팅되는지 확인
+     - replica url을 primary와 같은 DB로 지정해서 복제 지연이 없는 replica를 흉내냄
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-app;DB_CLOSE_DELAY=-1",
+        "jpashop.datasource.replica.urls=jdbc:h2:mem:routing-app;DB_CLOSE_DELAY=-1",
+        "jpashop.datasource.replica.check-interval-millis=50",
+        "jpashop.projector.enabled=false"})
+class ReplicaRoutingConfigTest {
+
+    @Autowired MemberService memberService;
+    @Autowired MeterRegistry meterRegistry;
+
+    private double routes(String target, String reason) {
+        return meterRegistry.counter("jpashop.datasource.routes", "target", target, "reason", reason).count();
+    }
+
+    @Test
+    public void 읽기_전용_트랜잭션은_replica() throws Exception {
+        //첫 지연 측정이 끝날 때까지 대기
+        for (int i = 0; i < 100 && Double.isNaN(meterRegistry.get("jpashop.datasource.replica.lag").gauge().value()); i++) {
+            Thread.sleep(50);
+        }
+
+        Member member = new Member();
+        member.setName("routing " + System.nanoTime());
+        double writes = routes("primary", "write");
+        memberService.join(member);
+        assertThat(routes("primary", "write")).isGreaterThan(writes);
+
+        double reads = routes("replica-0", "read");
+        assertThat(memberService.findMembers()).extracting(Member::getName).contains(member.getName());
+        assertThat(routes("replica-0", "read")).isEqualTo(reads + 1);
+    }
+}
@@ -0,0 +1,24 @@
+package jpabook.jpashop.monitor;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/*
+    테스트 메서드 실행 중 SQL 실행 횟수 상한
+     - statements: 전체 SQL 수 상한
+     - repeat: 같은 SQL의 반복 실행 상한(N+1 방지)
+     - @BeforeEach에서 실행된 SQL은 포함하지 않음
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(SqlBudgetExtension.class)
+public @interface SqlBudget {
+
+    int statements();
+
+    int repeat() default Integer.MAX_VALUE;
+}
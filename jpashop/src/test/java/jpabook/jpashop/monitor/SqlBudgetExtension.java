@@ -0,0 +1,32 @@
+package jpabook.jpashop.monitor;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SqlBudgetExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(SqlBudgetExtension.class);
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        SqlBudget budget = context.getRequiredTestMethod().getAnnotation(SqlBudget.class);
+        context.getStore(NAMESPACE).put("statistics", SqlStatistics.begin(budget.repeat(), false));
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        SqlBudget budget = context.getRequiredTestMethod().getAnnotation(SqlBudget.class);
+        SqlStatistics statistics = context.getStore(NAMESPACE).remove("statistics", SqlStatistics.class);
+        SqlStatistics.end(statistics);
+
+        assertThat(statistics.getStatements())
+                .as("SQL 실행 횟수 %s", statistics.getShapeCounts())
+                .isLessThanOrEqualTo(budget.statements());
+        assertThat(statistics.getMaxRepeat())
+                .as("같은 SQL 반복 실행 %s", statistics.getShapeCounts())
+                .isLessThanOrEqualTo(budget.repeat());
+    }
+}
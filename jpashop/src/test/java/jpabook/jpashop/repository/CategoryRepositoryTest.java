@@ -0,0 +1,120 @@
+package jpabook.jpashop.repository;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.monitor.SqlBudget;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class CategoryRepositoryTest {
+
+    @Autowired CategoryRepository categoryRepository;
+    @Autowired EntityManager em;
+
+    //도서 > 컴퓨터 > 프로그래밍 > 자바, 도서 > 소설
+    Category book;
+    Category computer;
+    Category programming;
+    Category java;
+    Category novel;
+
+    @BeforeEach
+    void setUp() {
+        book = createCategory("도서", null);
+        computer = createCategory("컴퓨터", book);
+        programming = createCategory("프로그래밍", computer);
+        java = createCategory("자바", programming);
+        novel = createCategory("소설", book);
+
+        createItem("JPA", computer, java); //두 카테고리에 걸린 상품
+        createItem("스프링", java);
+        createItem("알고리즘", programming);
+        createItem("소년이 온다", novel);
+        em.flush();
+        em.clear();
+    }
+
+    private Category createCategory(String name, Category parent) {
+        Category category = new Category();
+        category.setName(name);
+        if (parent != null) {
+            parent.addChildCategory(category);
+        }
+        categoryRepository.save(category);
+        return category;
+    }
+
+    private void createItem(String name, Category... categories) {
+        Book item = new Book();
+        item.setName(name);
+        em.persist(item);
+        for (Category category : categories) {
+            category.getItems().add(item);
+        }
+    }
+
+    @Test
+    public void 경로() {
+        assertThat(book.getPath()).isEqualTo("/");
+        assertThat(java.getPath()).isEqualTo("/" + book.getId() + "/" + computer.getId() + "/" + programming.getId() + "/");
+        assertThat(java.getDepth()).isEqualTo(3);
+    }
+
+    //리포지토리를 거치지 않고 persist 해도 @PrePersist에서 경로가 정해짐
+    @Test
+    public void 직접_persist해도_경로() {
+        Category parent = categoryRepository.findOne(computer.getId());
+        Category child = new Category();
+        child.setName("데이터베이스");
+        parent.addChildCategory(child);
+        em.persist(child);
+
+        assertThat(child.getPath()).isEqualTo("/" + book.getId() + "/" + computer.getId() + "/");
+        assertThat(child.getDepth()).isEqualTo(2);
+    }
+
+    @Test
+    @SqlBudget(statements = 2)
+    public void 하위카테고리_전체() {
+        Category root = categoryRepository.findOne(book.getId());
+
+        assertThat(categoryRepository.findDescendants(root))
+                .extracting(Category::getName)
+                .containsExactly("컴퓨터", "소설", "프로그래밍", "자바");
+    }
+
+    @Test
+    @SqlBudget(statements = 2)
+    public void 루트까지_경로() {
+        Category leaf = categoryRepository.findOne(java.getId());
+
+        assertThat(categoryRepository.findBreadcrumb(leaf))
+                .extracting(Category::getName)
+                .containsExactly("도서", "컴퓨터", "프로그래밍", "자바");
+    }
+
+    //카테고리 조회 1 + 상품 1 + count 1
+    @Test
+    @SqlBudget(statements = 3)
+    public void 서브트리_상품_페이징() {
+        Category category = categoryRepository.findOne(computer.getId());
+
+        Page<Item> page = categoryRepository.findItemsInSubtree(category, PageRequest.of(0, 2));
+
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        assertThat(page.getContent()).extracting(Item::getName).containsExactly("JPA", "스프링");
+    }
+}
@@ -0,0 +1,129 @@
+package jpabook.jpashop.repository;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.domain.*;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.service.stock.StockReservation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class OrderRepositoryTest {
+
+    @Autowired OrderRepository orderRepository;
+    @Autowired EntityManager em;
+    @Autowired StockReservation stockReservation;
+
+    @BeforeEach
+    void setUp() {
+        Book book = new Book();
+        book.setName("JPA BOOK");
+        book.setPrice(10000);
+        book.setStockQuantity(100);
+        em.persist(book);
+
+        createOrder("kim", book, false);
+        createOrder("kimchi", book, true);
+        createOrder("lee", book, false);
+        createOrder("k%m", book, false);
+        em.flush();
+        em.clear();
+    }
+
+    private void createOrder(String name, Book book, boolean cancel) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "1", "1111"));
+        em.persist(member);
+
+        Delivery delivery = new Delivery();
+        delivery.setAddress(member.getAddress());
+        Order order = Order.createOrder(member, delivery, OrderItem.createOrderItem(book, book.getPrice(), 1));
+        if (cancel) {
+            order.cancel(stockReservation);
+        }
+        em.persist(order);
+    }
+
+    @Test
+    public void 회원명_앞부분_검색() {
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName("kim");
+
+        List<Order> orders = orderRepository.findAll(orderSearch);
+
+        assertThat(orders).extracting(o -> o.getMember().getName())
+                .containsExactlyInAnyOrder("kim", "kimchi");
+    }
+
+    @Test
+    public void 검색어_와일드카드_무시() {
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName("k%");
+
+        List<Order> orders = orderRepository.findAll(orderSearch);
+
+        assertThat(orders).extracting(o -> o.getMember().getName()).containsExactly("k%m");
+    }
+
+    @Test
+    public void 상태_회원명_같이_검색() {
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName("kim");
+        orderSearch.setOrderStatus(OrderStatus.CANCEL);
+
+        List<Order> orders = orderRepository.findAll(orderSearch);
+
+        assertThat(orders).extracting(o -> o.getMember().getName()).containsExactly("kimchi");
+    }
+
+    @Test
+    public void 페이징_정렬() {
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setOrderStatus(OrderStatus.ORDER);
+
+        Page<Order> page = orderRepository.findAll(orderSearch,
+                PageRequest.of(0, 2, Sort.by("memberName")));
+
+        assertThat(page.getTotalElements()).isGreaterThanOrEqualTo(3);
+        assertThat(page.getContent()).hasSize(2);
+        String first = page.getContent().get(0).getMember().getName();
+        String second = page.getContent().get(1).getMember().getName();
+        assertThat(first).isLessThanOrEqualTo(second);
+    }
+
+    @Test
+    public void 목록_스트리밍_정렬_주문상품없는_주문포함() {
+        Member member = new Member();
+        member.setName("kimEmpty");
+        member.setAddress(new Address("서울", "1", "1111"));
+        em.persist(member);
+        Delivery delivery = new Delivery();
+        delivery.setAddress(member.getAddress());
+        em.persist(Order.createOrder(member, delivery));
+        em.flush();
+        em.clear();
+
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName("kim");
+        List<OrderRowDTO> rows = new ArrayList<>();
+
+        orderRepository.streamRows(orderSearch, 0, 10, Sort.by("memberName"), 100, rows::add);
+
+        assertThat(rows).extracting(OrderRowDTO::getMemberName).containsExactly("kim", "kimEmpty", "kimchi");
+        assertThat(rows.get(1).getItemName()).isNull();
+        assertThat(orderRepository.count(orderSearch)).isEqualTo(3);
+    }
+}
@@ -0,0 +1,94 @@
+package jpabook.jpashop.repository.item.query;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.domain.item.Album;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Movie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+@Transactional
+class ItemQueryRepositoryTest {
+
+    @Autowired ItemQueryRepository itemQueryRepository;
+    @Autowired EntityManager em;
+
+    Book book;
+    Album album;
+    Movie movie;
+
+    @BeforeEach
+    void setUp() {
+        book = new Book();
+        book.setName("JPA BOOK");
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        book.setAuthor("김영한");
+        book.setIsbn("1234");
+        em.persist(book);
+
+        album = new Album();
+        album.setName("ALBUM");
+        album.setPrice(20000);
+        album.setStockQuantity(20);
+        album.setArtist("아이유");
+        em.persist(album);
+
+        movie = new Movie();
+        movie.setName("MOVIE");
+        movie.setPrice(30000);
+        movie.setStockQuantity(30);
+        movie.setDirector("봉준호");
+        movie.setActor("송강호");
+        em.persist(movie);
+
+        em.flush();
+        em.clear();
+    }
+
+    //다른 테스트가 커밋한 상품이 섞일 수 있으므로 여기서 만든 상품만 확인
+    private boolean mine(Long id) {
+        return List.of(book.getId(), album.getId(), movie.getId()).contains(id);
+    }
+
+    @Test
+    public void 상품목록_종류포함() throws Exception {
+        List<ItemSummaryDTO> result = itemQueryRepository.findSummaries(book.getId() - 1, 100);
+
+        assertThat(result).filteredOn(i -> mine(i.getId())).extracting("id", "type", "name", "price")
+                .containsExactly(
+                        tuple(book.getId(), "Book", "JPA BOOK", 10000),
+                        tuple(album.getId(), "Album", "ALBUM", 20000),
+                        tuple(movie.getId(), "Movie", "MOVIE", 30000));
+    }
+
+    @Test
+    public void 종류별_목록() throws Exception {
+        List<BookDTO> books = itemQueryRepository.findBooks(book.getId() - 1, 100);
+        List<AlbumDTO> albums = itemQueryRepository.findAlbums(book.getId() - 1, 100);
+        List<MovieDTO> movies = itemQueryRepository.findMovies(book.getId() - 1, 100);
+
+        assertThat(books).filteredOn(i -> mine(i.getId())).extracting("id", "author", "isbn").containsExactly(tuple(book.getId(), "김영한", "1234"));
+        assertThat(albums).filteredOn(i -> mine(i.getId())).extracting("id", "artist").containsExactly(tuple(album.getId(), "아이유"));
+        assertThat(movies).filteredOn(i -> mine(i.getId())).extracting("id", "director", "actor").containsExactly(tuple(movie.getId(), "봉준호", "송강호"));
+    }
+
+    @Test
+    public void 키셋_페이징() throws Exception {
+        List<ItemSummaryDTO> first = itemQueryRepository.findSummaries(book.getId() - 1, 2);
+        List<ItemSummaryDTO> next = itemQueryRepository.findSummaries(first.get(1).getId(), 2);
+
+        assertThat(first).extracting("id").startsWith(book.getId());
+        assertThat(next.get(0).getId()).isGreaterThan(first.get(1).getId());
+        assertThat(first).extracting("id").doesNotContainAnyElementsOf(next.stream().map(ItemSummaryDTO::getId).toList());
+    }
+}
@@ -0,0 +1,92 @@
+package jpabook.jpashop.seed;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.service.MemberService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+    seed 프로필 데이터 생성
+     - 다른 테스트와 DB를 같이 쓰면 데이터 수가 바뀌므로 별도 메모리 DB 사용
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:seed;DB_CLOSE_DELAY=-1",
+        "jpashop.projector.enabled=false",
+        "jpashop.seed.members=200",
+        "jpashop.seed.items=1000",
+        "jpashop.seed.orders=500",
+        "jpashop.seed.category-fanout=3",
+        "jpashop.seed.category-depth=2",
+        "jpashop.seed.threads=2",
+        "jpashop.seed.batch-size=64"
+})
+@ActiveProfiles("seed")
+class DataSeederTest {
+
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired MemberService memberService;
+
+    @Test
+    public void 데이터_생성() throws Exception {
+        //InitDb 대신 생성한 데이터만 있음
+        assertThat(count("select count(*) from member")).isEqualTo(200);
+        assertThat(count("select count(*) from item")).isEqualTo(1000);
+        assertThat(count("select count(*) from orders")).isEqualTo(500);
+        assertThat(count("select count(*) from delivery")).isEqualTo(500);
+        assertThat(count("select count(*) from category")).isEqualTo(3 + 9);
+
+        //말단 카테고리에만 상품이 있음
+        assertThat(count("select count(*) from category_item ci join category c on c.category_id = ci.category_id" +
+                " where c.depth <> 1")).isZero();
+        assertThat(count("select count(distinct item_id) from category_item")).isEqualTo(1000);
+
+        //상품 종류 비율 Book > Album > Movie
+        long books = count("select count(*) from item where dtype = 'B'");
+        long albums = count("select count(*) from item where dtype = 'A'");
+        long movies = count("select count(*) from item where dtype = 'M'");
+        assertThat(books).isGreaterThan(albums);
+        assertThat(albums).isGreaterThan(movies);
+
+        //인기 회원(id가 가장 작은 회원)에게 주문이 몰림
+        assertThat(count("select count(*) from orders where member_id = (select min(member_id) from member)"))
+                .isGreaterThan(10);
+    }
+
+    @Test
+    public void 주문_총액_집계_조회모델_일치() throws Exception {
+        //주문 총액 = 주문상품 합계
+        assertThat(count("select count(*) from orders o where o.total_price <>" +
+                " (select sum(oi.order_price * oi.count) from order_item oi where oi.order_id = o.order_id)")).isZero();
+
+        //일별 매출 합계 = 주문상품 합계
+        assertThat(count("select sum(amount) from daily_revenue"))
+                .isEqualTo(count("select sum(order_price * count) from order_item"));
+
+        //조회 모델
+        assertThat(count("select count(*) from order_view")).isEqualTo(500);
+        assertThat(count("select count(*) from order_item_view"))
+                .isEqualTo(count("select count(*) from order_item"));
+    }
+
+    @Test
+    public void 생성후_시퀀스_이동() throws Exception {
+        long maxId = count("select max(member_id) from member");
+
+        Member member = new Member();
+        member.setName("생성후가입");
+        member.setAddress(new Address("서울", "1", "11111"));
+        Long id = memberService.join(member);
+
+        assertThat(id).isGreaterThan(maxId);
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
@@ -0,0 +1,118 @@
+package jpabook.jpashop.service;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.exception.ItemNotFoundException;
+import jpabook.jpashop.exception.MemberNotFoundException;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.monitor.SqlBudget;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class BulkOrderServiceTest {
+
+    @Autowired BulkOrderService bulkOrderService;
+    @Autowired EntityManager em;
+
+    List<Member> members = new ArrayList<>();
+    Book book1;
+    Book book2;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 10; i++) {
+            Member member = new Member();
+            member.setName("대량회원" + i);
+            member.setAddress(new Address("서울", "강가", "123-123"));
+            em.persist(member);
+            members.add(member);
+        }
+        book1 = createBook("시골 JPA", 10000);
+        book2 = createBook("토비 스프링", 20000);
+        em.flush();
+        em.clear();
+    }
+
+    private Book createBook(String name, int price) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(price);
+        book.setStockQuantity(10000);
+        em.persist(book);
+        return book;
+    }
+
+    //주문 1000건 x 주문상품 2개: 상품 존재 확인 1 + 재고 update 2 + 상품 조회 1 + 청크(500건)마다 회원 조회 1 + 시퀀스 + 배치 insert(주문 이벤트 포함)
+    @Test
+    @SqlBudget(statements = 121, repeat = 25)
+    public void 대량주문() throws Exception {
+        List<BulkOrder> bulkOrders = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            bulkOrders.add(new BulkOrder(members.get(i % members.size()).getId(), List.of(
+                    new BulkOrder.Line(book1.getId(), 1),
+                    new BulkOrder.Line(book2.getId(), 2))));
+        }
+
+        //when
+        List<Long> orderIds = bulkOrderService.order(bulkOrders);
+
+        //then
+        assertThat(orderIds).hasSize(1000).doesNotHaveDuplicates();
+        Order order = em.find(Order.class, orderIds.get(999));
+        assertThat(order.getMember().getId()).isEqualTo(members.get(9).getId());
+        assertThat(order.getTotalPrice()).isEqualTo(10000 + 20000 * 2);
+        assertThat(em.find(Item.class, book1.getId()).getStockQuantity()).isEqualTo(10000 - 1000);
+        assertThat(em.find(Item.class, book2.getId()).getStockQuantity()).isEqualTo(10000 - 2000);
+    }
+
+    @Test
+    public void 대량주문_재고부족() throws Exception {
+        List<BulkOrder> bulkOrders = List.of(
+                new BulkOrder(members.get(0).getId(), List.of(new BulkOrder.Line(book1.getId(), 6000))),
+                new BulkOrder(members.get(1).getId(), List.of(new BulkOrder.Line(book1.getId(), 6000))));
+
+        assertThatThrownBy(() -> bulkOrderService.order(bulkOrders))
+                .isInstanceOf(NotEnoughStockException.class);
+    }
+
+    @Test
+    public void 대량주문_없는상품() throws Exception {
+        List<BulkOrder> bulkOrders = List.of(
+                new BulkOrder(members.get(0).getId(), List.of(
+                        new BulkOrder.Line(book1.getId(), 1),
+                        new BulkOrder.Line(-1L, 1))));
+
+        assertThatThrownBy(() -> bulkOrderService.order(bulkOrders))
+                .isInstanceOf(ItemNotFoundException.class)
+                .hasMessageContaining("-1");
+        assertThat(em.find(Item.class, book1.getId()).getStockQuantity()).isEqualTo(10000);
+    }
+
+    @Test
+    public void 대량주문_없는회원() throws Exception {
+        List<BulkOrder> bulkOrders = List.of(
+                new BulkOrder(members.get(0).getId(), List.of(new BulkOrder.Line(book1.getId(), 1))),
+                new BulkOrder(-1L, List.of(new BulkOrder.Line(book1.getId(), 1))));
+
+        assertThatThrownBy(() -> bulkOrderService.order(bulkOrders))
+                .isInstanceOf(MemberNotFoundException.class)
+                .hasMessageContaining("-1");
+    }
+}
@@ -0,0 +1,94 @@
+package jpabook.jpashop.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+    상품 2차 캐시, 쿼리 캐시
+     - 캐시는 커밋된 뒤에 채워지므로 테스트에 @Transactional을 붙이지 않음
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ItemServiceTest {
+
+    @Autowired ItemService itemService;
+    @Autowired OrderService orderService;
+    @Autowired MemberService memberService;
+    @Autowired EntityManagerFactory emf;
+
+    Statistics statistics;
+    Book book;
+
+    @BeforeEach
+    void setUp() {
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+
+        book = new Book();
+        book.setName("캐시 JPA " + System.nanoTime());
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        itemService.saveItem(book);
+    }
+
+    @Test
+    public void 상품목록_쿼리캐시() throws Exception {
+        itemService.findItems();
+
+        //when
+        long queries = statistics.getPrepareStatementCount();
+        long hits = statistics.getQueryCacheHitCount();
+        List<Item> items = itemService.findItems();
+
+        //then
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(queries);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(hits + 1);
+        assertThat(items).extracting(Item::getName).contains(book.getName());
+    }
+
+    @Test
+    public void 상품수정_캐시무효화() throws Exception {
+        itemService.findItems();
+        itemService.findOne(book.getId());
+
+        //when
+        itemService.updateItem(book.getId(), "수정된 상품", 20000, 5);
+
+        //then
+        assertThat(itemService.findOne(book.getId()).getName()).isEqualTo("수정된 상품");
+        assertThat(itemService.findItems()).extracting(Item::getName).contains("수정된 상품");
+    }
+
+    @Test
+    public void 재고변경_캐시무효화() throws Exception {
+        Member member = new Member();
+        member.setName("캐시회원 " + System.nanoTime());
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        Long memberId = memberService.join(member);
+        itemService.findItems();
+        itemService.findOne(book.getId());
+
+        //when
+        orderService.order(memberId, book.getId(), 3);
+
+        //then
+        assertThat(itemService.findOne(book.getId()).getStockQuantity()).isEqualTo(7);
+        assertThat(itemService.findItems())
+                .filteredOn(item -> item.getId().equals(book.getId()))
+                .extracting(Item::getStockQuantity)
+                .containsExactly(7);
+    }
+}
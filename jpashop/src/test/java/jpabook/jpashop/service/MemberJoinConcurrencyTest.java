@@ -0,0 +1,84 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Member;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/*
+    회원명 유니크 제약
+     - 동시 가입은 각자 커밋해야 경쟁이 생기므로 테스트에 @Transactional을 붙이지 않음
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class MemberJoinConcurrencyTest {
+
+    @Autowired MemberService memberService;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void 필터가_모르는_중복회원_예외() throws Exception {
+        //given: MemberService를 거치지 않고 저장해서 블룸 필터에는 없는 이름
+        String name = "직접저장 " + System.nanoTime();
+        jdbcTemplate.update("insert into member (member_id, name) values (?, ?)", -System.nanoTime(), name);
+
+        Member member = new Member();
+        member.setName(name);
+
+        //when, then: 중복 검증은 건너뛰지만 유니크 제약 위반이 같은 예외로 바뀜
+        assertThatThrownBy(() -> memberService.join(member))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("이미 존재하는 회원입니다.");
+    }
+
+    @Test
+    public void 동시_회원가입_한명만_성공() throws Exception {
+        //given
+        String name = "동시가입 " + System.nanoTime();
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger duplicated = new AtomicInteger();
+
+        //when
+        List<Future<Long>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                Member member = new Member();
+                member.setName(name);
+                start.await();
+                try {
+                    return memberService.join(member);
+                } catch (IllegalStateException e) {
+                    duplicated.incrementAndGet();
+                    return null;
+                }
+            }));
+        }
+        start.countDown();
+
+        int joined = 0;
+        for (Future<Long> future : futures) {
+            if (future.get(30, TimeUnit.SECONDS) != null) {
+                joined++;
+            }
+        }
+        executor.shutdown();
+
+        //then
+        assertThat(joined).isEqualTo(1);
+        assertThat(duplicated.get()).isEqualTo(threads - 1);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from member where name = ?", Long.class, name))
+                .isEqualTo(1);
+    }
+}
@@ -2,6 +2,8 @@ package jpabook.jpashop.service;
 
 import jakarta.persistence.EntityManager;
 import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.monitor.SqlBudget;
+import jpabook.jpashop.repository.MemberNameDTO;
 import jpabook.jpashop.repository.MemberRepository;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -10,6 +12,10 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 
 
@@ -22,6 +28,7 @@ class MemberServiceTest {
     @Autowired EntityManager em;
 
     @Test
+    @SqlBudget(statements = 3) //중복 검증 select 1(블룸 필터에 없으면 생략) + insert 1 (+ 시퀀스)
    // @Rollback(false) // rollback을해서 transactional 무시하고 insert되게 해줌
     public void 회원가입() throws Exception{
         //given
@@ -55,4 +62,27 @@ class MemberServiceTest {
         fail("예외가 발생해야 한다.");
     }
 
-}
\ No newline at end of file
+    //InitDb의 회원(userA, userB) 기준. 다른 테스트 컨텍스트가 커밋한 회원이 섞여 있을 수 있으므로 회원을 새로 만들지 않고 검증
+    @Test
+    public void 회원목록_키셋_페이징_스트리밍() throws Exception{
+        //when: 마지막 페이지까지 next 커서로 조회
+        List<MemberNameDTO> paged = new ArrayList<>();
+        Long after = null;
+        while (true) {
+            List<MemberNameDTO> page = memberService.findMemberNames(after, 10);
+            paged.addAll(page);
+            if (page.size() < 10) {
+                break;
+            }
+            after = page.get(page.size() - 1).getId();
+        }
+        List<MemberNameDTO> streamed = new ArrayList<>();
+        memberService.streamMemberNames(2, streamed::add);
+
+        //then: 중복, 누락 없이 id 순서
+        assertThat(paged).extracting(MemberNameDTO::getId).isSorted().doesNotHaveDuplicates()
+                .hasSize(memberService.findMembers().size());
+        assertThat(paged).extracting(MemberNameDTO::getName).contains("userA", "userB");
+        assertThat(streamed).isEqualTo(paged);
+    }
+}
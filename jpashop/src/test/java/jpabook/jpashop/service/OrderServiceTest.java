@@ -0,0 +1,82 @@
+package jpabook.jpashop.service;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.monitor.SqlBudget;
+import jpabook.jpashop.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class OrderServiceTest {
+
+    @Autowired OrderService orderService;
+    @Autowired OrderRepository orderRepository;
+    @Autowired EntityManager em;
+
+    Member member;
+    Book book;
+
+    @BeforeEach
+    void setUp() {
+        member = new Member();
+        member.setName("회원1");
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        em.persist(member);
+
+        book = new Book();
+        book.setName("시골 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        em.persist(book);
+
+        em.flush();
+        em.clear();
+    }
+
+    //회원 조회 1 + 상품 조회 1 + insert(주문, 주문상품, 배송, 주문 이벤트) 4 + 재고 update 1 + 매출 집계 1~2 (+ 시퀀스)
+    @Test
+    @SqlBudget(statements = 13, repeat = 3)
+    public void 상품주문() throws Exception {
+        //when
+        Long orderId = orderService.order(member.getId(), book.getId(), 2);
+        em.flush();
+
+        //then
+        em.clear();
+        Order getOrder = orderRepository.findOne(orderId);
+        assertThat(getOrder.getStatus()).isEqualTo(OrderStatus.ORDER);
+        assertThat(getOrder.getTotalPrice()).isEqualTo(10000 * 2);
+        assertThat(getOrder.getItemCount()).isEqualTo(2);
+    }
+
+    //주문(9) + 취소: 주문 조회 1 + 배송 1 + 주문상품 1 + 상품 1 + update(주문, 재고) 2 + 매출 집계(주문 -> 취소) 2~3 + 주문 이벤트 1 + 검증 조회 1
+    @Test
+    @SqlBudget(statements = 21, repeat = 3)
+    public void 주문취소() throws Exception {
+        Long orderId = orderService.order(member.getId(), book.getId(), 2);
+        em.flush();
+        em.clear();
+
+        //when
+        orderService.cancelOrder(orderId);
+        em.flush();
+
+        //then
+        em.clear();
+        Order getOrder = orderRepository.findOne(orderId);
+        assertThat(getOrder.getStatus()).isEqualTo(OrderStatus.CANCEL);
+    }
+}
@@ -0,0 +1,77 @@
+package jpabook.jpashop.service;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.DailyRevenueDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class RevenueServiceTest {
+
+    @Autowired RevenueService revenueService;
+    @Autowired OrderService orderService;
+    @Autowired EntityManager em;
+
+    Member member;
+    Book book;
+
+    @BeforeEach
+    void setUp() {
+        member = new Member();
+        member.setName("매출회원");
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        em.persist(member);
+
+        book = new Book();
+        book.setName("매출 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(100);
+        em.persist(book);
+
+        em.flush();
+        em.clear();
+    }
+
+    //다른 테스트가 커밋한 주문이 있을 수 있으므로 증가분으로 비교
+    private DailyRevenueDTO today() {
+        LocalDate today = LocalDate.now();
+        List<DailyRevenueDTO> daily = revenueService.findDailyRevenue(today, today);
+        return daily.isEmpty() ? new DailyRevenueDTO(today, 0, 0) : daily.get(0);
+    }
+
+    @Test
+    public void 주문_취소_매출집계() throws Exception {
+        DailyRevenueDTO before = today();
+
+        orderService.order(member.getId(), book.getId(), 2);
+        Long canceledId = orderService.order(member.getId(), book.getId(), 3);
+        em.flush();
+        em.clear();
+
+        DailyRevenueDTO ordered = today();
+        assertThat(ordered.getAmount() - before.getAmount()).isEqualTo(10000 * 5);
+        assertThat(ordered.getQuantity() - before.getQuantity()).isEqualTo(5);
+
+        orderService.cancelOrder(canceledId);
+        em.flush();
+        em.clear();
+
+        DailyRevenueDTO canceled = today();
+        assertThat(canceled.getAmount() - before.getAmount()).isEqualTo(10000 * 2);
+        assertThat(canceled.getQuantity() - before.getQuantity()).isEqualTo(2);
+    }
+}
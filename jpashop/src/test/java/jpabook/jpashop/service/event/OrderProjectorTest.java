@@ -0,0 +1,147 @@
+package jpabook.jpashop.service.event;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.DeliveryStatus;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.OrderEvent;
+import jpabook.jpashop.domain.OrderEventType;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.OrderView;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.OrderEventRepository;
+import jpabook.jpashop.repository.OrderViewRepository;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+    주문 이벤트 -> 주문 조회 모델 반영
+     - 이벤트는 커밋된 뒤에 반영되므로 테스트에 @Transactional을 붙이지 않음
+     - 다른 테스트 컨텍스트의 projector도 같은 DB를 반영하므로 반영될 때까지 기다렸다가 결과만 확인
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderProjectorTest {
+
+    @Autowired OrderProjector orderProjector;
+    @Autowired OrderViewRepository orderViewRepository;
+    @Autowired OrderService orderService;
+    @Autowired MemberService memberService;
+    @Autowired ItemService itemService;
+    @Autowired OrderEventRepository orderEventRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired EntityManager em;
+    @Value("${jpashop.projector.batch-size}") int batchSize;
+
+    Long memberId;
+    Book book;
+
+    @BeforeEach
+    void setUp() {
+        Member member = new Member();
+        member.setName("이벤트회원 " + System.nanoTime());
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        memberId = memberService.join(member);
+
+        book = new Book();
+        book.setName("이벤트 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(100);
+        itemService.saveItem(book);
+    }
+
+    private Map<Long, OrderView> awaitViews(List<Long> orderIds, int expectedEvents) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            orderProjector.projectPending();
+            Map<Long, OrderView> views = orderViewRepository.findAllById(orderIds).stream()
+                    .collect(Collectors.toMap(OrderView::getId, Function.identity()));
+            long applied = views.values().stream()
+                    .mapToLong(v -> 1 + (v.getStatus() == OrderStatus.CANCEL ? 1 : 0)
+                            + (v.getDeliveryStatus() == DeliveryStatus.COMP ? 1 : 0))
+                    .sum();
+            if (applied == expectedEvents) {
+                return views;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("주문 조회 모델이 반영되지 않았습니다. orderIds=" + orderIds);
+    }
+
+    @Test
+    public void 주문_취소_배송완료_반영() throws Exception {
+        Long deliveredId = orderService.order(memberId, book.getId(), 2);
+        Long canceledId = orderService.order(memberId, book.getId(), 3);
+        orderService.cancelOrder(canceledId);
+        orderService.completeDelivery(deliveredId);
+
+        //when
+        Map<Long, OrderView> views = awaitViews(List.of(deliveredId, canceledId), 4);
+
+        //then
+        OrderView delivered = views.get(deliveredId);
+        assertThat(delivered.getStatus()).isEqualTo(OrderStatus.ORDER);
+        assertThat(delivered.getDeliveryStatus()).isEqualTo(DeliveryStatus.COMP);
+        assertThat(delivered.getMemberName()).startsWith("이벤트회원");
+        assertThat(delivered.getAddress().getCity()).isEqualTo("서울");
+        assertThat(delivered.getTotalPrice()).isEqualTo(10000 * 2);
+        assertThat(delivered.getItemCount()).isEqualTo(2);
+        assertThat(views.get(canceledId).getStatus()).isEqualTo(OrderStatus.CANCEL);
+    }
+
+    @Test
+    public void 조회모델_재생성() throws Exception {
+        Long orderId = orderService.order(memberId, book.getId(), 1);
+        orderService.completeDelivery(orderId);
+        awaitViews(List.of(orderId), 2);
+
+        //when
+        orderProjector.rebuild();
+
+        //then
+        OrderView view = awaitViews(List.of(orderId), 2).get(orderId);
+        assertThat(view.getDeliveryStatus()).isEqualTo(DeliveryStatus.COMP);
+        assertThat(view.getTotalPrice()).isEqualTo(10000);
+    }
+
+    @Test
+    public void 조회모델_없는_주문의_이벤트만으로_찬_배치() throws Exception {
+        //조회 모델도 PLACED 이벤트도 없는 주문의 취소 이벤트로 배치 하나를 채움
+        List<Long> orphanIds = new TransactionTemplate(transactionManager).execute(status -> {
+            List<OrderEvent> orphans = new ArrayList<>();
+            for (int i = 0; i < batchSize; i++) {
+                OrderEvent orphan = new OrderEvent(-System.nanoTime(), OrderEventType.CANCELLED, null);
+                orderEventRepository.save(orphan);
+                orphans.add(orphan);
+            }
+            return orphans.stream().map(OrderEvent::getId).toList();
+        });
+        Long orderId = orderService.order(memberId, book.getId(), 1);
+
+        //when: 앞의 배치가 막지 않고 뒤의 주문이 반영됨
+        OrderView view = awaitViews(List.of(orderId), 1).get(orderId);
+
+        //then: 고아 이벤트는 반영되지 않고 미뤄짐
+        assertThat(view.getStatus()).isEqualTo(OrderStatus.ORDER);
+        OrderEvent orphan = em.find(OrderEvent.class, orphanIds.get(0));
+        assertThat(orphan.getProjectedAt()).isNull();
+        assertThat(orphan.getAttempts()).isGreaterThanOrEqualTo(1);
+        assertThat(orphan.getRetryAt()).isNotNull();
+    }
+}
@@ -0,0 +1,199 @@
+package jpabook.jpashop.service.stock;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/*
+    동시 구매자 64명이 재고 1000개 상품을 재고보다 많이(64 * 20건) 주문
+     - 성공한 주문 수 == 처음 재고, 남은 재고 == 0 이면 초과 판매(oversell)도 갱신 손실(lost update)도 없음
+     - 전략별 초당 주문 수는 로그로 남김(검증은 assert로)
+     - 전략마다 스프링 컨텍스트가 따로 뜨고 ddl-auto=create로 스키마를 다시 만드므로, 공유 TCP H2 대신 전략별 메모리 DB를 씀
+ */
+class StockReservationStressTest {
+
+    static final Logger log = LoggerFactory.getLogger(StockReservationStressTest.class);
+
+    static final int BUYERS = 64;
+    static final int ORDERS_PER_BUYER = 20;
+    static final int STOCK = 1000;
+
+    @Nested
+    @SpringBootTest(properties = {"jpashop.stock.strategy=conditional", "spring.datasource.url=jdbc:h2:mem:stock-conditional;DB_CLOSE_DELAY=-1"})
+    class Conditional extends Scenario {
+    }
+
+    @Nested
+    @SpringBootTest(properties = {"jpashop.stock.strategy=optimistic", "spring.datasource.url=jdbc:h2:mem:stock-optimistic;DB_CLOSE_DELAY=-1"})
+    class Optimistic extends Scenario {
+    }
+
+    @Nested
+    @SpringBootTest(properties = {"jpashop.stock.strategy=ledger", "spring.datasource.url=jdbc:h2:mem:stock-ledger;DB_CLOSE_DELAY=-1"})
+    class Ledger extends Scenario {
+
+        @Autowired LedgerStockReservation ledger;
+
+        @Override
+        void verifyStock(Long itemId) {
+            assertThat(ledger.available(itemId)).isEqualTo(0);
+        }
+    }
+
+    @Nested
+    @SpringBootTest(properties = {"jpashop.stock.strategy=sharded", "spring.datasource.url=jdbc:h2:mem:stock-sharded;DB_CLOSE_DELAY=-1"})
+    class Sharded extends Scenario {
+
+        @Autowired ShardedStockReservation sharded;
+
+        @Override
+        void prepare(Long itemId) {
+            assertThat(sharded.shard(itemId)).isTrue();
+        }
+
+        @Override
+        void settle(Long itemId) {
+            sharded.writeBack();
+        }
+
+        @Override
+        void verifyStock(Long itemId) {
+            assertThat(sharded.available(itemId)).containsOnly(0);
+        }
+
+        @Test
+        void 여러shard_나눠차감_취소_해제() throws Exception {
+            //given: 재고 10개를 shard 8개에 [2, 2, 1, 1, 1, 1, 1, 1]로 나눔
+            Book book = new Book();
+            book.setName("인기 상품");
+            book.setPrice(10000);
+            book.setStockQuantity(10);
+            itemService.saveItem(book);
+            Long itemId = book.getId();
+            prepare(itemId);
+            assertThat(sharded.available(itemId)).containsExactly(2, 2, 1, 1, 1, 1, 1, 1);
+
+            Member member = new Member();
+            member.setName("인기 상품 구매자");
+            Long memberId = memberService.join(member);
+
+            //when, then: shard 하나로 모자라는 수량은 여러 shard에서 나눠 차감
+            Long orderId = orderService.order(memberId, itemId, 5);
+            sharded.writeBack();
+            assertThat(itemRepository.findStock(itemId).getStockQuantity()).isEqualTo(5);
+
+            //다 합쳐도 모자라면 이미 뺀 shard도 되돌림
+            assertThatThrownBy(() -> orderService.order(memberId, itemId, 6))
+                    .isInstanceOf(NotEnoughStockException.class);
+            sharded.writeBack();
+            assertThat(itemRepository.findStock(itemId).getStockQuantity()).isEqualTo(5);
+
+            //취소하면 shard로 돌아옴
+            orderService.cancelOrder(orderId);
+            sharded.writeBack();
+            assertThat(itemRepository.findStock(itemId).getStockQuantity()).isEqualTo(10);
+
+            //해제하면 item 행에서 차감
+            assertThat(sharded.unshard(itemId)).isTrue();
+            assertThat(sharded.available(itemId)).isNull();
+            orderService.order(memberId, itemId, 10);
+            assertThat(itemRepository.findStock(itemId).getStockQuantity()).isEqualTo(0);
+        }
+    }
+
+    abstract static class Scenario {
+
+        @Autowired OrderService orderService;
+        @Autowired MemberService memberService;
+        @Autowired ItemService itemService;
+        @Autowired ItemRepository itemRepository;
+        @Autowired StockReservation stockReservation;
+
+        //주문 전에 할 일(인기 상품 지정 등)
+        void prepare(Long itemId) {
+        }
+
+        //주문이 다 끝난 뒤 item 재고에 반영할 일(write-back 등)
+        void settle(Long itemId) {
+        }
+
+        void verifyStock(Long itemId) {
+        }
+
+        @Test
+        void 동시주문_재고초과없음() throws Exception {
+            String name = stockReservation.getClass().getSimpleName();
+            Book book = new Book();
+            book.setName("한정판 " + name);
+            book.setPrice(10000);
+            book.setStockQuantity(STOCK);
+            itemService.saveItem(book);
+            Long itemId = book.getId();
+            prepare(itemId);
+
+            List<Long> memberIds = new ArrayList<>();
+            for (int i = 0; i < BUYERS; i++) {
+                Member member = new Member();
+                member.setName(name + " 구매자" + i);
+                member.setAddress(new Address("서울", "강가", "123-123"));
+                memberIds.add(memberService.join(member));
+            }
+
+            AtomicInteger ordered = new AtomicInteger();
+            AtomicInteger soldOut = new AtomicInteger();
+            ExecutorService executor = Executors.newFixedThreadPool(BUYERS);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (Long memberId : memberIds) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ORDERS_PER_BUYER; i++) {
+                        try {
+                            orderService.order(memberId, itemId, 1);
+                            ordered.incrementAndGet();
+                        } catch (NotEnoughStockException e) {
+                            soldOut.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            long startedAt = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+            long elapsed = System.nanoTime() - startedAt;
+            executor.shutdown();
+            settle(itemId);
+
+            log.info("{}: 주문 {}건, 품절 {}건, {} orders/s",
+                    name, ordered.get(), soldOut.get(), Math.round(ordered.get() / (elapsed / 1e9)));
+
+            assertThat(ordered.get()).isEqualTo(STOCK);
+            assertThat(soldOut.get()).isEqualTo(BUYERS * ORDERS_PER_BUYER - STOCK);
+            assertThat(itemRepository.findStock(itemId).getStockQuantity()).isEqualTo(0);
+            verifyStock(itemId);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.querydsl.QuerydslApplication;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.dto.NameMatch;
+import study.querydsl.dto.QMemberTeamDTO;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.search.MemberNameIndex;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QMember.*;
+import static study.querydsl.entity.QTeam.*;
+
+/*
+    회원명 PREFIX/CONTAINS 검색: SQL like(sql) vs 메모리 이름 인덱스 + id in (...)(index)
+     - 메모리 H2에 회원 100만명(팀 10개). 인덱스는 setup에서 reload
+     - match: PREFIX('member12345%', 11건) | CONTAINS('%234567%', 1건)
+     - like 'x%'는 username 인덱스 범위 조회가 가능하지만 like '%x%'는 전체를 읽음
+
+    실행: ./gradlew jmh -PjmhArgs="MemberNameSearchBenchmark"
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MemberNameSearchBenchmark {
+
+    private static final int MEMBERS = 1_000_000;
+
+    @Param({"PREFIX", "CONTAINS"})
+    public NameMatch match;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private JPAQueryFactory queryFactory;
+    private final MemberSearchCondition condition = new MemberSearchCondition();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(QuerydslApplication.class).run(
+                "--spring.main.web-application-type=none",
+                "--spring.profiles.active=bench",
+                "--spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--logging.level.org.hibernate.SQL=warn");
+        memberRepository = context.getBean(MemberRepository.class);
+        queryFactory = new JPAQueryFactory(context.getBean(EntityManager.class));
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("insert into team (id, name) select x, 'team' || x from system_range(1, 10)");
+        jdbcTemplate.update("insert into member (member_id, username, age, team_id)" +
+                " select x, 'member' || x, mod(x, 100), mod(x, 10) + 1 from system_range(1, " + MEMBERS + ")");
+        jdbcTemplate.execute("analyze");
+        context.getBean(MemberNameIndex.class).reload();
+
+        condition.setUsername(match == NameMatch.PREFIX ? "member12345" : "234567");
+        condition.setUsernameMatch(match);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<MemberTeamDTO> sql() {
+        return queryFactory
+                .select(new QMemberTeamDTO(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(match == NameMatch.PREFIX
+                        ? member.username.startsWith(condition.getUsername())
+                        : member.username.contains(condition.getUsername()))
+                .orderBy(member.id.asc())
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberTeamDTO> index() {
+        return memberRepository.search(condition);
+    }
+}
@@ -0,0 +1,102 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.querydsl.QuerydslApplication;
+import study.querydsl.dto.MemberKeyset;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.repository.MemberRepository;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+    회원 페이징: searchPageComplex vs searchPageSimple(정렬 허용 목록, count 생략) vs searchKeyset
+     - 메모리 H2에 회원 100만명(팀 10개)
+     - page: 0(첫 페이지), 10000(offset 20만)
+     - sort: id | username. searchPageComplex는 정렬을 적용하지 않으므로 두 경우 모두 같은 쿼리
+     - filter: none | age
+     - keyset: 같은 위치의 이전 행을 setup에서 구해서 그 다음부터 읽음
+
+    실행: ./gradlew jmh -PjmhArgs="MemberPageBenchmark"
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MemberPageBenchmark {
+
+    private static final int MEMBERS = 1_000_000;
+    private static final int SIZE = 20;
+
+    @Param({"0", "10000"})
+    public int page;
+
+    @Param({"id", "username"})
+    public String sort;
+
+    // none: 조건 없음(H2는 조건 없는 count(*)를 행 수로 바로 답함), age: 나이 50 이상(50만명)
+    @Param({"none", "age"})
+    public String filter;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private final MemberSearchCondition condition = new MemberSearchCondition();
+    private PageRequest pageable;
+    private MemberKeyset keyset;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(QuerydslApplication.class).run(
+                "--spring.main.web-application-type=none",
+                "--spring.profiles.active=bench",
+                //같은 쿼리, 같은 파라미터면 H2가 이전 결과를 그대로 돌려주므로 끔
+                "--spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--logging.level.org.hibernate.SQL=warn");
+        memberRepository = context.getBean(MemberRepository.class);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("insert into team (id, name) select x, 'team' || x from system_range(1, 10)");
+        jdbcTemplate.update("insert into member (member_id, username, age, team_id)" +
+                " select x, 'member' || x, mod(x, 100), mod(x, 10) + 1 from system_range(1, " + MEMBERS + ")");
+        jdbcTemplate.execute("analyze");
+
+        if (filter.equals("age")) {
+            condition.setAgeGoe(50);
+        }
+        pageable = PageRequest.of(page, SIZE, Sort.by(sort));
+        keyset = new MemberKeyset();
+        if (page > 0) {
+            //이전 페이지 마지막 행
+            MemberTeamDTO last = memberRepository.searchPageSimple(condition,
+                    PageRequest.of(page * SIZE - 1, 1, Sort.by(sort))).getContent().get(0);
+            keyset.setLastId(last.getMemberId());
+            keyset.setLastUsername(last.getUsername());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<MemberTeamDTO> complex() {
+        return memberRepository.searchPageComplex(condition, pageable);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDTO> simple() {
+        return memberRepository.searchPageSimple(condition, pageable);
+    }
+
+    @Benchmark
+    public Slice<MemberTeamDTO> keyset() {
+        return memberRepository.searchKeyset(condition, keyset, pageable);
+    }
+}
@@ -0,0 +1,121 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.StringUtils;
+import study.querydsl.QuerydslApplication;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.dto.QMemberTeamDTO;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberSearchQueries;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QMember.*;
+import static study.querydsl.entity.QTeam.*;
+
+/*
+    회원 검색: 매번 Querydsl 쿼리를 만드는 방식(querydsl) vs 조건 모양별 템플릿(template, MemberRepository.search)
+     - 결과가 몇 건뿐인 검색이라 쿼리 생성, 렌더링, 매핑 비용이 잘 드러남
+     - 회원 1만명(팀 10개), username 인덱스 사용
+     - shape: username(회원명 1건) | team_age(팀명 + 나이 범위, 100건)
+     - op당 할당은 -prof gc의 gc.alloc.rate.norm, QPS는 thrpt(ops/ms)
+
+    실행: ./gradlew jmh -PjmhArgs="MemberSearchBenchmark"
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MemberSearchBenchmark {
+
+    private static final int MEMBERS = 10_000;
+
+    @Param({"username", "team_age"})
+    public String shape;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private MemberSearchQueries searchQueries;
+    private JPAQueryFactory queryFactory;
+    private final MemberSearchCondition condition = new MemberSearchCondition();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(QuerydslApplication.class).run(
+                "--spring.main.web-application-type=none",
+                "--spring.profiles.active=bench",
+                "--spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--logging.level.org.hibernate.SQL=warn");
+        memberRepository = context.getBean(MemberRepository.class);
+        searchQueries = context.getBean(MemberSearchQueries.class);
+        queryFactory = new JPAQueryFactory(context.getBean(EntityManager.class));
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("insert into team (id, name) select x, 'team' || x from system_range(1, 10)");
+        jdbcTemplate.update("insert into member (member_id, username, age, team_id)" +
+                " select x, 'member' || x, mod(x, 100), mod(x, 10) + 1 from system_range(1, " + MEMBERS + ")");
+        jdbcTemplate.execute("analyze");
+
+        if (shape.equals("username")) {
+            condition.setUsername("member5000");
+        } else {
+            condition.setTeamName("team3");
+            condition.setAgeGoe(22);
+            condition.setAgeLoe(22);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.println("template hits=" + searchQueries.hits() + ", misses=" + searchQueries.misses());
+        context.close();
+    }
+
+    // 템플릿 캐시 이전 MemberRepositoryImpl.search
+    @Benchmark
+    public List<MemberTeamDTO> querydsl() {
+        return queryFactory
+                .select(new QMemberTeamDTO(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe()))
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberTeamDTO> template() {
+        return memberRepository.search(condition);
+    }
+
+    private Predicate usernameEq(String username) {
+        return StringUtils.hasText(username) ? member.username.eq(username) : null;
+    }
+
+    private Predicate teamNameEq(String teamName) {
+        return StringUtils.hasText(teamName) ? team.name.eq(teamName) : null;
+    }
+
+    private Predicate ageGoe(Integer ageGoe) {
+        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    }
+
+    private Predicate ageLoe(Integer ageLoe) {
+        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    }
+}
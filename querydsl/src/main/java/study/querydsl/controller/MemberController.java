@@ -1,16 +1,27 @@
 package study.querydsl.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import study.querydsl.dto.MemberKeyset;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
 import study.querydsl.repository.MemberJpaRepository;
 import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.TeamBatchLoader;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequiredArgsConstructor
@@ -18,6 +29,7 @@ public class MemberController {
 
     private final MemberJpaRepository memberJpaRepository;
     private final MemberRepository memberRepository;
+    private final TeamBatchLoader teamLoader;
 
     @GetMapping("/v1/members")
     public List<MemberTeamDTO> searchMemberV1(MemberSearchCondition condition) {
@@ -27,4 +39,34 @@ public class MemberController {
     public Page<MemberTeamDTO> searchMemberV2(MemberSearchCondition condition, Pageable pageable) {
         return memberRepository.searchPageComplex(condition,pageable);
     }
+    @GetMapping("/v3/members")
+    public Page<MemberTeamDTO> searchMemberV3(MemberSearchCondition condition, Pageable pageable) {
+        return memberRepository.searchPageSimple(condition, pageable);
+    }
+    // ?sort=username&lastUsername=member10&lastId=12 (이전 페이지 마지막 행)
+    // lastId만 있고 정렬 기준 값(lastUsername, lastAge)이 빠지면 400
+    @GetMapping("/v4/members")
+    public Slice<MemberTeamDTO> searchMemberV4(MemberSearchCondition condition, MemberKeyset keyset, Pageable pageable) {
+        try {
+            return memberRepository.searchKeyset(condition, keyset, pageable);
+        } catch (InvalidDataAccessApiUsageException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+    // 엔티티로 읽은 회원의 팀을 TeamBatchLoader로 한 번에 가져옴(회원 쿼리 1 + 팀 쿼리 1)
+    // 첫 join()에서 모인 팀 id를 한 번에 가져옴
+    @GetMapping("/v5/members")
+    public List<MemberTeamDTO> findMembersV5() {
+        List<Member> members = memberRepository.findAll(Sort.by("id"));
+        List<CompletableFuture<Team>> teams = members.stream().map(teamLoader::load).toList();
+
+        List<MemberTeamDTO> result = new ArrayList<>(members.size());
+        for (int i = 0; i < members.size(); i++) {
+            Member member = members.get(i);
+            Team team = teams.get(i).join();
+            result.add(new MemberTeamDTO(member.getId(), member.getUsername(), member.getAge(),
+                    team == null ? null : team.getId(), team == null ? null : team.getName()));
+        }
+        return result;
+    }
 }
@@ -0,0 +1,12 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+
+@Data
+public class MemberKeyset {
+    // 이전 페이지 마지막 행. 정렬 기준(username, age) 값과 id를 같이 넘김. 비어있으면 첫 페이지
+
+    private Long lastId;
+    private String lastUsername;
+    private Integer lastAge;
+}
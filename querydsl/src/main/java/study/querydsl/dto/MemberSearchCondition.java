@@ -7,7 +7,9 @@ public class MemberSearchCondition {
     // 회원명, 팀명, 나이(ageGoe, ageLoe)
 
     private String username;
+    private NameMatch usernameMatch;   // 없으면 EXACT
     private String teamName;
+    private NameMatch teamNameMatch;
     private Integer ageGoe;
     private Integer ageLoe;
 }
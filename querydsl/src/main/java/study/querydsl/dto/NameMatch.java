@@ -0,0 +1,6 @@
+package study.querydsl.dto;
+
+// 이름 검색 방식. EXACT는 DB eq, PREFIX와 CONTAINS는 메모리 이름 인덱스(MemberNameIndex)로 회원 id를 먼저 찾음
+public enum NameMatch {
+    EXACT, PREFIX, CONTAINS
+}
@@ -2,11 +2,16 @@ package study.querydsl.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import study.querydsl.search.MemberNameIndexListener;
 
 @Entity
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username","age"})
+@EntityListeners(MemberNameIndexListener.class)
+@Table(indexes = {
+        @Index(name = "idx_member_username", columnList = "username, member_id"), // username 정렬, keyset 페이징
+        @Index(name = "idx_member_age", columnList = "age, member_id")})
 public class Member {
 
     @Id @GeneratedValue
@@ -0,0 +1,30 @@
+package study.querydsl.repository;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Locale;
+
+/*
+    전체 수가 근사값일 수 있는 Page
+     - totalApproximate: 임계값 이상이라 캐시된 count를 쓰는 중(실제 수와 조금 다를 수 있음)
+     - totalText: 화면 표시용. 근사값이면 "about 1,234,567", 아니면 "1234"
+ */
+public class ApproximatePage<T> extends PageImpl<T> {
+
+    private final boolean totalApproximate;
+
+    public ApproximatePage(List<T> content, Pageable pageable, long total, boolean totalApproximate) {
+        super(content, pageable, total);
+        this.totalApproximate = totalApproximate;
+    }
+
+    public boolean isTotalApproximate() {
+        return totalApproximate;
+    }
+
+    public String getTotalText() {
+        return totalApproximate ? String.format(Locale.ROOT, "about %,d", getTotalElements()) : String.valueOf(getTotalElements());
+    }
+}
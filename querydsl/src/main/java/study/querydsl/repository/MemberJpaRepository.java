@@ -1,7 +1,6 @@
 package study.querydsl.repository;
 
 import com.querydsl.core.BooleanBuilder;
-import com.querydsl.core.types.Predicate;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
 import org.springframework.stereotype.Repository;
@@ -21,10 +20,12 @@ public class MemberJpaRepository {
 
     private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final MemberSearchQueries searchQueries;
 
-    public MemberJpaRepository(EntityManager em) {
+    public MemberJpaRepository(EntityManager em, MemberSearchQueries searchQueries) {
         this.em = em;
         this.queryFactory = new JPAQueryFactory(em);
+        this.searchQueries = searchQueries;
     }
     public void save(Member member){
         em.persist(member);
@@ -82,36 +83,7 @@ public class MemberJpaRepository {
                 .fetch();
     }
     public List<MemberTeamDTO> search(MemberSearchCondition condition){
-        return queryFactory
-                .select(new QMemberTeamDTO(
-                        QMember.member.id.as("memberId"),
-                        QMember.member.username,
-                        QMember.member.age,
-                        QTeam.team.id.as("teamId"),
-                        QTeam.team.name.as("teamName")))
-                .from(QMember.member)
-                .leftJoin(QMember.member.team, QTeam.team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe()))
-                .fetch();
-    }
-
-    private Predicate usernameEq(String username) {
-        return StringUtils.hasText(username) ? QMember.member.username.eq(username) :  null;
-    }
-
-    private Predicate teamNameEq(String teamName) {
-        return StringUtils.hasText(teamName) ? QTeam.team.name.eq(teamName) : null;
-    }
-
-    private Predicate ageGoe(Integer ageGoe) {
-        return ageGoe != null ? QMember.member.age.goe(ageGoe) : null;
-    }
-    private Predicate ageLoe(Integer ageLoe) {
-        return ageLoe != null ? QMember.member.age.loe(ageLoe) : null;
+        return searchQueries.content(condition);
     }
 
 }
@@ -1,25 +1,41 @@
 package study.querydsl.repository;
 
+import com.querydsl.core.types.Order;
+import com.querydsl.core.types.OrderSpecifier;
 import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.ComparableExpressionBase;
+import com.querydsl.core.types.dsl.StringPath;
 import com.querydsl.jpa.JPQLQuery;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.support.QuerydslRepositorySupport;
 import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.StringUtils;
+import study.querydsl.dto.MemberKeyset;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.dto.NameMatch;
 import study.querydsl.dto.QMemberTeamDTO;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.entity.QTeam;
+import study.querydsl.search.MemberNameIndex;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static study.querydsl.entity.QMember.*;
 import static study.querydsl.entity.QTeam.*;
@@ -27,53 +43,65 @@ import static study.querydsl.entity.QTeam.*;
 @Repository
 public class MemberRepositoryImpl extends QuerydslRepositorySupport implements MemberRepositoryCustom{
 
-//    private final JPAQueryFactory queryFactory;
-//
-//    public MemberRepositoryImpl(EntityManager em) {
-//        this.queryFactory = new JPAQueryFactory(em);
-//    }
+    // 정렬 허용 컬럼. 모두 인덱스가 있음(Member @Table)
+    private static final Map<String, ComparableExpressionBase<?>> SORTABLE = Map.of(
+            "id", member.id,
+            "username", member.username,
+            "age", member.age);
 
-    public MemberRepositoryImpl() {
+    private static final int ID_CHUNK = 1000;
+
+    private final JPAQueryFactory queryFactory;
+    private final MemberSearchQueries searchQueries;
+    private final MemberPageExecutor pageExecutor;
+    private final MemberNameIndex nameIndex;
+
+    public MemberRepositoryImpl(EntityManager em, MemberSearchQueries searchQueries, MemberPageExecutor pageExecutor,
+                                MemberNameIndex nameIndex) {
         super(Member.class);
+        this.queryFactory = new JPAQueryFactory(em);
+        this.searchQueries = searchQueries;
+        this.pageExecutor = pageExecutor;
+        this.nameIndex = nameIndex;
     }
+    // 조건 모양별로 준비해 둔 쿼리 템플릿 사용(MemberSearchQueries)
+    // 이름 PREFIX/CONTAINS 검색은 이름 인덱스(MemberNameIndex)로 회원 id를 먼저 찾고 id in (...)으로 조회
+    // 인덱스가 오래됐을 수 있으므로(커밋 전 변경, 벌크 연산) 이름 조건도 SQL에서 다시 확인. 후보 행에만 적용되므로 싸다
     @Override
     public List<MemberTeamDTO> search(MemberSearchCondition condition){
-
-        List<MemberTeamDTO> result = from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe()))
-                .select(new QMemberTeamDTO(
-                        member.id.as("memberId"),
-                        member.username,
-                        member.age,
-                        team.id.as("teamId"),
-                        team.name.as("teamName")))
-                .fetch();
-
-        return queryFactory
-                .select(new QMemberTeamDTO(
-                        member.id.as("memberId"),
-                        member.username,
-                        member.age,
-                        team.id.as("teamId"),
-                        team.name.as("teamName")))
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe()))
-                .fetch();
+        if (!MemberNameIndex.supports(condition)) {
+            return searchQueries.content(condition);
+        }
+        List<Long> ids = new ArrayList<>(nameIndex.findMemberIds(condition));
+        Collections.sort(ids);
+        List<MemberTeamDTO> result = new ArrayList<>();
+        // in 절 파라미터 수가 DB 한도를 넘지 않도록 나눠서 조회
+        for (int from = 0; from < ids.size(); from += ID_CHUNK) {
+            result.addAll(queryFactory
+                    .select(new QMemberTeamDTO(
+                            member.id.as("memberId"),
+                            member.username,
+                            member.age,
+                            team.id.as("teamId"),
+                            team.name.as("teamName")))
+                    .from(member)
+                    .leftJoin(member.team, team)
+                    .where(
+                            member.id.in(ids.subList(from, Math.min(from + ID_CHUNK, ids.size()))),
+                            nameMatches(member.username, condition.getUsername(), condition.getUsernameMatch()),
+                            nameMatches(team.name, condition.getTeamName(), condition.getTeamNameMatch()),
+                            ageGoe(condition.getAgeGoe()),
+                            ageLoe(condition.getAgeLoe()))
+                    .orderBy(member.id.asc())
+                    .fetch());
+        }
+        return result;
     }
 
+    // 페이징 + 정렬(인덱스 있는 컬럼만) + 필요할 때만 count
     @Override
     public Page<MemberTeamDTO> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
-        queryFactory
+        List<MemberTeamDTO> content = queryFactory
                 .select(new QMemberTeamDTO(
                         member.id.as("memberId"),
                         member.username,
@@ -87,13 +115,15 @@ public class MemberRepositoryImpl extends QuerydslRepositorySupport implements M
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe()))
+                .orderBy(orderBy(pageable.getSort()))
                 .offset(pageable.getOffset())
                 .limit(pageable.getPageSize())
                 .fetch();
 
-        return null;
+        return page(content, pageable, condition);
     }
 
+    // QuerydslRepositorySupport 버전
     public Page<MemberTeamDTO> searchPageSimple2(MemberSearchCondition condition, Pageable pageable) {
 
         JPQLQuery<MemberTeamDTO> jpaQuery = from(member)
@@ -113,15 +143,25 @@ public class MemberRepositoryImpl extends QuerydslRepositorySupport implements M
         //        .offset(pageable.getOffset())
         //        .limit(pageable.getPageSize())
 
-        getQuerydsl().applyPagination(pageable, jpaQuery);
+        // applyPagination의 정렬은 엔티티 이름(member) 별칭으로 만들어지는데 QMember.member의 별칭은 member1이라 실패함
+        // 정렬은 Q타입으로 직접 걸고 applyPagination에는 offset, limit만 맡김
+        jpaQuery.orderBy(orderBy(pageable.getSort()));
+        Pageable unsorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        List<MemberTeamDTO> content = getQuerydsl().applyPagination(unsorted, jpaQuery).fetch();
 
-        return null;
+        return page(content, pageable, condition);
     }
 
-    // count query
+    /*
+        keyset 페이징: offset 대신 이전 페이지 마지막 행 다음부터 읽음. 뒤 페이지로 가도 느려지지 않음
+         - 정렬은 username, age, id 중 첫번째 것 하나 + id(같은 값 사이 순서, 첫번째 정렬과 같은 방향)
+         - (username, member_id), (age, member_id) 인덱스를 범위 조건으로 타도록
+           username >= :last and (username > :last or id > :lastId) 형태로 씀
+         - 전체 수, 페이지 번호는 없음(Slice). 다음 페이지는 limit + 1건을 읽어서 판단
+     */
     @Override
-    public Page<MemberTeamDTO> searchPageComplex(MemberSearchCondition condition,
-                                                 Pageable pageable) {
+    public Slice<MemberTeamDTO> searchKeyset(MemberSearchCondition condition, MemberKeyset keyset, Pageable pageable) {
+        Sort.Order order = keysetOrder(pageable.getSort());
         List<MemberTeamDTO> content = queryFactory
                 .select(new QMemberTeamDTO(
                         member.id.as("memberId"),
@@ -135,23 +175,130 @@ public class MemberRepositoryImpl extends QuerydslRepositorySupport implements M
                         usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
+                        ageLoe(condition.getAgeLoe()),
+                        after(order, keyset))
+                .orderBy(orderBy(Sort.by(order)))
+                .limit(pageable.getPageSize() + 1)
                 .fetch();
+
+        boolean hasNext = content.size() > pageable.getPageSize();
+        if (hasNext) {
+            content = content.subList(0, pageable.getPageSize());
+        }
+        return new SliceImpl<>(content, PageRequest.of(0, pageable.getPageSize(), Sort.by(order)), hasNext);
+    }
+
+    // count query. content와 count 실행 방식(병렬, 근사 count)은 MemberPageExecutor
+    @Override
+    public Page<MemberTeamDTO> searchPageComplex(MemberSearchCondition condition,
+                                                 Pageable pageable) {
+        return pageExecutor.page(condition, pageable);
+    }
+
+    /*
+        count 생략
+         - 첫 페이지가 페이지 크기보다 작거나, 마지막 페이지처럼 일부만 찼으면 offset + content 수가 전체 수
+           (PageableExecutionUtils). offset이 끝을 넘어 content가 비었을 때만 count를 실행
+         - count는 팀 조건이 있을 때만 team을 join(member -> team은 ManyToOne이라 left join이 행 수를 바꾸지 않음)
+     */
+    private Page<MemberTeamDTO> page(List<MemberTeamDTO> content, Pageable pageable, MemberSearchCondition condition) {
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(condition));
+    }
+
+    private long count(MemberSearchCondition condition) {
         JPAQuery<Long> countQuery = queryFactory
                 .select(member.count())
-                .from(member)
-                .leftJoin(member.team, team)
+                .from(member);
+        if (StringUtils.hasText(condition.getTeamName())) {
+            countQuery.leftJoin(member.team, team);
+        }
+        Long count = countQuery
                 .where(
                         usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                );
-        return PageableExecutionUtils.getPage(content, pageable,
-                countQuery::fetchOne);
+                        ageLoe(condition.getAgeLoe()))
+                .fetchOne();
+        return count == null ? 0 : count;
+    }
+
+    // 허용한 정렬만 남김(나머지는 무시). 정렬 값이 같을 때 페이지마다 순서가 바뀌지 않도록 id를 마지막에 추가
+    // id 방향은 첫번째 정렬과 같게 함. keyset의 after() 비교 방향, (컬럼, member_id) 인덱스 역방향 스캔과 맞춤
+    private Sort sortable(Sort sort) {
+        List<Sort.Order> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            if (SORTABLE.containsKey(order.getProperty())) {
+                orders.add(new Sort.Order(order.getDirection(), order.getProperty()));
+            }
+        }
+        if (orders.stream().noneMatch(order -> order.getProperty().equals("id"))) {
+            Sort.Direction direction = orders.isEmpty() ? Sort.Direction.ASC : orders.get(0).getDirection();
+            orders.add(new Sort.Order(direction, "id"));
+        }
+        return Sort.by(orders);
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private OrderSpecifier<?>[] orderBy(Sort sort) {
+        return sortable(sort).stream()
+                .map(order -> new OrderSpecifier(order.isAscending() ? Order.ASC : Order.DESC,
+                        SORTABLE.get(order.getProperty())))
+                .toArray(OrderSpecifier[]::new);
+    }
+
+    // keyset은 정렬 기준 하나만(허용한 정렬 중 첫번째, 없으면 id)
+    private Sort.Order keysetOrder(Sort sort) {
+        return sort.stream()
+                .filter(order -> SORTABLE.containsKey(order.getProperty()))
+                .findFirst()
+                .map(order -> new Sort.Order(order.getDirection(), order.getProperty()))
+                .orElse(Sort.Order.asc("id"));
+    }
+
+    private BooleanExpression after(Sort.Order order, MemberKeyset keyset) {
+        if (keyset == null || keyset.getLastId() == null) {
+            return null;
+        }
+        boolean asc = order.isAscending();
+        Long lastId = keyset.getLastId();
+        BooleanExpression idAfter = asc ? member.id.gt(lastId) : member.id.lt(lastId);
+        switch (order.getProperty()) {
+            case "username" -> {
+                String last = required(keyset.getLastUsername(), "lastUsername");
+                return asc ? member.username.goe(last).and(member.username.gt(last).or(idAfter))
+                        : member.username.loe(last).and(member.username.lt(last).or(idAfter));
+            }
+            case "age" -> {
+                Integer last = required(keyset.getLastAge(), "lastAge");
+                return asc ? member.age.goe(last).and(member.age.gt(last).or(idAfter))
+                        : member.age.loe(last).and(member.age.lt(last).or(idAfter));
+            }
+            default -> {
+                return idAfter;
+            }
+        }
+    }
+
+    // 리포지토리 프록시의 예외 변환을 거쳐도 그대로 나가도록 DataAccessException으로 던짐(컨트롤러에서 400)
+    private static <T> T required(T value, String name) {
+        if (value == null) {
+            throw new InvalidDataAccessApiUsageException(name + " is required for keyset paging");
+        }
+        return value;
+    }
+
+    // 인덱스와 같은 규칙(대소문자 구분 없음)으로 다시 확인
+    private Predicate nameMatches(StringPath name, String value, NameMatch match) {
+        if (!StringUtils.hasText(value)) {
+            return null;
+        }
+        if (match == NameMatch.PREFIX) {
+            return name.startsWithIgnoreCase(value);
+        }
+        if (match == NameMatch.CONTAINS) {
+            return name.containsIgnoreCase(value);
+        }
+        return name.eq(value);
     }
 
     private Predicate usernameEq(String username) {
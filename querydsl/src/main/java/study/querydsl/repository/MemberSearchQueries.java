@@ -0,0 +1,177 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.HQLTemplates;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAQuery;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static study.querydsl.entity.QMember.*;
+import static study.querydsl.entity.QTeam.*;
+
+/*
+    회원 검색 쿼리 템플릿 캐시
+     - MemberSearchCondition에서 값이 있는 필드(username, teamName, ageGoe, ageLoe) 조합 = 쿼리 모양 16가지
+     - 모양마다 처음 한 번만 Querydsl 쿼리(select, join, where)를 만들어 JPQL로 렌더링해 둠
+       조건 값은 Param(?1, ?2 ...)으로 남겨두고 호출마다 바인딩만 함
+     - 모양별 JPQL 문자열이 항상 같으므로 Hibernate의 HQL 해석 캐시도 매번 적중
+     - 결과는 Object[]로 받아 MemberTeamDTO 생성자로 직접 매핑
+     - 메트릭: querydsl.member.search.template(result=hit|miss), querydsl.member.search.template.prepared
+ */
+@Component
+public class MemberSearchQueries implements MeterBinder {
+
+    private static final int USERNAME = 1;
+    private static final int TEAM_NAME = 1 << 1;
+    private static final int AGE_GOE = 1 << 2;
+    private static final int AGE_LOE = 1 << 3;
+    private static final int SHAPES = 1 << 4;
+
+    private static final Param<String> usernameParam = new Param<>(String.class, "username");
+    private static final Param<String> teamNameParam = new Param<>(String.class, "teamName");
+    private static final Param<Integer> ageGoeParam = new Param<>(Integer.class, "ageGoe");
+    private static final Param<Integer> ageLoeParam = new Param<>(Integer.class, "ageLoe");
+
+    private final EntityManager em;
+    private final AtomicReferenceArray<Template> contentTemplates = new AtomicReferenceArray<>(SHAPES);
+    private final AtomicReferenceArray<Template> countTemplates = new AtomicReferenceArray<>(SHAPES);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public MemberSearchQueries(EntityManager em) {
+        this.em = em;
+    }
+
+    public List<MemberTeamDTO> content(MemberSearchCondition condition) {
+        return content(condition, 0, -1);
+    }
+
+    // limit < 0 이면 전체
+    @SuppressWarnings("unchecked")
+    public List<MemberTeamDTO> content(MemberSearchCondition condition, long offset, int limit) {
+        Query query = template(contentTemplates, shape(condition), false).bind(em, condition);
+        if (offset > 0) {
+            query.setFirstResult(Math.toIntExact(offset));
+        }
+        if (limit >= 0) {
+            query.setMaxResults(limit);
+        }
+        List<Object[]> rows = query.getResultList();
+        List<MemberTeamDTO> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            result.add(new MemberTeamDTO((Long) row[0], (String) row[1], (Integer) row[2], (Long) row[3], (String) row[4]));
+        }
+        return result;
+    }
+
+    public long count(MemberSearchCondition condition) {
+        Long count = (Long) template(countTemplates, shape(condition), true).bind(em, condition).getSingleResult();
+        return count == null ? 0 : count;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public int prepared() {
+        int prepared = 0;
+        for (int i = 0; i < SHAPES; i++) {
+            if (contentTemplates.get(i) != null) prepared++;
+            if (countTemplates.get(i) != null) prepared++;
+        }
+        return prepared;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("querydsl.member.search.template", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("querydsl.member.search.template", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("querydsl.member.search.template.prepared", this, MemberSearchQueries::prepared)
+                .register(registry);
+    }
+
+    static int shape(MemberSearchCondition condition) {
+        int shape = 0;
+        if (StringUtils.hasText(condition.getUsername())) shape |= USERNAME;
+        if (StringUtils.hasText(condition.getTeamName())) shape |= TEAM_NAME;
+        if (condition.getAgeGoe() != null) shape |= AGE_GOE;
+        if (condition.getAgeLoe() != null) shape |= AGE_LOE;
+        return shape;
+    }
+
+    // 동시에 처음 요청이 몰리면 같은 모양을 두 번 만들 수 있지만 결과가 같으므로 먼저 들어간 것을 씀
+    private Template template(AtomicReferenceArray<Template> templates, int shape, boolean count) {
+        Template template = templates.get(shape);
+        if (template != null) {
+            hits.increment();
+            return template;
+        }
+        misses.increment();
+        templates.compareAndSet(shape, null, prepare(shape, count));
+        return templates.get(shape);
+    }
+
+    private static Template prepare(int shape, boolean count) {
+        JPAQuery<?> query = count
+                ? new JPAQuery<Void>().select(member.count())
+                : new JPAQuery<Void>().select(member.id, member.username, member.age, team.id, team.name);
+        query.from(member);
+        // member -> team은 ManyToOne이라 left join이 행 수를 바꾸지 않음. count는 팀 조건이 있을 때만 join
+        if (!count || (shape & TEAM_NAME) != 0) {
+            query.leftJoin(member.team, team);
+        }
+        query.where(
+                (shape & USERNAME) != 0 ? member.username.eq(usernameParam) : null,
+                (shape & TEAM_NAME) != 0 ? team.name.eq(teamNameParam) : null,
+                (shape & AGE_GOE) != 0 ? member.age.goe(ageGoeParam) : null,
+                (shape & AGE_LOE) != 0 ? member.age.loe(ageLoeParam) : null);
+
+        JPQLSerializer serializer = new JPQLSerializer(HQLTemplates.DEFAULT);
+        serializer.serialize(query.getMetadata(), false, null);
+        return new Template(serializer.toString(), List.copyOf(serializer.getConstants()));
+    }
+
+    // constants: ?1, ?2 ... 순서의 Param(또는 리터럴 상수)
+    private record Template(String jpql, List<Object> constants) {
+
+        Query bind(EntityManager em, MemberSearchCondition condition) {
+            Query query = em.createQuery(jpql);
+            for (int i = 0; i < constants.size(); i++) {
+                Object constant = constants.get(i);
+                query.setParameter(i + 1, constant instanceof ParamExpression<?> param ? value(param, condition) : constant);
+            }
+            return query;
+        }
+
+        private static Object value(ParamExpression<?> param, MemberSearchCondition condition) {
+            if (param == usernameParam) return condition.getUsername();
+            if (param == teamNameParam) return condition.getTeamName();
+            if (param == ageGoeParam) return condition.getAgeGoe();
+            if (param == ageLoeParam) return condition.getAgeLoe();
+            throw new IllegalStateException("unknown param " + param);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/*
+    Member -> Team 배치 로더
+     - Member.team은 LAZY라 회원 목록을 돌며 getTeam().getName()을 하면 팀마다 쿼리가 나감(N+1)
+     - load()로 필요한 팀 id를 모아두고 dispatch() 한 번에 in 쿼리 하나로 가져옴(1000개씩 끊음)
+     - 한 번 가져온 팀은 로더가 살아있는 동안 다시 조회하지 않음
+     - 가져온 팀은 영속성 컨텍스트에 올라가므로 이후 member.getTeam().getName()도 쿼리 없이 초기화됨
+     - dispatch()를 부르지 않아도 아직 안 끝난 future를 join()/get() 하면 그때 모인 id를 한 번에 가져옴
+       (thenApply 등으로 이어 붙인 future도 같음)
+     - 웹 요청: TeamBatchLoaderConfig의 요청 스코프 빈. 컨트롤러가 끝나면(뷰 렌더링 전, OSIV 영속성 컨텍스트가 열려 있을 때) 남은 id도 가져옴
+     - 요청 밖(배치, 스케줄러 등): new TeamBatchLoader(em)로 만들어서 쓰고 끝나기 전에 dispatch()
+     - 만든 스레드 전용(동기화 없음). 다른 스레드에서 load/dispatch 하면 IllegalStateException. 없는 팀 id는 null로 완료
+ */
+public class TeamBatchLoader {
+
+    private static final int MAX_BATCH = 1000;
+
+    private final EntityManager em;
+    private final Thread owner = Thread.currentThread();
+    private final Map<Long, Team> loaded = new HashMap<>();
+    private final Map<Long, CompletableFuture<Team>> pending = new LinkedHashMap<>();
+
+    public TeamBatchLoader(EntityManager em) {
+        this.em = em;
+    }
+
+    // 팀 프록시의 id만 읽으므로 팀을 초기화하지 않음
+    public CompletableFuture<Team> load(Member member) {
+        return load(member.getTeam() == null ? null : member.getTeam().getId());
+    }
+
+    public CompletableFuture<Team> load(Long teamId) {
+        checkOwner();
+        if (teamId == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (loaded.containsKey(teamId)) {
+            return CompletableFuture.completedFuture(loaded.get(teamId));
+        }
+        return pending.computeIfAbsent(teamId, id -> new DispatchingFuture<>());
+    }
+
+    // 바로 필요할 때. 아직 안 가져왔으면 지금까지 모인 id를 같이 가져옴
+    public Team get(Long teamId) {
+        return load(teamId).join();
+    }
+
+    // 모인 팀 id를 in 쿼리로 가져옴. 실행한 쿼리 수를 돌려줌
+    public int dispatch() {
+        checkOwner();
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = new ArrayList<>(pending.keySet());
+        int queries = 0;
+        for (int from = 0; from < ids.size(); from += MAX_BATCH) {
+            List<Long> chunk = ids.subList(from, Math.min(from + MAX_BATCH, ids.size()));
+            for (Team team : em.createQuery("select t from Team t where t.id in :ids", Team.class)
+                    .setParameter("ids", chunk)
+                    .getResultList()) {
+                loaded.put(team.getId(), team);
+            }
+            queries++;
+        }
+        for (Long id : ids) {
+            loaded.putIfAbsent(id, null);
+            pending.remove(id).complete(loaded.get(id));
+        }
+        return queries;
+    }
+
+    private void checkOwner() {
+        if (Thread.currentThread() != owner) {
+            throw new IllegalStateException("TeamBatchLoader는 만든 스레드에서만 사용할 수 있습니다. owner=" + owner.getName());
+        }
+    }
+
+    // 끝나지 않은 상태에서 기다리면 먼저 dispatch. 이어 붙인 future도 이 타입으로 만들어짐
+    private class DispatchingFuture<T> extends CompletableFuture<T> {
+
+        @Override
+        public <U> CompletableFuture<U> newIncompleteFuture() {
+            return new DispatchingFuture<>();
+        }
+
+        @Override
+        public T join() {
+            dispatchIfPending();
+            return super.join();
+        }
+
+        @Override
+        public T get() throws InterruptedException, ExecutionException {
+            dispatchIfPending();
+            return super.get();
+        }
+
+        @Override
+        public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            dispatchIfPending();
+            return super.get(timeout, unit);
+        }
+
+        private void dispatchIfPending() {
+            if (!isDone()) {
+                dispatch();
+            }
+        }
+    }
+}
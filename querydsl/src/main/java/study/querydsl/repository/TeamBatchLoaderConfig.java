@@ -0,0 +1,50 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.annotation.RequestScope;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/*
+    웹 요청용 TeamBatchLoader
+     - 요청마다 하나(요청 스코프). 요청 밖에서 주입받아 쓰면 ScopeNotActiveException이므로 그때는 직접 new TeamBatchLoader(em)
+     - 컨트롤러가 끝나면(postHandle) 아무도 기다리지 않은 id도 가져와서 이어 붙인 작업을 완료시킴
+        - 뷰 렌더링 전이고 OSIV 영속성 컨텍스트가 아직 열려 있음(OSIV는 afterCompletion에서 닫음)
+        - 이 요청에서 로더를 만든 적이 없으면 아무것도 안 함
+ */
+@Configuration
+public class TeamBatchLoaderConfig implements WebMvcConfigurer {
+
+    static final String LOADER_ATTRIBUTE = TeamBatchLoader.class.getName();
+
+    @Bean
+    @RequestScope
+    public TeamBatchLoader teamBatchLoader(EntityManager em) {
+        TeamBatchLoader loader = new TeamBatchLoader(em);
+        RequestContextHolder.currentRequestAttributes().setAttribute(LOADER_ATTRIBUTE, loader, RequestAttributes.SCOPE_REQUEST);
+        return loader;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new DispatchInterceptor());
+    }
+
+    static class DispatchInterceptor implements HandlerInterceptor {
+
+        @Override
+        public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler, ModelAndView modelAndView) {
+            if (request.getAttribute(LOADER_ATTRIBUTE) instanceof TeamBatchLoader loader) {
+                loader.dispatch();
+            }
+        }
+    }
+}
@@ -0,0 +1,399 @@
+package study.querydsl.search;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.NameMatch;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/*
+    회원명(Member.username), 팀명(Team.name) 메모리 인덱스
+     - like 'x%', like '%x%'는 테이블을 다 읽으므로 이름 -> id를 메모리에서 먼저 찾고 DB는 id in (...)으로 조회
+     - PREFIX: 정렬된 이름 맵(TreeMap)의 범위 조회
+     - CONTAINS: 3-gram 역인덱스의 교집합 후 실제로 포함하는지 확인. 3글자 미만이면 이름 전체를 훑음
+     - 대소문자 구분 없음(소문자로 맞춰서 저장)
+     - 시작할 때 DB에서 전부 읽어 만들고, 이후 변경은 엔티티 리스너(MemberNameIndexListener)로 반영
+       반영은 flush 시점(insert/update/delete 실행 후)에 바로 하고, 롤백되면 트랜잭션 안의 변경을 역순으로 되돌림
+       그래서 커밋 전 변경이 다른 요청의 검색에 잠깐 보일 수 있음
+     - reload 중에 들어온 변경은 따로 모아 두었다가 새로 읽은 인덱스에도 적용한 뒤 바꿔 끼움
+     - 벌크 update/delete는 엔티티 리스너를 거치지 않으므로 실행한 쪽에서 reloadAfterCommit() 호출
+     - 회원 100만명 기준 수백 MB를 씀(id를 Long 객체로 들고 있음)
+ */
+@Slf4j
+@Component
+public class MemberNameIndex {
+
+    private final EntityManager em;
+    private final TransactionTemplate readOnlyTx;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    private State state = new State();
+    // reload 중에만 null이 아님. 그 사이의 변경을 새 인덱스에 다시 적용하기 위해 모아둠
+    private List<Consumer<State>> changesDuringReload;
+
+    public MemberNameIndex(EntityManager em, PlatformTransactionManager transactionManager) {
+        this.em = em;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    // username, teamName 중 하나라도 PREFIX/CONTAINS 검색이면 인덱스를 씀
+    public static boolean supports(MemberSearchCondition condition) {
+        return indexed(condition.getUsername(), condition.getUsernameMatch())
+                || indexed(condition.getTeamName(), condition.getTeamNameMatch());
+    }
+
+    public static boolean indexed(String name, NameMatch match) {
+        return StringUtils.hasText(name) && match != null && match != NameMatch.EXACT;
+    }
+
+    // PREFIX/CONTAINS 조건에 맞는 회원 id. EXACT 조건은 DB에서 거름
+    public Set<Long> findMemberIds(MemberSearchCondition condition) {
+        lock.readLock().lock();
+        try {
+            Set<Long> result = null;
+            if (indexed(condition.getUsername(), condition.getUsernameMatch())) {
+                result = state.usernames.find(condition.getUsername(), condition.getUsernameMatch());
+            }
+            if (indexed(condition.getTeamName(), condition.getTeamNameMatch())) {
+                Set<Long> byTeam = new HashSet<>();
+                for (Long teamId : state.teamNames.find(condition.getTeamName(), condition.getTeamNameMatch())) {
+                    byTeam.addAll(state.membersByTeam.getOrDefault(teamId, Set.of()));
+                }
+                if (result == null) {
+                    result = byTeam;
+                } else {
+                    result.retainAll(byTeam);
+                }
+            }
+            return result == null ? Set.of() : result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return state.members.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        reloadLock.lock();
+        try {
+            long start = System.currentTimeMillis();
+            setChangesDuringReload(new ArrayList<>());
+            State loaded;
+            try {
+                loaded = readOnlyTx.execute(status -> {
+                    State s = new State();
+                    em.createQuery("select t.id, t.name from Team t", Object[].class)
+                            .getResultStream()
+                            .forEach(row -> s.putTeam((Long) row[0], (String) row[1]));
+                    em.createQuery("select m.id, m.username, m.team.id from Member m", Object[].class)
+                            .getResultStream()
+                            .forEach(row -> s.putMember((Long) row[0], new MemberEntry((String) row[1], (Long) row[2])));
+                    return s;
+                });
+            } catch (RuntimeException e) {
+                setChangesDuringReload(null);
+                throw e;
+            }
+            // 읽는 동안 반영된 변경(커밋 전 변경과 그 되돌리기 포함)을 새 인덱스에도 순서대로 적용하고 바꿔 끼움
+            lock.writeLock().lock();
+            try {
+                changesDuringReload.forEach(change -> change.accept(loaded));
+                changesDuringReload = null;
+                state = loaded;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("member name index loaded: {} members, {} teams in {} ms",
+                    loaded.members.size(), loaded.teams.size(), System.currentTimeMillis() - start);
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    // 벌크 update/delete 후 호출. 커밋되면 다시 읽음(트랜잭션 밖이면 바로)
+    public void reloadAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reload();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                reload();
+            }
+        });
+    }
+
+    void memberChanged(Long id, String username, Long teamId) {
+        MemberEntry previous = write(s -> s.putMember(id, new MemberEntry(username, teamId)));
+        undoOnRollback(s -> {
+            if (previous == null) {
+                s.removeMember(id);
+            } else {
+                s.putMember(id, previous);
+            }
+        });
+    }
+
+    void memberRemoved(Long id) {
+        MemberEntry previous = write(s -> s.removeMember(id));
+        if (previous != null) {
+            undoOnRollback(s -> s.putMember(id, previous));
+        }
+    }
+
+    void teamChanged(Long id, String name) {
+        String previous = write(s -> s.putTeam(id, name));
+        undoOnRollback(s -> {
+            if (previous == null) {
+                s.removeTeam(id);
+            } else {
+                s.putTeam(id, previous);
+            }
+        });
+    }
+
+    void teamRemoved(Long id) {
+        String previous = write(s -> s.removeTeam(id));
+        if (previous != null) {
+            undoOnRollback(s -> s.putTeam(id, previous));
+        }
+    }
+
+    private void setChangesDuringReload(List<Consumer<State>> changes) {
+        lock.writeLock().lock();
+        try {
+            changesDuringReload = changes;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // 인덱스 변경은 모두 여기로. reload 중이면 새 인덱스에 다시 적용할 수 있게 기록
+    private <T> T write(Function<State, T> change) {
+        lock.writeLock().lock();
+        try {
+            if (changesDuringReload != null) {
+                changesDuringReload.add(change::apply);
+            }
+            return change.apply(state);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // 트랜잭션마다 되돌리기 목록 하나. 같은 트랜잭션의 변경(A -> B -> C)은 롤백할 때 역순으로 되돌려야 A가 남음
+    private void undoOnRollback(Consumer<State> undo) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        UndoLog undoLog = null;
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof UndoLog candidate && candidate.owner() == this) {
+                undoLog = candidate;
+            }
+        }
+        if (undoLog == null) {
+            undoLog = new UndoLog();
+            TransactionSynchronizationManager.registerSynchronization(undoLog);
+        }
+        undoLog.undos.push(undo);
+    }
+
+    // 현재 트랜잭션(REQUIRES_NEW로 중단된 바깥 트랜잭션과는 따로)의 되돌리기 목록
+    private class UndoLog implements TransactionSynchronization {
+        private final Deque<Consumer<State>> undos = new ArrayDeque<>();
+
+        MemberNameIndex owner() {
+            return MemberNameIndex.this;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status != STATUS_ROLLED_BACK) {
+                return;
+            }
+            // 복사본을 되돌림. reload 중이면 이 되돌리기가 새 인덱스에 다시 적용될 때도 같은 목록을 씀
+            List<Consumer<State>> lifo = List.copyOf(undos);
+            undos.clear();
+            write(s -> {
+                lifo.forEach(undo -> undo.accept(s));
+                return null;
+            });
+        }
+    }
+
+    private record MemberEntry(String username, Long teamId) {
+    }
+
+    private static class State {
+        final Map<Long, MemberEntry> members = new HashMap<>();
+        final Map<Long, String> teams = new HashMap<>();
+        final Map<Long, Set<Long>> membersByTeam = new HashMap<>();
+        final NameIndex usernames = new NameIndex();
+        final NameIndex teamNames = new NameIndex();
+
+        MemberEntry putMember(Long id, MemberEntry entry) {
+            MemberEntry previous = removeMember(id);
+            members.put(id, entry);
+            if (entry.username() != null) {
+                usernames.add(id, entry.username());
+            }
+            if (entry.teamId() != null) {
+                membersByTeam.computeIfAbsent(entry.teamId(), teamId -> new HashSet<>()).add(id);
+            }
+            return previous;
+        }
+
+        MemberEntry removeMember(Long id) {
+            MemberEntry previous = members.remove(id);
+            if (previous == null) {
+                return null;
+            }
+            if (previous.username() != null) {
+                usernames.remove(id, previous.username());
+            }
+            if (previous.teamId() != null) {
+                Set<Long> teamMembers = membersByTeam.get(previous.teamId());
+                if (teamMembers != null) {
+                    teamMembers.remove(id);
+                }
+            }
+            return previous;
+        }
+
+        String putTeam(Long id, String name) {
+            String previous = removeTeam(id);
+            teams.put(id, name);
+            if (name != null) {
+                teamNames.add(id, name);
+            }
+            return previous;
+        }
+
+        String removeTeam(Long id) {
+            boolean existed = teams.containsKey(id);
+            String previous = teams.remove(id);
+            if (previous != null) {
+                teamNames.remove(id, previous);
+            }
+            return existed ? previous : null;
+        }
+    }
+
+    // 이름 -> id. 정렬된 이름 맵(PREFIX) + 3-gram 역인덱스(CONTAINS)
+    static class NameIndex {
+        private static final int GRAM = 3;
+
+        private final NavigableMap<String, Set<Long>> byName = new TreeMap<>();
+        private final Map<String, Set<Long>> byGram = new HashMap<>();
+        private final Map<Long, String> names = new HashMap<>();
+
+        void add(Long id, String name) {
+            String key = normalize(name);
+            names.put(id, key);
+            byName.computeIfAbsent(key, k -> new HashSet<>(2)).add(id);
+            for (String gram : grams(key)) {
+                byGram.computeIfAbsent(gram, g -> new HashSet<>()).add(id);
+            }
+        }
+
+        void remove(Long id, String name) {
+            String key = normalize(name);
+            names.remove(id);
+            removeFrom(byName, key, id);
+            for (String gram : grams(key)) {
+                removeFrom(byGram, gram, id);
+            }
+        }
+
+        Set<Long> find(String query, NameMatch match) {
+            String key = normalize(query);
+            Set<Long> result = new HashSet<>();
+            if (match == NameMatch.PREFIX) {
+                for (Set<Long> ids : byName.subMap(key, true, key + Character.MAX_VALUE, false).values()) {
+                    result.addAll(ids);
+                }
+                return result;
+            }
+            if (key.length() < GRAM) {
+                for (Map.Entry<String, Set<Long>> entry : byName.entrySet()) {
+                    if (entry.getKey().contains(key)) {
+                        result.addAll(entry.getValue());
+                    }
+                }
+                return result;
+            }
+            // 가장 작은 posting부터 훑고 나머지 gram에 모두 있는지, 실제로 포함하는지 확인
+            List<Set<Long>> postings = new ArrayList<>();
+            for (String gram : grams(key)) {
+                Set<Long> ids = byGram.get(gram);
+                if (ids == null) {
+                    return result;
+                }
+                postings.add(ids);
+            }
+            postings.sort(Comparator.comparingInt(Set::size));
+            Set<Long> smallest = postings.get(0);
+            List<Set<Long>> others = postings.subList(1, postings.size());
+            for (Long id : smallest) {
+                if (containsAll(others, id) && names.get(id).contains(key)) {
+                    result.add(id);
+                }
+            }
+            return result;
+        }
+
+        private static boolean containsAll(List<Set<Long>> postings, Long id) {
+            for (Set<Long> ids : postings) {
+                if (!ids.contains(id)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static Set<String> grams(String key) {
+            Set<String> grams = new HashSet<>();
+            for (int i = 0; i + GRAM <= key.length(); i++) {
+                grams.add(key.substring(i, i + GRAM));
+            }
+            return grams;
+        }
+
+        private static void removeFrom(Map<String, Set<Long>> index, String key, Long id) {
+            Set<Long> ids = index.get(key);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                index.remove(key);
+            }
+        }
+
+        private static String normalize(String name) {
+            return name.toLowerCase(Locale.ROOT);
+        }
+    }
+}
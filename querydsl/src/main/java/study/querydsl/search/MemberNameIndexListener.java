@@ -0,0 +1,42 @@
+package study.querydsl.search;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+/*
+    Member, Team 저장/수정/삭제를 MemberNameIndex에 반영(@EntityListeners)
+     - Hibernate가 스프링 빈 컨테이너로 만들기 때문에 주입 가능
+     - 리스너는 EntityManagerFactory를 만들 때 생기므로 인덱스(EntityManager 필요)는 처음 쓸 때 가져옴
+ */
+public class MemberNameIndexListener {
+
+    private final ObjectProvider<MemberNameIndex> index;
+
+    public MemberNameIndexListener(ObjectProvider<MemberNameIndex> index) {
+        this.index = index;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void saved(Object entity) {
+        if (entity instanceof Member member) {
+            index.getObject().memberChanged(member.getId(), member.getUsername(),
+                    member.getTeam() == null ? null : member.getTeam().getId());
+        } else if (entity instanceof Team team) {
+            index.getObject().teamChanged(team.getId(), team.getName());
+        }
+    }
+
+    @PostRemove
+    public void removed(Object entity) {
+        if (entity instanceof Member member) {
+            index.getObject().memberRemoved(member.getId());
+        } else if (entity instanceof Team team) {
+            index.getObject().teamRemoved(team.getId());
+        }
+    }
+}
@@ -27,6 +27,7 @@ import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.entity.QTeam;
 import study.querydsl.entity.Team;
+import study.querydsl.search.MemberNameIndex;
 
 import java.util.List;
 
@@ -56,6 +57,8 @@ public class QuerydslBasicTest {
      */
     @Autowired
     EntityManager em;
+    @Autowired
+    MemberNameIndex nameIndex;
 
     JPAQueryFactory jpaQueryFactory;
 
@@ -669,6 +672,7 @@ public class QuerydslBasicTest {
             벌크 연산은 엔티티 영속성을 무시하고 DB 데이터를 바꿔버림
             영속성 컨테스트에는 데이터가 그대로 유지되므로 데이터가 서로 맞지않게 되는데 영속성 컨테스트 데이터가 우선권을 가짐
             해결하기위해 em.flush(); em.clear(); (초기화 작업) 추가
+            엔티티 리스너도 거치지 않으므로 회원명 인덱스(MemberNameIndex)는 커밋 후 다시 읽게 함(reloadAfterCommit)
      */
     @Test
     public void bulkUpdate(){
@@ -682,6 +686,7 @@ public class QuerydslBasicTest {
                 .set(member.username, "비회원")
                 .where(member.age.lt(28))
                 .execute();
+        nameIndex.reloadAfterCommit();
 
         em.flush();
         em.clear();
@@ -707,6 +712,7 @@ public class QuerydslBasicTest {
                 .delete(member)
                 .where(member.age.gt(18))
                 .execute();
+        nameIndex.reloadAfterCommit();
     }
     @Test
     public void sqlFunction(){
@@ -0,0 +1,109 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// count가 별도 커넥션에서 실행되므로 데이터는 커밋해서 넣고 끝나면 지움
+@SpringBootTest(properties = {
+        "querydsl.member-page.parallel=true",
+        "querydsl.member-page.approximate-threshold=3"})
+class MemberPageExecutorTest {
+
+    @Autowired EntityManager em;
+    @Autowired TransactionTemplate tx;
+    @Autowired MemberRepository memberRepository;
+
+    @BeforeEach
+    void setUp() {
+        tx.executeWithoutResult(status -> {
+            Team pageA = new Team("pageA");
+            Team pageB = new Team("pageB");
+            em.persist(pageA);
+            em.persist(pageB);
+            em.persist(new Member("page1", 10, pageA));
+            em.persist(new Member("page2", 20, pageA));
+            em.persist(new Member("page3", 30, pageA));
+            em.persist(new Member("page4", 40, pageA));
+            em.persist(new Member("page5", 50, pageB));
+            em.persist(new Member("page6", 60, pageB));
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        // 엔티티로 지워야 회원명 인덱스(MemberNameIndex)에서도 빠짐
+        tx.executeWithoutResult(status -> {
+            em.createQuery("select m from Member m where m.username like 'page%'", Member.class)
+                    .getResultList()
+                    .forEach(em::remove);
+            em.createQuery("select t from Team t where t.name like 'page%'", Team.class)
+                    .getResultList()
+                    .forEach(em::remove);
+        });
+    }
+
+    @Test
+    public void parallelCount() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("pageB");
+
+        Page<MemberTeamDTO> page = memberRepository.searchPageComplex(condition, PageRequest.of(0, 1));
+        assertThat(page.getContent()).extracting("username").containsExactly("page5");
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(((ApproximatePage<MemberTeamDTO>) page).isTotalApproximate()).isFalse();
+
+        // 페이지를 다 못 채우면 count 없이 전체 수
+        page = memberRepository.searchPageComplex(condition, PageRequest.of(0, 10));
+        assertThat(page.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    public void unpaged() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("pageA");
+
+        Page<MemberTeamDTO> page = memberRepository.searchPageComplex(condition, Pageable.unpaged());
+        assertThat(page.getContent()).hasSize(4);
+        assertThat(page.getTotalElements()).isEqualTo(4);
+    }
+
+    @Test
+    public void approximateCount() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("pageA");
+
+        ApproximatePage<MemberTeamDTO> page =
+                (ApproximatePage<MemberTeamDTO>) memberRepository.searchPageComplex(condition, PageRequest.of(0, 2));
+        assertThat(page.getTotalElements()).isEqualTo(4);
+        assertThat(page.isTotalApproximate()).isTrue();
+        assertThat(page.getTotalText()).isEqualTo("about 4");
+
+        // 임계값 이상이면 ttl 동안 캐시된 count를 씀
+        tx.executeWithoutResult(status ->
+                em.persist(new Member("page7", 70, em.createQuery("select t from Team t where t.name = 'pageA'", Team.class)
+                        .getSingleResult())));
+        page = (ApproximatePage<MemberTeamDTO>) memberRepository.searchPageComplex(condition, PageRequest.of(0, 2));
+        assertThat(page.getTotalElements()).isEqualTo(4);
+        assertThat(page.isTotalApproximate()).isTrue();
+
+        // 마지막 페이지는 offset + content 수로 정확히 앎
+        page = (ApproximatePage<MemberTeamDTO>) memberRepository.searchPageComplex(condition, PageRequest.of(2, 2));
+        assertThat(page.getContent()).extracting("username").containsExactly("page7");
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        assertThat(page.isTotalApproximate()).isFalse();
+    }
+}
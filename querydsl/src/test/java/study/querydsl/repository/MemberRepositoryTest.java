@@ -4,13 +4,21 @@ import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberKeyset;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.dto.NameMatch;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.entity.Team;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -25,6 +33,8 @@ class MemberRepositoryTest {
     EntityManager em;
 
     @Autowired MemberRepository memberRepository;
+    @Autowired MemberRepositoryImpl memberRepositoryImpl;
+    @Autowired MemberSearchQueries searchQueries;
 
     @Test
     public void basicTest(){
@@ -91,6 +101,208 @@ class MemberRepositoryTest {
         }
     }
 
+    @Test
+    public void searchPageSimpleTest(){
+        saveMembers();
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        Page<MemberTeamDTO> first = memberRepository.searchPageSimple(condition, PageRequest.of(0, 3));
+        assertThat(first.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
+        assertThat(first.getTotalElements()).isEqualTo(4);
+
+        // 마지막 페이지: count 없이 offset + content 수
+        Page<MemberTeamDTO> last = memberRepository.searchPageSimple(condition, PageRequest.of(1, 3));
+        assertThat(last.getContent()).extracting("username").containsExactly("member4");
+        assertThat(last.getTotalElements()).isEqualTo(4);
+
+        // 끝을 넘어간 페이지
+        Page<MemberTeamDTO> over = memberRepository.searchPageSimple(condition, PageRequest.of(5, 3));
+        assertThat(over.getContent()).isEmpty();
+        assertThat(over.getTotalElements()).isEqualTo(4);
+
+        condition.setTeamName("teamB");
+        Page<MemberTeamDTO> team = memberRepository.searchPageSimple(condition, PageRequest.of(0, 1));
+        assertThat(team.getContent()).extracting("username").containsExactly("member3");
+        assertThat(team.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    public void searchPageSimpleSortTest(){
+        saveMembers();
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        Page<MemberTeamDTO> byAge = memberRepository.searchPageSimple(condition,
+                PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "age")));
+        assertThat(byAge.getContent()).extracting("username").containsExactly("member4", "member3");
+
+        // 허용하지 않은 정렬은 무시하고 id 순
+        Page<MemberTeamDTO> notAllowed = memberRepository.searchPageSimple(condition,
+                PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "teamName")));
+        assertThat(notAllowed.getContent()).extracting("username").containsExactly("member1", "member2");
+
+        Page<MemberTeamDTO> simple2 = memberRepositoryImpl.searchPageSimple2(condition,
+                PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "username")));
+        assertThat(simple2.getContent()).extracting("username").containsExactly("member2", "member1");
+        assertThat(simple2.getTotalElements()).isEqualTo(4);
+    }
+
+    @Test
+    public void searchKeysetTest(){
+        saveMembers();
+        em.persist(new Member("member2", 50)); // 같은 username이면 id 순
+        MemberSearchCondition condition = new MemberSearchCondition();
+        PageRequest pageable = PageRequest.of(0, 2, Sort.by("username"));
+
+        Slice<MemberTeamDTO> first = memberRepository.searchKeyset(condition, new MemberKeyset(), pageable);
+        assertThat(first.getContent()).extracting("age").containsExactly(10, 20);
+        assertThat(first.hasNext()).isTrue();
+
+        MemberKeyset keyset = new MemberKeyset();
+        MemberTeamDTO lastRow = first.getContent().get(1);
+        keyset.setLastId(lastRow.getMemberId());
+        keyset.setLastUsername(lastRow.getUsername());
+        Slice<MemberTeamDTO> second = memberRepository.searchKeyset(condition, keyset, pageable);
+        assertThat(second.getContent()).extracting("age").containsExactly(50, 30);
+
+        lastRow = second.getContent().get(1);
+        keyset.setLastId(lastRow.getMemberId());
+        keyset.setLastUsername(lastRow.getUsername());
+        Slice<MemberTeamDTO> third = memberRepository.searchKeyset(condition, keyset, pageable);
+        assertThat(third.getContent()).extracting("age").containsExactly(40);
+        assertThat(third.hasNext()).isFalse();
+
+        // 나이 역순
+        keyset = new MemberKeyset();
+        keyset.setLastId(lastRow.getMemberId());
+        keyset.setLastAge(30);
+        Slice<MemberTeamDTO> byAge = memberRepository.searchKeyset(condition, keyset,
+                PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "age")));
+        assertThat(byAge.getContent()).extracting("age").containsExactly(20, 10);
+    }
+
+    @Test
+    public void searchKeysetMissingSortValueTest(){
+        MemberKeyset keyset = new MemberKeyset();
+        keyset.setLastId(1L);
+
+        assertThrows(InvalidDataAccessApiUsageException.class, () -> memberRepository.searchKeyset(new MemberSearchCondition(), keyset,
+                PageRequest.of(0, 2, Sort.by("username"))));
+    }
+
+    @Test
+    public void searchKeysetDescTiesTest(){
+        saveMembers();
+        // 나이 30이 3명. 페이지 크기 2로 읽으면 같은 나이가 페이지 경계에 걸림
+        em.persist(new Member("member5", 30));
+        em.persist(new Member("member6", 30));
+        MemberSearchCondition condition = new MemberSearchCondition();
+        PageRequest pageable = PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "age"));
+
+        List<String> usernames = new ArrayList<>();
+        MemberKeyset keyset = new MemberKeyset();
+        Slice<MemberTeamDTO> slice;
+        do {
+            slice = memberRepository.searchKeyset(condition, keyset, pageable);
+            slice.getContent().forEach(row -> usernames.add(row.getUsername()));
+            if (slice.hasContent()) {
+                MemberTeamDTO lastRow = slice.getContent().get(slice.getNumberOfElements() - 1);
+                keyset = new MemberKeyset();
+                keyset.setLastId(lastRow.getMemberId());
+                keyset.setLastAge(lastRow.getAge());
+            }
+        } while (slice.hasNext());
+
+        // 나이 역순, 같은 나이는 id 역순. 빠지거나 겹치는 행 없음
+        assertThat(usernames).containsExactly("member4", "member6", "member5", "member3", "member2", "member1");
+    }
+
+    @Test
+    public void searchTemplateTest(){
+        saveMembers();
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+        condition.setAgeGoe(35);
+        assertThat(memberRepository.search(condition)).extracting("username").containsExactly("member4");
+
+        // 같은 모양(teamName + ageGoe)은 값만 바뀌고 템플릿을 재사용
+        long misses = searchQueries.misses();
+        long hits = searchQueries.hits();
+        condition.setTeamName("teamA");
+        condition.setAgeGoe(15);
+        assertThat(memberRepository.search(condition)).extracting("username").containsExactly("member2");
+        assertThat(searchQueries.misses()).isEqualTo(misses);
+        assertThat(searchQueries.hits()).isEqualTo(hits + 1);
+
+        // 모든 조건 조합이 Querydsl로 직접 만든 쿼리와 같은 결과
+        String[] usernames = {null, "member3"};
+        String[] teamNames = {null, "teamB"};
+        Integer[] ages = {null, 30};
+        for (String username : usernames) {
+            for (String teamName : teamNames) {
+                for (Integer ageGoe : ages) {
+                    for (Integer ageLoe : ages) {
+                        MemberSearchCondition shape = new MemberSearchCondition();
+                        shape.setUsername(username);
+                        shape.setTeamName(teamName);
+                        shape.setAgeGoe(ageGoe);
+                        shape.setAgeLoe(ageLoe);
+                        List<MemberTeamDTO> expected = memberRepository.searchPageSimple(shape, PageRequest.of(0, 10)).getContent();
+                        assertThat(memberRepository.search(shape)).containsExactlyInAnyOrderElementsOf(expected);
+                        assertThat(memberRepository.searchPageComplex(shape, PageRequest.of(0, 1)).getTotalElements())
+                                .isEqualTo(expected.size());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void searchNameIndexTest(){
+        saveMembers();
+        em.flush(); // 이름 인덱스는 insert 실행 시점에 반영
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("MEM");
+        condition.setUsernameMatch(NameMatch.PREFIX);
+        condition.setAgeGoe(20);
+        assertThat(memberRepository.search(condition)).extracting("username")
+                .containsExactly("member2", "member3", "member4");
+
+        condition = new MemberSearchCondition();
+        condition.setUsername("ber3");
+        condition.setUsernameMatch(NameMatch.CONTAINS);
+        assertThat(memberRepository.search(condition)).extracting("username").containsExactly("member3");
+
+        // 팀명 CONTAINS + 회원명 EXACT(DB에서 거름)
+        condition = new MemberSearchCondition();
+        condition.setTeamName("amB");
+        condition.setTeamNameMatch(NameMatch.CONTAINS);
+        condition.setUsername("member4");
+        assertThat(memberRepository.search(condition)).extracting("username").containsExactly("member4");
+
+        // 수정도 반영
+        Member member1 = memberRepository.findByUsername("member1").get(0);
+        member1.setUsername("renamed1");
+        em.flush();
+        condition = new MemberSearchCondition();
+        condition.setUsername("rena");
+        condition.setUsernameMatch(NameMatch.PREFIX);
+        assertThat(memberRepository.search(condition)).extracting("username").containsExactly("renamed1");
+        condition.setUsername("member1");
+        assertThat(memberRepository.search(condition)).isEmpty();
+    }
+
+    private void saveMembers() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("member1",10,teamA));
+        em.persist(new Member("member2",20,teamA));
+        em.persist(new Member("member3",30,teamB));
+        em.persist(new Member("member4",40,teamB));
+    }
+
 //    @Test
 //    public void count() {
 //        Long totalCount = queryFactory
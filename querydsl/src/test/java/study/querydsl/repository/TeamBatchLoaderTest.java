@@ -0,0 +1,170 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.servlet.http.HttpServletRequest;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// 실행된 SQL 수는 Hibernate 통계(prepareStatementCount)로 확인
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@Transactional
+class TeamBatchLoaderTest {
+
+    @Autowired EntityManager em;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamBatchLoader teamLoader;
+    @Autowired MockMvc mockMvc;
+
+    Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        // 요청 스코프 빈이라 테스트에서는 요청을 직접 열어줌
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        Team teamC = new Team("teamC");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(teamC);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamC));
+        em.persist(new Member("member5", 50));
+        em.flush();
+        em.clear();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void oneQueryPerBatch() {
+        List<Member> members = memberRepository.findAll(Sort.by("id"));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        List<CompletableFuture<Team>> teams = members.stream().map(teamLoader::load).toList();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        assertThat(teamLoader.dispatch()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(teams).allMatch(CompletableFuture::isDone);
+        assertThat(teams.stream().map(CompletableFuture::join).map(team -> team == null ? null : team.getName()))
+                .containsExactly("teamA", "teamA", "teamB", "teamC", null);
+
+        // 팀 프록시도 영속성 컨텍스트의 팀으로 초기화되므로 쿼리 없음
+        for (Member member : members) {
+            if (member.getTeam() != null) {
+                member.getTeam().getName();
+            }
+        }
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    // dispatch()를 부르지 않아도 첫 join에서 모인 id를 한 번에 가져옴
+    @Test
+    public void joinDispatches() {
+        List<Member> members = memberRepository.findAll(Sort.by("id"));
+        List<CompletableFuture<Team>> teams = members.stream().map(teamLoader::load).toList();
+        CompletableFuture<String> firstName = teams.get(0).thenApply(Team::getName);
+
+        assertThat(firstName.join()).isEqualTo("teamA");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(teams).allMatch(CompletableFuture::isDone);
+        assertThat(teams.get(3).join().getName()).isEqualTo("teamC");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    // 컨트롤러가 끝나면(뷰 렌더링 전) 기다리지 않은 id도 가져와서 완료
+    @Test
+    public void postHandleDispatches() throws Exception {
+        List<Member> members = memberRepository.findAll(Sort.by("id"));
+        List<CompletableFuture<String>> names = members.stream()
+                .map(teamLoader::load)
+                .map(team -> team.thenApply(t -> t == null ? null : t.getName()))
+                .toList();
+
+        HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest();
+        new TeamBatchLoaderConfig.DispatchInterceptor().postHandle(request, new MockHttpServletResponse(), null, null);
+
+        assertThat(names).allMatch(CompletableFuture::isDone);
+        assertThat(names.get(2).getNow(null)).isEqualTo("teamB");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void loadedTeamsAreNotQueriedAgain() {
+        List<Member> members = memberRepository.findAll(Sort.by("id"));
+        members.forEach(teamLoader::load);
+        teamLoader.dispatch();
+        long count = statistics.getPrepareStatementCount();
+
+        members.forEach(teamLoader::load);
+        assertThat(teamLoader.dispatch()).isZero();
+        assertThat(teamLoader.get(members.get(0).getTeam().getId()).getName()).isEqualTo("teamA");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(count);
+
+        assertThat(teamLoader.get(-1L)).isNull();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(count + 1);
+    }
+
+    // 요청 밖에서는 직접 만들어서 씀
+    @Test
+    public void outsideRequest() {
+        RequestContextHolder.resetRequestAttributes();
+        TeamBatchLoader loader = new TeamBatchLoader(em);
+        List<CompletableFuture<Team>> teams = memberRepository.findAll(Sort.by("id")).stream().map(loader::load).toList();
+
+        assertThat(loader.dispatch()).isEqualTo(1);
+        assertThat(teams.get(0).join().getName()).isEqualTo("teamA");
+    }
+
+    @Test
+    public void otherThreadIsRejected() throws Exception {
+        TeamBatchLoader loader = new TeamBatchLoader(em);
+
+        CompletableFuture<Void> other = CompletableFuture.runAsync(() -> loader.load(1L));
+
+        assertThatThrownBy(other::join).hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void controller() throws Exception {
+        mockMvc.perform(get("/v5/members"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5))
+                .andExpect(jsonPath("$[2].teamName").value("teamB"));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,137 @@
+package study.querydsl.search;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.NameMatch;
+import study.querydsl.entity.Member;
+
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 커밋/롤백 후의 인덱스를 보므로 테스트에 @Transactional을 붙이지 않음
+@SpringBootTest
+class MemberNameIndexTest {
+
+    @Autowired EntityManager em;
+    @Autowired TransactionTemplate tx;
+    @Autowired MemberNameIndex nameIndex;
+
+    Long memberId;
+
+    @BeforeEach
+    void setUp() {
+        memberId = tx.execute(status -> {
+            Member member = new Member("indexAlpha", 10);
+            em.persist(member);
+            return member.getId();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        // 엔티티로 지워야 인덱스에서도 빠짐
+        tx.executeWithoutResult(status -> em.createQuery("select m from Member m where m.username like 'index%'", Member.class)
+                .getResultList()
+                .forEach(em::remove));
+    }
+
+    private Set<Long> prefix(String username) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername(username);
+        condition.setUsernameMatch(NameMatch.PREFIX);
+        return nameIndex.findMemberIds(condition);
+    }
+
+    @Test
+    public void renameTwiceThenRollback() {
+        tx.executeWithoutResult(status -> {
+            Member member = em.find(Member.class, memberId);
+            member.setUsername("indexBeta");
+            em.flush();
+            member.setUsername("indexGamma");
+            em.flush();
+            assertThat(prefix("indexGamma")).containsExactly(memberId);
+            status.setRollbackOnly();
+        });
+
+        assertThat(prefix("indexAlpha")).containsExactly(memberId);
+        assertThat(prefix("indexBeta")).isEmpty();
+        assertThat(prefix("indexGamma")).isEmpty();
+    }
+
+    @Test
+    public void insertRenameThenRollback() {
+        tx.executeWithoutResult(status -> {
+            Member member = new Member("indexGhost", 20);
+            em.persist(member);
+            em.flush();
+            member.setUsername("indexPhantom");
+            em.flush();
+            status.setRollbackOnly();
+        });
+
+        assertThat(prefix("indexGhost")).isEmpty();
+        assertThat(prefix("indexPhantom")).isEmpty();
+        assertThat(prefix("index")).containsExactly(memberId);
+    }
+
+    @Test
+    public void reloadKeepsCommittedChanges() {
+        tx.executeWithoutResult(status -> em.find(Member.class, memberId).setUsername("indexDelta"));
+
+        nameIndex.reload();
+
+        assertThat(prefix("indexDelta")).containsExactly(memberId);
+        assertThat(prefix("indexAlpha")).isEmpty();
+    }
+
+    // 벌크 update는 리스너를 거치지 않으므로 reloadAfterCommit으로 커밋 후 다시 읽음
+    @Test
+    public void bulkUpdateThenReloadAfterCommit() {
+        tx.executeWithoutResult(status -> {
+            em.createQuery("update Member m set m.username = 'indexBulk' where m.id = :id")
+                    .setParameter("id", memberId)
+                    .executeUpdate();
+            nameIndex.reloadAfterCommit();
+        });
+
+        assertThat(prefix("indexBulk")).containsExactly(memberId);
+        assertThat(prefix("indexAlpha")).isEmpty();
+    }
+
+    // 커밋 전 변경이 있는 채로 reload한 뒤 롤백해도 새 인덱스에서 되돌려짐
+    @Test
+    public void rollbackAfterReload() throws Exception {
+        CountDownLatch renamed = new CountDownLatch(1);
+        CountDownLatch reloaded = new CountDownLatch(1);
+        Thread writer = new Thread(() -> tx.executeWithoutResult(status -> {
+            em.find(Member.class, memberId).setUsername("indexGhost");
+            em.flush();
+            renamed.countDown();
+            try {
+                reloaded.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            status.setRollbackOnly();
+        }));
+        writer.start();
+        renamed.await(5, TimeUnit.SECONDS);
+
+        nameIndex.reload();
+        reloaded.countDown();
+        writer.join();
+
+        assertThat(prefix("indexGhost")).isEmpty();
+        assertThat(prefix("indexAlpha")).containsExactly(memberId);
+    }
+}